@@ -1,9 +1,20 @@
 package com.vsa.ecommerce.common.cache;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Utility class for building standardized cache keys with namespace, version,
  * and optional tenant ID.
@@ -14,17 +25,44 @@ import org.springframework.stereotype.Component;
  * - vsa:v1:user::12345
  * - vsa:v1:permission:tenant-abc:read-orders
  * - vsa:v1:config::feature-flags
+ * <p>
+ * Generations: every resource has a generation counter (Redis hash
+ * {namespace}:{version}:generations, mirrored in memory). A non-zero generation
+ * is appended to the version segment, e.g. vsa:v1.g3:product::42. Bumping the
+ * generation makes every existing key of the resource unreachable in O(1);
+ * the old entries age out through their TTL. Key building reads only the local
+ * mirror, which is updated by bumps on this node, by GENERATION events on the
+ * invalidation channel, and by a periodic resync
+ * ({@code cache.generation.sync-interval-ms}).
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class CacheKeyConvention {
 
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Local mirror of resource generations, with the version segment
+     * precomputed so building a key does not allocate beyond the key itself.
+     */
+    private final ConcurrentMap<String, ResourceGeneration> generations = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-generation-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Value("${cache.default-namespace:vsa}")
     private String defaultNamespace;
 
     @Value("${cache.default-version:v1}")
     private String defaultVersion;
 
+    @Value("${cache.generation.sync-interval-ms:30000}")
+    private long syncIntervalMs;
+
     // ========== Cache Key Resource Constants ==========
 
     /**
@@ -53,6 +91,8 @@ public class CacheKeyConvention {
     // System Resources
     public static final String RESOURCE_NOTIFICATION = "notification";
     public static final String RESOURCE_PERMISSION = "permission";
+    // Principal snapshots with authority bits ("user-principal" held the older string form)
+    public static final String RESOURCE_USER_PRINCIPAL = "principal";
     public static final String RESOURCE_CONFIG = "config";
 
     // Composite Keys (for complex queries)
@@ -87,12 +127,8 @@ public class CacheKeyConvention {
      */
     public String buildKey(String resource, String identifier, String tenantId) {
         String tenant = tenantId != null ? tenantId : "";
-        String key = String.format("%s:%s:%s:%s:%s",
-                defaultNamespace,
-                defaultVersion,
-                resource,
-                tenant,
-                identifier);
+        String key = defaultNamespace + ':' + versionSegment(resource) + ':' + resource + ':' + tenant + ':'
+                + identifier;
         log.trace("Built cache key: {}", key);
         return key;
     }
@@ -102,15 +138,26 @@ public class CacheKeyConvention {
      * type).
      * <p>
      * Example: buildPattern("user") → "vsa:v1:user:*"
+     * <p>
+     * The pattern covers the resource's current generation only.
      *
      * @param resource Resource type
      * @return Pattern string with wildcard
      */
     public String buildPattern(String resource) {
-        return String.format("%s:%s:%s:*",
-                defaultNamespace,
-                defaultVersion,
-                resource);
+        return defaultNamespace + ':' + versionSegment(resource) + ':' + resource + ":*";
+    }
+
+    /**
+     * Build a pattern for the keys of a specific generation of a resource
+     * (e.g., to drop the previous generation from L1 after a bump).
+     *
+     * @param resource   Resource type
+     * @param generation Generation number
+     * @return Pattern string with wildcard
+     */
+    public String buildPattern(String resource, long generation) {
+        return defaultNamespace + ':' + versionSegment(generation) + ':' + resource + ":*";
     }
 
     /**
@@ -121,11 +168,107 @@ public class CacheKeyConvention {
      * @return Pattern string with wildcard for a tenant
      */
     public String buildTenantPattern(String resource, String tenantId) {
-        return String.format("%s:%s:%s:%s:*",
-                defaultNamespace,
-                defaultVersion,
-                resource,
-                tenantId);
+        return defaultNamespace + ':' + versionSegment(resource) + ':' + resource + ':' + tenantId + ":*";
+    }
+
+    // ========== Resource Generations ==========
+
+    /**
+     * Get the locally known generation of a resource (0 if never bumped).
+     *
+     * @param resource Resource type
+     * @return Current generation
+     */
+    public long getGeneration(String resource) {
+        ResourceGeneration current = generations.get(resource);
+        return current != null ? current.generation() : 0L;
+    }
+
+    /**
+     * Atomically increment the resource's generation in Redis and apply it
+     * locally. Callers are responsible for broadcasting the new generation
+     * (see HybridCacheService#invalidateResource).
+     *
+     * @param resource Resource type
+     * @return New generation
+     */
+    public long bumpGeneration(String resource) {
+        Long generation = redisTemplate.opsForHash().increment(generationsKey(), resource, 1);
+        applyGeneration(resource, generation);
+        log.info("Bumped cache generation of resource {} to {}", resource, generation);
+        return generation;
+    }
+
+    /**
+     * Apply a generation learned from another node or from Redis. Generations
+     * only move forward, so out-of-order or repeated updates are ignored.
+     *
+     * @param resource   Resource type
+     * @param generation Generation number
+     * @return true if the local generation advanced
+     */
+    public boolean applyGeneration(String resource, long generation) {
+        if (resource == null || generation <= 0) {
+            return false;
+        }
+        ResourceGeneration next = new ResourceGeneration(generation, versionSegment(generation));
+        while (true) {
+            ResourceGeneration current = generations.get(resource);
+            if (current != null && current.generation() >= generation) {
+                return false;
+            }
+            boolean swapped = current == null
+                    ? generations.putIfAbsent(resource, next) == null
+                    : generations.replace(resource, current, next);
+            if (swapped) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reload all generations from Redis into the local mirror. Covers nodes
+     * that missed a GENERATION event (startup, subscriber reconnect).
+     */
+    public void syncGenerations() {
+        try {
+            Map<Object, Object> stored = redisTemplate.opsForHash().entries(generationsKey());
+            stored.forEach((resource, generation) -> applyGeneration(resource.toString(),
+                    Long.parseLong(generation.toString())));
+            log.debug("Synchronized {} cache resource generations", stored.size());
+        } catch (Exception e) {
+            log.warn("Failed to synchronize cache generations from Redis, keeping local values", e);
+        }
+    }
+
+    @PostConstruct
+    public void startGenerationSync() {
+        syncGenerations();
+        if (syncIntervalMs > 0) {
+            syncScheduler.scheduleWithFixedDelay(this::syncGenerations, syncIntervalMs, syncIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncScheduler.shutdownNow();
+    }
+
+    private String versionSegment(String resource) {
+        ResourceGeneration current = generations.get(resource);
+        return current != null ? current.versionSegment() : defaultVersion;
+    }
+
+    private String versionSegment(long generation) {
+        return generation > 0 ? defaultVersion + ".g" + generation : defaultVersion;
+    }
+
+    private String generationsKey() {
+        return defaultNamespace + ':' + defaultVersion + ":generations";
+    }
+
+    private record ResourceGeneration(long generation, String versionSegment) {
     }
 
     /**
@@ -1,111 +1,354 @@
 package com.vsa.ecommerce.common.cache;
 
-import lombok.Data;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Cache statistics holder for monitoring cache performance.
- * Tracks hits, misses, evictions, and calculates hit ratio.
- * Thread-safe using atomic counters.
+ * Micrometer instrumentation for the hybrid cache tiers.
+ * <p>
+ * Meters:
+ * - cache.hybrid.gets{tier=l1|l2, result=hit|miss, resource}
+ * - cache.hybrid.loads{resource}: supplier executions (compute tier)
+ * - cache.hybrid.puts{resource} / cache.hybrid.evictions{resource}
+ * - cache.hybrid.negative.hits{resource}: lookups answered by an absent marker
+ * - cache.hybrid.bloom.rejections{resource}: lookups rejected by the Bloom filter
+ * - cache.hybrid.latency{operation=l2.get|l2.put|load}: timers with
+ * percentile histograms
+ * - cache.hybrid.coalesced.*, cache.hybrid.stale.serves,
+ * cache.hybrid.refresh*: single-flight and refresh-ahead counters
+ * <p>
+ * The resource tag is the third segment of a CacheKeyConvention key
+ * ({namespace}:{version}:{resource}:...). Meters per resource are created once
+ * and resolved afterwards with an allocation-free, lock-free scan of a
+ * copy-on-write array, so recording on the hot path does not allocate. At most
+ * {@value #MAX_RESOURCES} resources are tracked; the rest share "other".
  */
 @Slf4j
-@Data
+@Component
 public class CacheMetrics {
 
-    private final String cacheName;
-    private final AtomicLong hits = new AtomicLong(0);
-    private final AtomicLong misses = new AtomicLong(0);
-    private final AtomicLong evictions = new AtomicLong(0);
-    private final AtomicLong puts = new AtomicLong(0);
+    public static final String OTHER_RESOURCE = "other";
+    private static final int MAX_RESOURCES = 64;
 
-    public CacheMetrics(String cacheName) {
-        this.cacheName = cacheName;
+    private final MeterRegistry registry;
+    private final ResourceMeters other;
+    private volatile ResourceMeters[] resources = new ResourceMeters[0];
+
+    private final Timer l2GetTimer;
+    private final Timer l2PutTimer;
+    private final Timer loadTimer;
+
+    private final Counter coalescedWaits;
+    private final Counter coalescedTimeouts;
+    private final Counter staleServes;
+    private final Counter refreshes;
+    private final Counter refreshFailures;
+    private final Counter refreshRejected;
+
+    public CacheMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.other = new ResourceMeters(OTHER_RESOURCE, registry);
+        this.l2GetTimer = latencyTimer("l2.get", registry);
+        this.l2PutTimer = latencyTimer("l2.put", registry);
+        this.loadTimer = latencyTimer("load", registry);
+        this.coalescedWaits = Counter.builder("cache.hybrid.coalesced.waits")
+                .description("Cache misses served by waiting on an in-flight load of the same key")
+                .register(registry);
+        this.coalescedTimeouts = Counter.builder("cache.hybrid.coalesced.timeouts")
+                .description("Coalesced waits that timed out and fell back to a direct load")
+                .register(registry);
+        this.staleServes = Counter.builder("cache.hybrid.stale.serves")
+                .description("Values served past their soft TTL while a background refresh runs")
+                .register(registry);
+        this.refreshes = Counter.builder("cache.hybrid.refreshes")
+                .description("Successful background refreshes")
+                .register(registry);
+        this.refreshFailures = Counter.builder("cache.hybrid.refresh.failures")
+                .description("Background refreshes whose loader failed")
+                .register(registry);
+        this.refreshRejected = Counter.builder("cache.hybrid.refresh.rejected")
+                .description("Background refreshes dropped because the refresh executor was saturated")
+                .register(registry);
     }
 
-    public void recordHit() {
-        hits.incrementAndGet();
-        logIfMilestone();
+    /**
+     * Resolve the per-resource meters for a cache key or pattern.
+     * Allocation-free once the resource has been seen.
+     *
+     * @param key Cache key or pattern
+     * @return Meters of the key's resource, or of "other"
+     */
+    public ResourceMeters forKey(String key) {
+        if (key == null) {
+            return other;
+        }
+        int first = key.indexOf(':');
+        int second = first < 0 ? -1 : key.indexOf(':', first + 1);
+        if (second < 0) {
+            return other;
+        }
+        int start = second + 1;
+        int end = key.indexOf(':', start);
+        return lookup(key, start, end < 0 ? key.length() : end);
     }
 
-    public void recordMiss() {
-        misses.incrementAndGet();
-        logIfMilestone();
+    /**
+     * Resolve the meters of a resource by name.
+     *
+     * @param resource Resource type (e.g., "product")
+     * @return Meters of the resource, or of "other"
+     */
+    public ResourceMeters forResource(String resource) {
+        return resource == null ? other : lookup(resource, 0, resource.length());
     }
 
-    public void recordEviction() {
-        evictions.incrementAndGet();
+    private ResourceMeters lookup(String source, int start, int end) {
+        int length = end - start;
+        ResourceMeters[] current = resources;
+        for (ResourceMeters meters : current) {
+            if (meters.resource.length() == length && source.regionMatches(start, meters.resource, 0, length)) {
+                return meters;
+            }
+        }
+        // Untracked for good: answered without allocating or locking
+        if (current.length >= MAX_RESOURCES || !isResourceName(source, start, end)) {
+            return other;
+        }
+        return register(source.substring(start, end));
     }
 
-    public void recordPut() {
-        puts.incrementAndGet();
+    /**
+     * Whether {@code source[start, end)} can name a resource: not empty and
+     * free of glob characters (patterns such as "vsa:v1:*").
+     */
+    private static boolean isResourceName(String source, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
     }
 
-    public long getHits() {
-        return hits.get();
+    /**
+     * Snapshot of the meters of every tracked resource, including "other".
+     */
+    public List<ResourceMeters> allResources() {
+        ResourceMeters[] snapshot = resources;
+        ResourceMeters[] all = Arrays.copyOf(snapshot, snapshot.length + 1);
+        all[snapshot.length] = other;
+        return List.of(all);
     }
 
-    public long getMisses() {
-        return misses.get();
+    public void recordL2Get(long startNanos) {
+        l2GetTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 
-    public long getEvictions() {
-        return evictions.get();
+    public void recordL2Put(long startNanos) {
+        l2PutTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 
-    public long getPuts() {
-        return puts.get();
+    public void recordLoad(long startNanos) {
+        loadTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 
-    public long getTotalRequests() {
-        return hits.get() + misses.get();
+    public void recordCoalescedWait() {
+        coalescedWaits.increment();
     }
 
-    /**
-     * Calculate cache hit ratio.
-     *
-     * @return Hit ratio (0.0 to 1.0), or 0.0 if no requests
-     */
-    public double getHitRatio() {
-        long total = getTotalRequests();
-        return total > 0 ? (double) hits.get() / total : 0.0;
+    public void recordCoalescedTimeout() {
+        coalescedTimeouts.increment();
     }
 
-    /**
-     * Get formatted hit ratio as percentage.
-     *
-     * @return Hit ratio percentage (0-100)
-     */
-    public double getHitRatioPercent() {
-        return getHitRatio() * 100;
+    public void recordStaleServe() {
+        staleServes.increment();
     }
 
-    /**
-     * Reset all metrics to zero.
-     */
-    public void reset() {
-        hits.set(0);
-        misses.set(0);
-        evictions.set(0);
-        puts.set(0);
-        log.info("Cache metrics reset for: {}", cacheName);
+    public void recordRefresh() {
+        refreshes.increment();
+    }
+
+    public void recordRefreshFailure() {
+        refreshFailures.increment();
+    }
+
+    public void recordRefreshRejected() {
+        refreshRejected.increment();
+    }
+
+    private synchronized ResourceMeters register(String resource) {
+        ResourceMeters[] current = resources;
+        for (ResourceMeters meters : current) {
+            if (meters.resource.equals(resource)) {
+                return meters;
+            }
+        }
+        if (current.length >= MAX_RESOURCES) {
+            return other;
+        }
+
+        ResourceMeters created = new ResourceMeters(resource, registry);
+        ResourceMeters[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = created;
+        resources = next;
+        log.debug("Registered cache metrics for resource: {}", resource);
+        return created;
+    }
+
+    private static Timer latencyTimer(String operation, MeterRegistry registry) {
+        return Timer.builder("cache.hybrid.latency")
+                .description("Latency of L2 operations and loader executions")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
     }
 
     /**
-     * Log metrics at milestone intervals (every 100 requests).
+     * Counters of a single cache resource. Counter increments are lock-free
+     * and allocation-free.
      */
-    private void logIfMilestone() {
-        long total = getTotalRequests();
-        if (total % 100 == 0) {
-            log.info("[{}] Cache Stats - Hits: {}, Misses: {}, Hit Ratio: {:.2f}%, Total: {}",
-                    cacheName, hits.get(), misses.get(), getHitRatioPercent(), total);
+    public static final class ResourceMeters {
+
+        private final String resource;
+        private final Counter l1Hits;
+        private final Counter l1Misses;
+        private final Counter l2Hits;
+        private final Counter l2Misses;
+        private final Counter loads;
+        private final Counter puts;
+        private final Counter evictions;
+        private final Counter negativeHits;
+        private final Counter bloomRejections;
+
+        private ResourceMeters(String resource, MeterRegistry registry) {
+            this.resource = resource;
+            this.l1Hits = gets(registry, resource, "l1", "hit");
+            this.l1Misses = gets(registry, resource, "l1", "miss");
+            this.l2Hits = gets(registry, resource, "l2", "hit");
+            this.l2Misses = gets(registry, resource, "l2", "miss");
+            this.loads = Counter.builder("cache.hybrid.loads")
+                    .description("Loader executions after a full cache miss")
+                    .tag("resource", resource)
+                    .register(registry);
+            this.puts = Counter.builder("cache.hybrid.puts")
+                    .tag("resource", resource)
+                    .register(registry);
+            this.evictions = Counter.builder("cache.hybrid.evictions")
+                    .description("Explicit evictions (single key or pattern matches)")
+                    .tag("resource", resource)
+                    .register(registry);
+            this.negativeHits = Counter.builder("cache.hybrid.negative.hits")
+                    .description("Lookups answered by a cached absent marker")
+                    .tag("resource", resource)
+                    .register(registry);
+            this.bloomRejections = Counter.builder("cache.hybrid.bloom.rejections")
+                    .description("Lookups of ids rejected by the resource's Bloom filter")
+                    .tag("resource", resource)
+                    .register(registry);
+        }
+
+        private static Counter gets(MeterRegistry registry, String resource, String tier, String result) {
+            return Counter.builder("cache.hybrid.gets")
+                    .tag("resource", resource)
+                    .tag("tier", tier)
+                    .tag("result", result)
+                    .register(registry);
+        }
+
+        public String resource() {
+            return resource;
+        }
+
+        public void l1Hit() {
+            l1Hits.increment();
+        }
+
+        public void l1Miss() {
+            l1Misses.increment();
+        }
+
+        public void l2Hit() {
+            l2Hits.increment();
+        }
+
+        public void l2Miss() {
+            l2Misses.increment();
+        }
+
+        public void load() {
+            loads.increment();
+        }
+
+        public void put() {
+            puts.increment();
+        }
+
+        public void evicted(long count) {
+            evictions.increment(count);
+        }
+
+        public void negativeHit() {
+            negativeHits.increment();
+        }
+
+        public void bloomRejected() {
+            bloomRejections.increment();
+        }
+
+        public long l1HitCount() {
+            return (long) l1Hits.count();
+        }
+
+        public long l1MissCount() {
+            return (long) l1Misses.count();
+        }
+
+        public long l2HitCount() {
+            return (long) l2Hits.count();
+        }
+
+        public long l2MissCount() {
+            return (long) l2Misses.count();
+        }
+
+        public long loadCount() {
+            return (long) loads.count();
+        }
+
+        public long evictionCount() {
+            return (long) evictions.count();
         }
-    }
 
-    @Override
-    public String toString() {
-        return String.format("CacheMetrics[%s: hits=%d, misses=%d, evictions=%d, puts=%d, hitRatio=%.2f%%]",
-                cacheName, hits.get(), misses.get(), evictions.get(), puts.get(), getHitRatioPercent());
+        public long negativeHitCount() {
+            return (long) negativeHits.count();
+        }
+
+        public long bloomRejectionCount() {
+            return (long) bloomRejections.count();
+        }
+
+        /**
+         * Combined L1+L2 hit ratio of this resource.
+         *
+         * @return Hit ratio (0.0 to 1.0), or 0.0 if no requests
+         */
+        public double hitRatio() {
+            double requests = l1Hits.count() + l1Misses.count();
+            return requests > 0 ? (l1Hits.count() + l2Hits.count()) / requests : 0.0;
+        }
     }
 }
@@ -0,0 +1,60 @@
+package com.vsa.ecommerce.common.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.vsa.ecommerce.common.cache.CacheMetrics.ResourceMeters;
+import com.vsa.ecommerce.common.cache.l1.LocalCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing a per-resource view of the hybrid cache
+ * (GET /actuator/cachestats).
+ * <p>
+ * Reads the counters kept by {@link CacheMetrics} and the L1 resource index;
+ * the raw meters remain available under /actuator/metrics/cache.hybrid.*.
+ */
+@Component
+@Endpoint(id = "cachestats")
+@RequiredArgsConstructor
+public class CacheStatsEndpoint {
+
+    private final CacheMetrics cacheMetrics;
+    private final LocalCacheService l1Cache;
+
+    @ReadOperation
+    public Map<String, Object> cacheStats() {
+        CacheStats l1Stats = l1Cache.getStats();
+        Map<String, Long> l1SizeByResource = l1Cache.sizeByResource();
+
+        Map<String, Object> l1 = new LinkedHashMap<>();
+        l1.put("size", l1Cache.size());
+        l1.put("hitRatio", l1Stats.hitRate());
+        l1.put("evictions", l1Stats.evictionCount());
+
+        Map<String, Object> resources = new LinkedHashMap<>();
+        for (ResourceMeters meters : cacheMetrics.allResources()) {
+            Map<String, Object> resource = new LinkedHashMap<>();
+            resource.put("hitRatio", meters.hitRatio());
+            resource.put("l1Hits", meters.l1HitCount());
+            resource.put("l1Misses", meters.l1MissCount());
+            resource.put("l2Hits", meters.l2HitCount());
+            resource.put("l2Misses", meters.l2MissCount());
+            resource.put("loads", meters.loadCount());
+            resource.put("evictions", meters.evictionCount());
+            resource.put("negativeHits", meters.negativeHitCount());
+            resource.put("bloomRejections", meters.bloomRejectionCount());
+            resource.put("l1Entries", l1SizeByResource.getOrDefault(meters.resource(), 0L));
+            resources.put(meters.resource(), resource);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1", l1);
+        stats.put("resources", resources);
+        return stats;
+    }
+}
@@ -8,9 +8,11 @@ import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.SubscriptionListener;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Comprehensive cache configuration for enterprise-grade caching strategy.
@@ -66,16 +68,31 @@ public class HybridCacheConfig {
         @Value("${cache.pub-sub.channel:cache-invalidation}")
         private String pubSubChannel;
 
+        @Value("${cache.pub-sub.listener-queue-capacity:10000}")
+        private int listenerQueueCapacity;
+
         /**
          * Configure Redis message listener container for Pub/Sub.
          * Listens to cache invalidation events and triggers L1 eviction.
+         * <p>
+         * Messages are dispatched to a single consumer thread with a bounded
+         * queue instead of the default SimpleAsyncTaskExecutor (one new thread
+         * per message), so they are applied one at a time and in order. When
+         * the queue is full a message is dropped and the subscriber schedules
+         * one L1 resync; the Redis I/O thread never applies messages itself.
+         * <p>
+         * Only cache invalidation uses this container. Other listeners
+         * (security versions, token revocations, idempotency) use the primary
+         * container of RedisConfig, so an invalidation backlog does not delay
+         * them.
          */
         @Bean
-        public RedisMessageListenerContainer redisMessageListenerContainer(
+        public RedisMessageListenerContainer cacheInvalidationListenerContainer(
                         RedisConnectionFactory connectionFactory,
                         MessageListenerAdapter messageListenerAdapter) {
                 RedisMessageListenerContainer container = new RedisMessageListenerContainer();
                 container.setConnectionFactory(connectionFactory);
+                container.setTaskExecutor(invalidationListenerExecutor());
                 container.addMessageListener(messageListenerAdapter, new ChannelTopic(pubSubChannel));
 
                 log.info("Redis Pub/Sub configured - Channel: {}", pubSubChannel);
@@ -84,10 +101,44 @@ public class HybridCacheConfig {
 
         /**
          * Message listener adapter for cache invalidation events.
-         * Routes incoming messages to CacheInvalidationSubscriber.
+         * Routes incoming messages to CacheInvalidationSubscriber, and tells it
+         * whenever the channel is (re)subscribed, e.g. after Lettuce
+         * reconnected: events published while disconnected were lost.
          */
         @Bean
         public MessageListenerAdapter messageListenerAdapter() {
-                return new MessageListenerAdapter(invalidationSubscriber, "handleMessage");
+                return new SubscriptionAwareListenerAdapter(invalidationSubscriber);
+        }
+
+        /**
+         * Not exposed as a bean, so Spring Boot's application task executor is
+         * still auto-configured.
+         */
+        private ThreadPoolTaskExecutor invalidationListenerExecutor() {
+                ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+                executor.setCorePoolSize(1);
+                executor.setMaxPoolSize(1);
+                executor.setQueueCapacity(listenerQueueCapacity);
+                executor.setThreadNamePrefix("cache-invalidation-");
+                executor.setDaemon(true);
+                executor.setRejectedExecutionHandler((message, pool) -> invalidationSubscriber.onEventsDropped());
+                executor.initialize();
+                return executor;
+        }
+
+        private static final class SubscriptionAwareListenerAdapter extends MessageListenerAdapter
+                        implements SubscriptionListener {
+
+                private final CacheInvalidationSubscriber subscriber;
+
+                private SubscriptionAwareListenerAdapter(CacheInvalidationSubscriber subscriber) {
+                        super(subscriber, "handleMessage");
+                        this.subscriber = subscriber;
+                }
+
+                @Override
+                public void onChannelSubscribed(byte[] channel, long count) {
+                        subscriber.onSubscribed();
+                }
         }
 }
@@ -0,0 +1,267 @@
+package com.vsa.ecommerce.common.cache.bloom;
+
+import com.vsa.ecommerce.common.cache.CacheMetrics;
+import com.vsa.ecommerce.common.cache.pubsub.CacheInvalidationPublisher;
+import com.vsa.ecommerce.common.id.SnowflakeIdGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-resource Bloom filters of existing entity ids, used to reject lookups
+ * of ids that cannot exist before they reach the cache tiers or the database
+ * (cache penetration guard).
+ * <p>
+ * A feature registers its resource with an id loader at startup; the filter is
+ * built from it and rebuilt every {@code cache.bloom.rebuild-interval-minutes}
+ * to shed deleted ids and recover adds missed by this node. New ids are added
+ * locally and broadcast to other instances via the invalidation channel once
+ * the creating transaction commits.
+ * <p>
+ * Lookups fail open, so a missed add never turns into a 404 for an existing
+ * entity. Every id is reported as possibly present:
+ * - for an unregistered resource, or one whose filter could not be built
+ * - while a filter is stale: from a Pub/Sub resubscription (adds may have been
+ * lost while disconnected) until the rebuild it triggers has finished
+ * - for ids created within {@code cache.bloom.recent-id-grace-ms} (by their
+ * Snowflake timestamp), whose BLOOM_ADD may still be in flight
+ * <p>
+ * Configuration:
+ * - cache.bloom.enabled: Master switch (default true)
+ * - cache.bloom.expected-insertions: Minimum filter capacity per resource
+ * - cache.bloom.false-positive-rate: Target false-positive rate
+ * - cache.bloom.rebuild-interval-minutes: Periodic rebuild (0 disables)
+ * - cache.bloom.recent-id-grace-ms: Ids this recent are never rejected
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheBloomFilterService {
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final CacheMetrics metrics;
+
+    private final ConcurrentMap<String, Registration> registrations = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService rebuildScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-bloom-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${cache.bloom.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.bloom.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${cache.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${cache.bloom.rebuild-interval-minutes:60}")
+    private long rebuildIntervalMinutes;
+
+    @Value("${cache.bloom.recent-id-grace-ms:10000}")
+    private long recentIdGraceMs;
+
+    /**
+     * Register a resource and build its filter from the given id loader.
+     *
+     * @param resource Resource type (e.g., "product")
+     * @param idLoader Loads every existing id of the resource
+     */
+    public void register(String resource, Supplier<Collection<Long>> idLoader) {
+        if (!enabled) {
+            return;
+        }
+
+        Registration registration = new Registration(idLoader);
+        if (registrations.putIfAbsent(resource, registration) != null) {
+            log.warn("Bloom filter for resource {} is already registered", resource);
+            return;
+        }
+
+        rebuild(resource);
+        if (rebuildIntervalMinutes > 0) {
+            rebuildScheduler.scheduleWithFixedDelay(() -> rebuild(resource), rebuildIntervalMinutes,
+                    rebuildIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Check whether an id of a resource may exist. Rejections are counted as
+     * cache.hybrid.bloom.rejections{resource}.
+     *
+     * @param resource Resource type
+     * @param id       Entity id
+     * @return false if the id definitely does not exist
+     */
+    public boolean mightContain(String resource, long id) {
+        Registration registration = registrations.get(resource);
+        LongBloomFilter filter = registration != null ? registration.filter : null;
+        if (filter == null || registration.stale || filter.mightContain(id) || isRecent(id)) {
+            return true;
+        }
+
+        metrics.forResource(resource).bloomRejected();
+        return false;
+    }
+
+    /**
+     * Record a newly created id on this node and on all other instances, after
+     * the current transaction commits (at once without a transaction).
+     *
+     * @param resource Resource type
+     * @param id       Entity id
+     */
+    public void add(String resource, long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addNow(resource, id);
+            return;
+        }
+
+        // Adding before commit would let a rebuild drop the id from its replay
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addNow(resource, id);
+            }
+        });
+    }
+
+    private void addNow(String resource, long id) {
+        if (addLocal(resource, id)) {
+            invalidationPublisher.publishBloomAdd(resource, id);
+        }
+    }
+
+    /**
+     * Record an id on this node only (used for adds received via Pub/Sub).
+     *
+     * @param resource Resource type
+     * @param id       Entity id
+     * @return true if the resource has a filter on this node
+     */
+    public boolean addLocal(String resource, long id) {
+        Registration registration = registrations.get(resource);
+        if (registration == null) {
+            return false;
+        }
+        registration.add(id);
+        return true;
+    }
+
+    /**
+     * Distrust every filter until it has been rebuilt. Called when the
+     * invalidation channel is (re)subscribed, since BLOOM_ADD events sent while
+     * this node was disconnected are lost.
+     */
+    public void rebuildAllAsync() {
+        registrations.forEach((resource, registration) -> {
+            registration.stale = true;
+            rebuildScheduler.execute(() -> rebuild(resource));
+        });
+    }
+
+    /**
+     * Rebuild a resource's filter from its id loader. Ids added while the
+     * loader runs are written to the current filter and replayed into the new
+     * one.
+     *
+     * @param resource Resource type
+     */
+    public void rebuild(String resource) {
+        Registration registration = registrations.get(resource);
+        if (registration == null) {
+            return;
+        }
+
+        synchronized (registration) {
+            Set<Long> racingAdds = ConcurrentHashMap.newKeySet();
+            registration.pendingAdds = racingAdds;
+            try {
+                long started = System.currentTimeMillis();
+                Collection<Long> ids = registration.idLoader.get();
+
+                LongBloomFilter filter = new LongBloomFilter(Math.max(expectedInsertions, 2L * ids.size()),
+                        falsePositiveRate);
+                ids.forEach(filter::add);
+                registration.filter = filter;
+                // Replay adds that raced with the id query; later adds see the new filter
+                racingAdds.forEach(filter::add);
+                registration.stale = false;
+
+                log.info("Bloom filter for resource {} built: {} ids, {} bits, {} hashes in {}ms",
+                        resource, ids.size(), filter.bitCount(), filter.hashCount(),
+                        System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                log.error("Failed to build Bloom filter for resource {}, keeping previous filter", resource, e);
+            } finally {
+                registration.pendingAdds = null;
+            }
+        }
+    }
+
+    /**
+     * Whether the id was created within the grace period, judged by its
+     * Snowflake timestamp; the same margin is allowed for clock skew between
+     * nodes.
+     */
+    private boolean isRecent(long id) {
+        long age = System.currentTimeMillis() - SnowflakeIdGenerator.parse(id).timestamp();
+        return age >= -recentIdGraceMs && age <= recentIdGraceMs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildScheduler.shutdownNow();
+    }
+
+    private static final class Registration {
+
+        private final Supplier<Collection<Long>> idLoader;
+        private volatile LongBloomFilter filter;
+
+        /**
+         * Adds may have been missed; lookups fail open until the next rebuild.
+         */
+        private volatile boolean stale;
+
+        /**
+         * Ids added while a rebuild runs; non-null only during a rebuild.
+         */
+        private volatile Set<Long> pendingAdds;
+
+        private Registration(Supplier<Collection<Long>> idLoader) {
+            this.idLoader = idLoader;
+        }
+
+        /**
+         * Record the id for a running rebuild before touching the filter, so an
+         * add that misses the rebuild's final drain reads the new filter.
+         */
+        private void add(long id) {
+            Set<Long> pending = pendingAdds;
+            if (pending != null) {
+                pending.add(id);
+            }
+            LongBloomFilter current = filter;
+            if (current != null) {
+                current.add(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.vsa.ecommerce.common.cache.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over {@code long} ids.
+ * <p>
+ * Bits live in an {@link AtomicLongArray}; reads are plain volatile loads and
+ * writes set bits with a CAS, so lookups never block and never allocate.
+ * Positions are derived from two 64-bit mixes of the id (Kirsch-Mitzenmacher
+ * double hashing).
+ * <p>
+ * A negative answer is exact: an id that was added is always reported as
+ * possibly present. A positive answer is wrong with roughly the configured
+ * false-positive rate while the filter holds at most its expected insertions.
+ */
+public final class LongBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions Number of ids the filter is sized for
+     * @param falsePositiveRate  Target false-positive rate (0 < rate < 1)
+     */
+    public LongBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) >>> 6));
+
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Add an id to the filter.
+     *
+     * @param id Id to add
+     */
+    public void add(long id) {
+        long h1 = mix(id);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Check whether an id may have been added.
+     *
+     * @param id Id to check
+     * @return false if the id was definitely never added
+     */
+    public boolean mightContain(long id) {
+        long h1 = mix(id);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,51 @@
+package com.vsa.ecommerce.common.cache.codec;
+
+import java.io.IOException;
+
+/**
+ * SPI for serializing L2 (Redis) cache values.
+ * <p>
+ * Each codec owns a format id that is written as the first byte of a stored
+ * payload (see {@link CachePayloadSerializer}), so values written by different
+ * codecs can coexist in Redis during a rolling deploy or a codec switch.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface CacheCodec {
+
+    /**
+     * Unique format id stored in the payload header (1-8).
+     *
+     * @return Format id
+     */
+    byte formatId();
+
+    /**
+     * Short codec name used in configuration (cache.redis.codec.format).
+     *
+     * @return Codec name (e.g., "json", "smile")
+     */
+    String name();
+
+    /**
+     * Encode a value into bytes (without header).
+     *
+     * @param value Value to encode
+     * @return Encoded bytes
+     * @throws IOException if the value cannot be encoded
+     */
+    byte[] encode(Object value) throws IOException;
+
+    /**
+     * Decode bytes (without header) into a value.
+     *
+     * @param data   Buffer containing the encoded value
+     * @param offset Start of the encoded value in the buffer
+     * @param length Length of the encoded value
+     * @param type   Target type
+     * @param <T>    Value type
+     * @return Decoded value
+     * @throws IOException if the bytes cannot be decoded
+     */
+    <T> T decode(byte[] data, int offset, int length, Class<T> type) throws IOException;
+}
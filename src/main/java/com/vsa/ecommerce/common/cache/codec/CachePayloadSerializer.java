@@ -0,0 +1,205 @@
+package com.vsa.ecommerce.common.cache.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns cache values into Redis payloads and back, using the configured
+ * {@link CacheCodec} and optional LZ4 compression.
+ * <p>
+ * Payload layout:
+ *
+ * <pre>
+ * plain JSON (legacy)   : {json bytes}                       first byte is '{', '[', '"', ...
+ * codec, uncompressed   : [header] {encoded}                 header = formatId
+ * codec, LZ4 compressed : [header] [int32 rawLength] {lz4}   header = formatId | 0x10
+ * absent marker         : 0x00                               negative caching, see {@link #absentPayload()}
+ * </pre>
+ * <p>
+ * Header bytes are below 0x20 and never a JSON whitespace character, so they
+ * cannot be confused with a legacy JSON value. Every node can therefore read
+ * every format, whichever codec it is configured to write with.
+ * <p>
+ * Configuration:
+ * - cache.redis.codec.format: Codec used for writes ("json" or "smile")
+ * - cache.redis.codec.compression-enabled: Enable LZ4 for large payloads
+ * (default false: nodes before the codec header cannot read compressed
+ * payloads, so enable it only once every node runs this version)
+ * - cache.redis.codec.compression-threshold-bytes: Minimum encoded size to compress
+ * - cache.redis.codec.max-decompressed-bytes: Largest raw length accepted from a
+ * compressed payload header
+ */
+@Slf4j
+@Component
+public class CachePayloadSerializer {
+
+    private static final int COMPRESSED_FLAG = 0x10;
+    private static final int FORMAT_MASK = 0x0F;
+    private static final int MAX_FORMAT_ID = 8;
+    private static final byte ABSENT_MARKER = 0x00;
+
+    private final CacheCodec[] codecsById = new CacheCodec[MAX_FORMAT_ID + 1];
+    private final CacheCodec writeCodec;
+    private final boolean compressionEnabled;
+    private final int compressionThreshold;
+    private final int maxDecompressedBytes;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    public CachePayloadSerializer(
+            List<CacheCodec> codecs,
+            @Value("${cache.redis.codec.format:json}") String format,
+            @Value("${cache.redis.codec.compression-enabled:false}") boolean compressionEnabled,
+            @Value("${cache.redis.codec.compression-threshold-bytes:4096}") int compressionThreshold,
+            @Value("${cache.redis.codec.max-decompressed-bytes:67108864}") int maxDecompressedBytes) {
+        CacheCodec selected = null;
+        for (CacheCodec codec : codecs) {
+            int id = codec.formatId();
+            if (id < 1 || id > MAX_FORMAT_ID) {
+                throw new IllegalStateException("Cache codec format id out of range (1-" + MAX_FORMAT_ID + "): "
+                        + codec.name());
+            }
+            if (codecsById[id] != null) {
+                throw new IllegalStateException("Duplicate cache codec format id " + id + ": "
+                        + codecsById[id].name() + ", " + codec.name());
+            }
+            codecsById[id] = codec;
+            if (codec.name().equalsIgnoreCase(format)) {
+                selected = codec;
+            }
+        }
+        if (selected == null) {
+            throw new IllegalStateException("Unknown cache codec format: " + format);
+        }
+
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.writeCodec = selected;
+        this.compressionEnabled = compressionEnabled;
+        this.compressionThreshold = compressionThreshold;
+        this.maxDecompressedBytes = maxDecompressedBytes;
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.fastDecompressor();
+
+        log.info("L2 cache codec initialized - Format: {}, Compression: {} (threshold: {} bytes)",
+                selected.name(), compressionEnabled, compressionThreshold);
+    }
+
+    /**
+     * Encode a value with the configured codec, compressing it when large.
+     *
+     * @param value Value to encode
+     * @return Payload ready to store in Redis
+     * @throws IOException if the value cannot be encoded
+     */
+    public byte[] serialize(Object value) throws IOException {
+        byte[] encoded = writeCodec.encode(value);
+
+        if (compressionEnabled && encoded.length >= compressionThreshold) {
+            byte[] compressed = compress(encoded);
+            if (compressed.length < encoded.length) {
+                return compressed;
+            }
+        }
+
+        if (writeCodec.formatId() == JsonCacheCodec.FORMAT_ID) {
+            // Plain JSON stays header-less, readable by instances on the previous version
+            return encoded;
+        }
+
+        byte[] payload = new byte[encoded.length + 1];
+        payload[0] = writeCodec.formatId();
+        System.arraycopy(encoded, 0, payload, 1, encoded.length);
+        return payload;
+    }
+
+    /**
+     * Decode a payload written in any supported format.
+     *
+     * @param payload Payload read from Redis
+     * @param type    Target type
+     * @param <T>     Value type
+     * @return Decoded value
+     * @throws IOException if the payload is corrupted or of an unknown format
+     */
+    public <T> T deserialize(byte[] payload, Class<T> type) throws IOException {
+        if (payload.length == 0) {
+            throw new IOException("Empty cache payload");
+        }
+
+        int header = payload[0] & 0xFF;
+        if (!isHeader(header)) {
+            return codecsById[JsonCacheCodec.FORMAT_ID].decode(payload, 0, payload.length, type);
+        }
+
+        CacheCodec codec = codecsById[header & FORMAT_MASK];
+        if (codec == null) {
+            throw new IOException("Unknown cache payload format: 0x" + Integer.toHexString(header));
+        }
+
+        if ((header & COMPRESSED_FLAG) == 0) {
+            return codec.decode(payload, 1, payload.length - 1, type);
+        }
+
+        if (payload.length < 5) {
+            throw new IOException("Truncated compressed cache payload");
+        }
+        int rawLength = ByteBuffer.wrap(payload, 1, 4).getInt();
+        // Checked before allocating, so a corrupted header cannot request a huge buffer
+        if (rawLength < 0 || rawLength > maxDecompressedBytes) {
+            throw new IOException("Invalid compressed cache payload length: " + rawLength);
+        }
+        byte[] raw = new byte[rawLength];
+        try {
+            decompressor.decompress(payload, 5, raw, 0, rawLength);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted compressed cache payload", e);
+        }
+        return codec.decode(raw, 0, rawLength, type);
+    }
+
+    /**
+     * Payload recording that a key's value does not exist (negative caching).
+     * A single 0x00 byte is neither a codec header nor valid JSON.
+     *
+     * @return Absent marker payload
+     */
+    public byte[] absentPayload() {
+        return new byte[] { ABSENT_MARKER };
+    }
+
+    /**
+     * Check whether a payload is the absent marker rather than a value.
+     *
+     * @param payload Payload read from Redis
+     * @return true if the payload marks a known-absent value
+     */
+    public boolean isAbsent(byte[] payload) {
+        return payload.length == 1 && payload[0] == ABSENT_MARKER;
+    }
+
+    private byte[] compress(byte[] encoded) {
+        int maxLength = compressor.maxCompressedLength(encoded.length);
+        byte[] buffer = new byte[5 + maxLength];
+        buffer[0] = (byte) (writeCodec.formatId() | COMPRESSED_FLAG);
+        ByteBuffer.wrap(buffer, 1, 4).putInt(encoded.length);
+        int compressedLength = compressor.compress(encoded, 0, encoded.length, buffer, 5, maxLength);
+        return Arrays.copyOf(buffer, 5 + compressedLength);
+    }
+
+    /**
+     * Header bytes are in [0x01, 0x1F] excluding JSON whitespace (\t, \n, \r).
+     */
+    private static boolean isHeader(int firstByte) {
+        return firstByte > 0 && firstByte < 0x20
+                && firstByte != '\t' && firstByte != '\n' && firstByte != '\r';
+    }
+}
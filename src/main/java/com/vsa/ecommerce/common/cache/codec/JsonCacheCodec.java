@@ -0,0 +1,43 @@
+package com.vsa.ecommerce.common.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * JSON codec using the application's Jackson {@link ObjectMapper}.
+ * <p>
+ * This is the historical L2 format. Uncompressed JSON payloads are stored
+ * without a header so that instances still running the previous version can
+ * read them.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonCacheCodec implements CacheCodec {
+
+    public static final byte FORMAT_ID = 0x01;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public byte formatId() {
+        return FORMAT_ID;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, int offset, int length, Class<T> type) throws IOException {
+        return objectMapper.readValue(data, offset, length, type);
+    }
+}
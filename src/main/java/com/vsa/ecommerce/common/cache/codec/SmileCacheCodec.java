@@ -0,0 +1,50 @@
+package com.vsa.ecommerce.common.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Binary codec using Jackson Smile.
+ * <p>
+ * Smile is a binary JSON encoding: it keeps the same data model and Jackson
+ * annotations as {@link JsonCacheCodec}, but back-references repeated property
+ * names (e.g., every field of every OrderItemDto in a list), which makes
+ * payloads smaller and cheaper to parse.
+ * <p>
+ * The mapper is derived from the application {@link ObjectMapper}, so it
+ * shares registered modules (JavaTimeModule) and feature settings.
+ */
+@Component
+public class SmileCacheCodec implements CacheCodec {
+
+    public static final byte FORMAT_ID = 0x02;
+
+    private final ObjectMapper smileMapper;
+
+    public SmileCacheCodec(ObjectMapper objectMapper) {
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    @Override
+    public byte formatId() {
+        return FORMAT_ID;
+    }
+
+    @Override
+    public String name() {
+        return "smile";
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return smileMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, int offset, int length, Class<T> type) throws IOException {
+        return smileMapper.readValue(data, offset, length, type);
+    }
+}
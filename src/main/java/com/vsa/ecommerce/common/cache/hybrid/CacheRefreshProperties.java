@@ -0,0 +1,50 @@
+package com.vsa.ecommerce.common.cache.hybrid;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Refresh-ahead configuration for the hybrid cache.
+ *
+ * <pre>
+ * cache:
+ *   refresh:
+ *     pool-size: 2
+ *     queue-capacity: 100
+ *     policies:
+ *       product:             # resource segment of the cache key
+ *         soft-ttl: 2m
+ *         hard-ttl: 10m
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.refresh")
+@Getter
+@Setter
+public class CacheRefreshProperties {
+
+    /**
+     * Threads reloading stale entries in the background.
+     */
+    private int poolSize = 2;
+
+    /**
+     * Pending background reloads; further stale hits skip the reload.
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Refresh policies by cache key resource (e.g., "product").
+     * Resources without a policy keep the plain L2 TTL behaviour.
+     */
+    private Map<String, RefreshPolicy> policies = new HashMap<>();
+
+    public RefreshPolicy policyFor(String resource) {
+        return resource != null ? policies.get(resource) : null;
+    }
+}
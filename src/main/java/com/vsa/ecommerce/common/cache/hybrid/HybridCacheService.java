@@ -1,6 +1,11 @@
 package com.vsa.ecommerce.common.cache.hybrid;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -46,6 +51,11 @@ public interface HybridCacheService {
      * 1. Check L1 → Return if found
      * 2. Check L2 → Warm L1 and return if found
      * 3. Execute supplier → Cache in both L1 and L2 → Return
+     * <p>
+     * Concurrent misses on the same key are coalesced: only one caller per
+     * node runs the supplier while the others wait (bounded) for its result.
+     * With {@code cache.single-flight.distributed.enabled}, loaders on
+     * different nodes are serialised through a distributed lock as well.
      *
      * @param key      Cache key
      * @param type     Value type class
@@ -55,6 +65,73 @@ public interface HybridCacheService {
      */
     <T> T getOrCompute(String key, Class<T> type, Supplier<T> supplier);
 
+    /**
+     * Get value from cache or compute if missing, with refresh-ahead.
+     * <p>
+     * Values older than {@code policy.softTtl()} are still returned, but one
+     * background reload per key is started on a bounded executor. After
+     * {@code policy.hardTtl()} (the L2 TTL) the entry is gone and callers load
+     * synchronously as in {@link #getOrCompute(String, Class, Supplier)}.
+     * <p>
+     * The supplier may run on a background thread, so it must not depend on the
+     * caller's transaction or security context.
+     * <p>
+     * The 3-argument variant applies the policy configured for the key's
+     * resource under {@code cache.refresh.policies}, if any.
+     *
+     * @param key      Cache key
+     * @param type     Value type class
+     * @param supplier Function to compute value if cache miss or stale
+     * @param policy   Refresh policy, or null for plain cache-aside
+     * @param <T>      Value type
+     * @return Cached, stale or computed value
+     */
+    <T> T getOrCompute(String key, Class<T> type, Supplier<T> supplier, RefreshPolicy policy);
+
+    /**
+     * Get several values at once (L1 → one L2 MGET for the L1 misses).
+     * L2 hits warm L1.
+     *
+     * @param keys Cache keys
+     * @param type Value type class
+     * @param <T>  Value type
+     * @return Map of key to value for cache hits only (misses are absent)
+     */
+    <T> Map<String, T> getAll(Collection<String> keys, Class<T> type);
+
+    /**
+     * Bulk Cache-Aside: resolve keys from L1, then L2 (one MGET), then load the
+     * remaining misses with a single bulk loader call and write them back to
+     * L1 and L2 (one pipelined batch).
+     *
+     * @param keys       Cache keys
+     * @param type       Value type class
+     * @param bulkLoader Loads values for the missing keys; keys it omits are
+     *                   treated as absent and not cached
+     * @param <T>        Value type
+     * @return Map of key to value, iterating in the order of {@code keys}
+     */
+    <T> Map<String, T> getOrComputeAll(Collection<String> keys, Class<T> type,
+            Function<Set<String>, Map<String, T>> bulkLoader);
+
+    /**
+     * Put several values into L1 and L2 (pipelined) with the default L2 TTL.
+     *
+     * @param entries Key to value entries
+     * @param <T>     Value type
+     */
+    <T> void putAll(Map<String, T> entries);
+
+    /**
+     * Put several values into L1 and L2 (pipelined) with a custom L2 TTL.
+     * L1 entries keep the fixed L1 TTL.
+     *
+     * @param entries Key to value entries
+     * @param ttl     L2 time-to-live
+     * @param <T>     Value type
+     */
+    <T> void putAll(Map<String, T> entries, Duration ttl);
+
     /**
      * Put value into both L1 and L2 caches.
      *
@@ -64,6 +141,47 @@ public interface HybridCacheService {
      */
     <T> void put(String key, T value);
 
+    /**
+     * Put value into L1 (fixed L1 TTL) and L2 with a custom L2 TTL.
+     *
+     * @param key   Cache key
+     * @param value Value to cache
+     * @param ttl   L2 time-to-live
+     * @param <T>   Value type
+     */
+    <T> void put(String key, T value, Duration ttl);
+
+    /**
+     * Get a value that may legitimately not exist (e.g., an entity by id), with
+     * negative caching: when the loader returns empty, an absent marker is
+     * cached in L1 and L2 for cache.negative.ttl-seconds, and lookups within
+     * that window return empty without calling the loader.
+     *
+     * @param key    Cache key
+     * @param type   Value type class
+     * @param loader Loader returning the value, or empty if it does not exist
+     * @param <T>    Value type
+     * @return The value, or empty if it does not exist
+     */
+    <T> Optional<T> getOrComputeIfPresent(String key, Class<T> type, Supplier<Optional<T>> loader);
+
+    /**
+     * Cache that the value of a key does not exist, in both L1 and L2, for
+     * cache.negative.ttl-seconds. Any put or evict of the key replaces it.
+     *
+     * @param key Cache key
+     */
+    void putAbsent(String key);
+
+    /**
+     * Evict a key once the current transaction commits (immediately if there
+     * is no transaction). Use from write services so readers cannot re-cache
+     * the old value between eviction and commit.
+     *
+     * @param key Cache key to evict
+     */
+    void evictAfterCommit(String key);
+
     /**
      * Evict a specific key from both L1 and L2 caches.
      * Publishes invalidation event to other instances.
@@ -80,6 +198,16 @@ public interface HybridCacheService {
      */
     void evictPattern(String pattern);
 
+    /**
+     * Invalidate every key of a resource by bumping its key generation instead
+     * of deleting keys. Old keys become unreachable at once on all instances
+     * and expire through their TTL. Keys must be built with CacheKeyConvention.
+     *
+     * @param resource Resource type (e.g., "product")
+     * @return New generation of the resource
+     */
+    long invalidateResource(String resource);
+
     /**
      * Evict all entries from both L1 and L2 caches.
      * WARNING: Use with extreme caution in production.
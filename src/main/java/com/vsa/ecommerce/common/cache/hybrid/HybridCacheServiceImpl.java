@@ -1,13 +1,37 @@
 package com.vsa.ecommerce.common.cache.hybrid;
 
+import com.vsa.ecommerce.common.cache.CacheKeyConvention;
+import com.vsa.ecommerce.common.cache.CacheMetrics;
+import com.vsa.ecommerce.common.cache.CacheMetrics.ResourceMeters;
 import com.vsa.ecommerce.common.cache.l1.LocalCacheService;
+import com.vsa.ecommerce.common.cache.l2.RedisCacheEntry;
 import com.vsa.ecommerce.common.cache.l2.RedisCacheService;
 import com.vsa.ecommerce.common.cache.pubsub.CacheInvalidationPublisher;
-import lombok.RequiredArgsConstructor;
+import com.vsa.ecommerce.common.lock.DistributedLockService;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -20,8 +44,16 @@ import java.util.function.Supplier;
  * Key Features:
  * - Automatic L1 warm-up on L2 hits
  * - Distributed cache invalidation via Pub/Sub
- * - Cache-aside pattern support
+ * - Cache-aside pattern support, including bulk lookups (MGET + pipelined writes)
+ * - Single-flight loading: concurrent misses on the same key share one loader
+ * (optionally coordinated across nodes via {@link DistributedLockService})
+ * - Refresh-ahead: entries past their {@link RefreshPolicy} soft TTL are served
+ * stale while one background reload runs on a bounded executor
+ * - Negative caching: loaders returning no value cache an absent marker for
+ * cache.negative.ttl-seconds, so repeated lookups of missing ids skip the database
  * - Thread-safe operations
+ * - Per-tier, per-resource hit/miss counters and L2/loader latency timers
+ * (see {@link CacheMetrics})
  * <p>
  * Performance Metrics (typical):
  * - L1 hit: <1ms
@@ -30,55 +62,514 @@ import java.util.function.Supplier;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class HybridCacheServiceImpl implements HybridCacheService {
 
+    private static final String LOAD_LOCK_PREFIX = "cache:load:";
+
     private final LocalCacheService l1Cache;
     private final RedisCacheService l2Cache;
     private final CacheInvalidationPublisher invalidationPublisher;
+    private final DistributedLockService lockService;
+    private final CacheKeyConvention keyConvention;
+    private final CacheRefreshProperties refreshProperties;
+
+    /**
+     * Bounded executor for refresh-ahead reloads. It rejects when full rather
+     * than queueing unboundedly or running on the caller, so a slow database
+     * never backs up into request threads. Kept private so it does not replace
+     * Spring Boot's auto-configured application task executor.
+     */
+    private final ThreadPoolTaskExecutor refreshExecutor;
+
+    /**
+     * Loads currently running on this node, keyed by cache key.
+     * Callers missing on a key that is already being loaded wait on the
+     * leader's future instead of running their own supplier.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Keys with a background refresh queued or running on this node.
+     */
+    private final Set<String> inFlightRefreshes = ConcurrentHashMap.newKeySet();
+
+    private final CacheMetrics metrics;
+
+    @Value("${cache.single-flight.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Value("${cache.single-flight.distributed.enabled:false}")
+    private boolean distributedLoadEnabled;
+
+    @Value("${cache.single-flight.distributed.lock-wait-ms:3000}")
+    private long lockWaitMs;
+
+    @Value("${cache.single-flight.distributed.lock-lease-ms:10000}")
+    private long lockLeaseMs;
+
+    @Value("${cache.negative.ttl-seconds:60}")
+    private long negativeTtlSeconds;
+
+    public HybridCacheServiceImpl(
+            LocalCacheService l1Cache,
+            RedisCacheService l2Cache,
+            CacheInvalidationPublisher invalidationPublisher,
+            DistributedLockService lockService,
+            CacheKeyConvention keyConvention,
+            CacheRefreshProperties refreshProperties,
+            CacheMetrics metrics) {
+        this.l1Cache = l1Cache;
+        this.l2Cache = l2Cache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.lockService = lockService;
+        this.keyConvention = keyConvention;
+        this.refreshProperties = refreshProperties;
+        this.refreshExecutor = new ThreadPoolTaskExecutor();
+        this.refreshExecutor.setCorePoolSize(refreshProperties.getPoolSize());
+        this.refreshExecutor.setMaxPoolSize(refreshProperties.getPoolSize());
+        this.refreshExecutor.setQueueCapacity(refreshProperties.getQueueCapacity());
+        this.refreshExecutor.setThreadNamePrefix("cache-refresh-");
+        this.refreshExecutor.initialize();
+        this.metrics = metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
+    }
 
     @Override
     public <T> Optional<T> get(String key, Class<T> type) {
+        ResourceMeters meters = metrics.forKey(key);
+
         // 1. Check L1 (Caffeine) first
         Optional<T> l1Value = l1Cache.get(key, type);
         if (l1Value.isPresent()) {
+            meters.l1Hit();
             log.trace("Hybrid Cache L1 HIT: {}", key);
             return l1Value;
         }
+        meters.l1Miss();
 
         // 2. Check L2 (Redis) if L1 miss
+        long start = System.nanoTime();
         Optional<T> l2Value = l2Cache.get(key, type);
+        metrics.recordL2Get(start);
         if (l2Value.isPresent()) {
+            meters.l2Hit();
             log.debug("Hybrid Cache L2 HIT (warming L1): {}", key);
             // Warm L1 from L2
             l1Cache.put(key, l2Value.get());
             return l2Value;
         }
 
+        meters.l2Miss();
         log.debug("Hybrid Cache MISS: {}", key);
         return Optional.empty();
     }
 
     @Override
     public <T> T getOrCompute(String key, Class<T> type, Supplier<T> supplier) {
+        return getOrCompute(key, type, supplier, resolvePolicy(key));
+    }
+
+    @Override
+    public <T> T getOrCompute(String key, Class<T> type, Supplier<T> supplier, RefreshPolicy policy) {
         // Try to get from cache
-        Optional<T> cached = get(key, type);
+        Optional<T> cached = policy == null ? get(key, type) : getRefreshing(key, type, supplier, policy);
         if (cached.isPresent()) {
             return cached.get();
         }
+        return loadSingleFlight(key, type, supplier, policy != null ? policy.hardTtl() : null);
+    }
+
+    @Override
+    public <T> Optional<T> getOrComputeIfPresent(String key, Class<T> type, Supplier<Optional<T>> loader) {
+        ResourceMeters meters = metrics.forKey(key);
+
+        Optional<T> l1Value = l1Cache.get(key, type);
+        if (l1Value.isPresent()) {
+            meters.l1Hit();
+            return l1Value;
+        }
+        if (l1Cache.isAbsent(key)) {
+            meters.l1Hit();
+            meters.negativeHit();
+            log.trace("Hybrid Cache L1 ABSENT HIT: {}", key);
+            return Optional.empty();
+        }
+        meters.l1Miss();
+
+        long start = System.nanoTime();
+        Optional<RedisCacheEntry<T>> l2Entry = l2Cache.getEntry(key, type);
+        metrics.recordL2Get(start);
+        if (l2Entry.isPresent()) {
+            meters.l2Hit();
+            RedisCacheEntry<T> entry = l2Entry.get();
+            if (entry.absent()) {
+                meters.negativeHit();
+                l1Cache.putAbsent(key);
+                log.debug("Hybrid Cache L2 ABSENT HIT (warming L1): {}", key);
+                return Optional.empty();
+            }
+            l1Cache.put(key, entry.value());
+            log.debug("Hybrid Cache L2 HIT (warming L1): {}", key);
+            return Optional.of(entry.value());
+        }
+        meters.l2Miss();
+
+        // Full miss: single-flight load; the leader caches an absent marker if there is no value
+        return Optional.ofNullable(loadSingleFlight(key, type, () -> {
+            Optional<T> loaded = loader.get();
+            if (loaded.isEmpty()) {
+                putAbsent(key);
+            }
+            return loaded.orElse(null);
+        }, null));
+    }
+
+    /**
+     * Cache miss: join an in-flight load of the same key or become its leader.
+     *
+     * @param l2Ttl L2 TTL, or null for the default TTL
+     */
+    private <T> T loadSingleFlight(String key, Class<T> type, Supplier<T> supplier, Duration l2Ttl) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(key, flight);
+        if (existing != null) {
+            return awaitInFlight(key, type, supplier, l2Ttl, existing);
+        }
+
+        try {
+            T value = loadAsLeader(key, type, supplier, l2Ttl);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, flight);
+        }
+    }
+
+    /**
+     * Wait for another thread's load of the same key, bounded by
+     * {@code cache.single-flight.wait-timeout-ms}. On timeout the caller loads
+     * the value itself so a stuck loader cannot block requests indefinitely.
+     */
+    private <T> T awaitInFlight(String key, Class<T> type, Supplier<T> supplier, Duration l2Ttl,
+            CompletableFuture<Object> flight) {
+        metrics.recordCoalescedWait();
+        log.debug("Hybrid Cache COALESCED: {}", key);
+
+        try {
+            Object value = flight.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            return value == null || type.isInstance(value) ? type.cast(value) : get(key, type).orElse(null);
+        } catch (TimeoutException e) {
+            metrics.recordCoalescedTimeout();
+            log.warn("Hybrid Cache COALESCED wait timed out after {}ms, loading directly: {}", waitTimeoutMs, key);
+            return computeAndCache(key, supplier, l2Ttl);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cache load: " + key, e);
+        } catch (ExecutionException e) {
+            // Propagate the leader's failure unchanged (e.g. BusinessException NOT_FOUND)
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Cache load failed: " + key, e.getCause());
+        }
+    }
+
+    /**
+     * Run the loader as the single in-process leader for the key. When
+     * distributed single-flight is enabled, the leader additionally serialises
+     * with leaders on other nodes and re-checks L2 after acquiring the lock.
+     */
+    private <T> T loadAsLeader(String key, Class<T> type, Supplier<T> supplier, Duration l2Ttl) {
+        // A previous leader may have populated L1 between our miss and registration
+        Optional<T> l1Value = l1Cache.get(key, type);
+        if (l1Value.isPresent()) {
+            return l1Value.get();
+        }
 
-        // Cache miss - compute value
+        if (!distributedLoadEnabled) {
+            return computeAndCache(key, supplier, l2Ttl);
+        }
+
+        String lockKey = LOAD_LOCK_PREFIX + key;
+        if (!lockService.tryLock(lockKey, lockWaitMs, lockLeaseMs)) {
+            // Another node is still loading; use its result if it has landed by now
+            log.debug("Hybrid Cache load lock busy after {}ms: {}", lockWaitMs, key);
+            Optional<T> cached = get(key, type);
+            return cached.isPresent() ? cached.get() : computeAndCache(key, supplier, l2Ttl);
+        }
+
+        try {
+            Optional<T> cached = get(key, type);
+            if (cached.isPresent()) {
+                log.debug("Hybrid Cache loaded by another node: {}", key);
+                return cached.get();
+            }
+            return computeAndCache(key, supplier, l2Ttl);
+        } finally {
+            lockService.unlock(lockKey);
+        }
+    }
+
+    /**
+     * Run the supplier and cache a non-null result in L1 and L2.
+     *
+     * @param l2Ttl L2 TTL, or null for the default TTL
+     */
+    private <T> T computeAndCache(String key, Supplier<T> supplier, Duration l2Ttl) {
         log.debug("Hybrid Cache COMPUTE: {}", key);
+        metrics.forKey(key).load();
+        long start = System.nanoTime();
         T value = supplier.get();
+        metrics.recordLoad(start);
 
         // Cache in both L1 and L2 if value is not null
         if (value != null) {
-            put(key, value);
+            if (l2Ttl == null) {
+                put(key, value);
+            } else {
+                put(key, value, l2Ttl);
+            }
         }
 
         return value;
     }
 
+    /**
+     * Lookup for refresh-managed keys: like {@link #get(String, Class)}, but the
+     * L2 read also returns the remaining TTL so that entries past the soft TTL
+     * trigger a background reload while the stale value is returned.
+     * <p>
+     * Staleness is checked on L1 misses only; L1 entries are at most
+     * cache.caffeine.ttl-seconds old on top of that.
+     */
+    private <T> Optional<T> getRefreshing(String key, Class<T> type, Supplier<T> supplier, RefreshPolicy policy) {
+        ResourceMeters meters = metrics.forKey(key);
+        Optional<T> l1Value = l1Cache.get(key, type);
+        if (l1Value.isPresent()) {
+            meters.l1Hit();
+            log.trace("Hybrid Cache L1 HIT: {}", key);
+            return l1Value;
+        }
+        meters.l1Miss();
+
+        long start = System.nanoTime();
+        Optional<RedisCacheEntry<T>> l2Entry = l2Cache.getEntry(key, type);
+        metrics.recordL2Get(start);
+        if (l2Entry.isEmpty()) {
+            meters.l2Miss();
+            log.debug("Hybrid Cache MISS: {}", key);
+            return Optional.empty();
+        }
+
+        meters.l2Hit();
+        RedisCacheEntry<T> entry = l2Entry.get();
+        if (entry.absent()) {
+            // Absent markers belong to getOrComputeIfPresent; load as on a miss
+            return Optional.empty();
+        }
+        l1Cache.put(key, entry.value());
+        if (policy.isStale(entry.remainingTtlMillis())) {
+            metrics.recordStaleServe();
+            log.debug("Hybrid Cache STALE HIT (refreshing, {}ms left): {}", entry.remainingTtlMillis(), key);
+            scheduleRefresh(key, supplier, policy);
+        } else {
+            log.debug("Hybrid Cache L2 HIT (warming L1): {}", key);
+        }
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Queue at most one background reload per key on this node. If the refresh
+     * executor is saturated the reload is skipped; the stale value keeps being
+     * served until a later hit or the hard TTL.
+     */
+    private <T> void scheduleRefresh(String key, Supplier<T> supplier, RefreshPolicy policy) {
+        if (!inFlightRefreshes.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(key, supplier, policy);
+                } finally {
+                    inFlightRefreshes.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlightRefreshes.remove(key);
+            metrics.recordRefreshRejected();
+            log.debug("Hybrid Cache refresh rejected (executor saturated): {}", key);
+        }
+    }
+
+    private <T> void refresh(String key, Supplier<T> supplier, RefreshPolicy policy) {
+        String lockKey = LOAD_LOCK_PREFIX + key;
+        if (distributedLoadEnabled && !lockService.tryLock(lockKey, 0, lockLeaseMs)) {
+            // Another node is already refreshing or loading this key
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            T value = supplier.get();
+            metrics.recordLoad(start);
+            if (value != null) {
+                put(key, value, policy.hardTtl());
+            } else {
+                // Source no longer has the value; stop serving the stale copy
+                evict(key);
+            }
+            metrics.recordRefresh();
+            log.debug("Hybrid Cache REFRESHED: {}", key);
+        } catch (RuntimeException e) {
+            metrics.recordRefreshFailure();
+            log.warn("Hybrid Cache background refresh failed, serving stale value until hard TTL: {}", key, e);
+        } finally {
+            if (distributedLoadEnabled) {
+                lockService.unlock(lockKey);
+            }
+        }
+    }
+
+    private RefreshPolicy resolvePolicy(String key) {
+        if (refreshProperties.getPolicies().isEmpty()) {
+            return null;
+        }
+        return refreshProperties.policyFor(keyConvention.extractResource(key));
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(Collection<String> keys, Class<T> type) {
+        if (keys == null || keys.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        // 1. Resolve L1 hits locally
+        Map<String, T> hits = l1Cache.getAll(keys, type);
+        Set<String> l1Misses = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (key == null) {
+                continue;
+            }
+            if (hits.containsKey(key)) {
+                metrics.forKey(key).l1Hit();
+            } else {
+                metrics.forKey(key).l1Miss();
+                l1Misses.add(key);
+            }
+        }
+        if (l1Misses.isEmpty()) {
+            log.trace("Hybrid Cache GET ALL: {} keys, all L1 hits", keys.size());
+            return hits;
+        }
+
+        // 2. One MGET for all L1 misses, warming L1 with what L2 had
+        long start = System.nanoTime();
+        Map<String, T> l2Hits = l2Cache.getAll(l1Misses, type);
+        metrics.recordL2Get(start);
+        for (String key : l1Misses) {
+            if (l2Hits.containsKey(key)) {
+                metrics.forKey(key).l2Hit();
+            } else {
+                metrics.forKey(key).l2Miss();
+            }
+        }
+        if (!l2Hits.isEmpty()) {
+            l1Cache.putAll(l2Hits);
+            hits.putAll(l2Hits);
+        }
+
+        log.debug("Hybrid Cache GET ALL: {} keys ({} L1 misses, {} L2 hits)",
+                keys.size(), l1Misses.size(), l2Hits.size());
+        return hits;
+    }
+
+    @Override
+    public <T> Map<String, T> getOrComputeAll(Collection<String> keys, Class<T> type,
+            Function<Set<String>, Map<String, T>> bulkLoader) {
+        Map<String, T> result = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return result;
+        }
+
+        Map<String, T> cached = getAll(keys, type);
+        Set<String> misses = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (key != null && !cached.containsKey(key)) {
+                misses.add(key);
+            }
+        }
+
+        Map<String, T> loaded = Map.of();
+        if (!misses.isEmpty()) {
+            // 3. One bulk loader call for everything neither tier had
+            log.debug("Hybrid Cache COMPUTE ALL: {} keys", misses.size());
+            for (String key : misses) {
+                metrics.forKey(key).load();
+            }
+            long start = System.nanoTime();
+            Map<String, T> computed = bulkLoader.apply(misses);
+            metrics.recordLoad(start);
+            if (computed != null && !computed.isEmpty()) {
+                loaded = computed;
+                putAll(loaded);
+            }
+        }
+
+        for (String key : keys) {
+            T value = cached.containsKey(key) ? cached.get(key) : loaded.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <T> void putAll(Map<String, T> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+
+        l1Cache.putAll(entries);
+        long start = System.nanoTime();
+        l2Cache.putAll(entries);
+        metrics.recordL2Put(start);
+        countPuts(entries);
+        log.debug("Hybrid Cache PUT ALL: {} keys", entries.size());
+    }
+
+    @Override
+    public <T> void putAll(Map<String, T> entries, Duration ttl) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+
+        l1Cache.putAll(entries);
+        long start = System.nanoTime();
+        l2Cache.putAll(entries, ttl);
+        metrics.recordL2Put(start);
+        countPuts(entries);
+        log.debug("Hybrid Cache PUT ALL: {} keys (L2 TTL: {})", entries.size(), ttl);
+    }
+
+    private void countPuts(Map<String, ?> entries) {
+        for (String key : entries.keySet()) {
+            metrics.forKey(key).put();
+        }
+    }
+
     @Override
     public <T> void put(String key, T value) {
         if (key == null || value == null) {
@@ -88,10 +579,55 @@ public class HybridCacheServiceImpl implements HybridCacheService {
 
         // Put in both L1 and L2
         l1Cache.put(key, value);
+        long start = System.nanoTime();
         l2Cache.put(key, value);
+        metrics.recordL2Put(start);
+        metrics.forKey(key).put();
         log.debug("Hybrid Cache PUT: {}", key);
     }
 
+    @Override
+    public <T> void put(String key, T value, Duration ttl) {
+        if (key == null || value == null) {
+            log.warn("Attempted to cache null key or value");
+            return;
+        }
+
+        l1Cache.put(key, value);
+        long start = System.nanoTime();
+        l2Cache.put(key, value, ttl);
+        metrics.recordL2Put(start);
+        metrics.forKey(key).put();
+        log.debug("Hybrid Cache PUT: {} (L2 TTL: {})", key, ttl);
+    }
+
+    @Override
+    public void putAbsent(String key) {
+        if (key == null) {
+            return;
+        }
+
+        l1Cache.putAbsent(key);
+        l2Cache.putAbsent(key, Duration.ofSeconds(negativeTtlSeconds));
+        log.debug("Hybrid Cache PUT ABSENT: {} (TTL: {}s)", key, negativeTtlSeconds);
+    }
+
+    @Override
+    public void evictAfterCommit(String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(key);
+            return;
+        }
+
+        // Evicting before commit would let a concurrent reader re-cache the old row
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(key);
+            }
+        });
+    }
+
     @Override
     public void evict(String key) {
         if (key == null) {
@@ -101,6 +637,7 @@ public class HybridCacheServiceImpl implements HybridCacheService {
         // Evict from both L1 and L2
         l1Cache.evict(key);
         l2Cache.evict(key);
+        metrics.forKey(key).evicted(1);
 
         // Publish invalidation event to other instances
         invalidationPublisher.publishSingleKeyInvalidation(key);
@@ -115,17 +652,30 @@ public class HybridCacheServiceImpl implements HybridCacheService {
             return;
         }
 
-        // L1 doesn't support pattern-based eviction efficiently, so we clear all
-        // This is acceptable because L1 has short TTL and will rebuild naturally
-        l1Cache.evictAll();
+        // L1 evicts only the entries of the matching resource via its key index
+        long l1Evicted = l1Cache.evictPattern(pattern);
 
         // L2 supports pattern-based eviction
         long evicted = l2Cache.evictPattern(pattern);
+        metrics.forKey(pattern).evicted(Math.max(evicted, l1Evicted));
 
         // Publish pattern invalidation event to other instances
         invalidationPublisher.publishPatternInvalidation(pattern);
 
-        log.info("Hybrid Cache EVICT PATTERN: {} ({} keys from L2, all from L1)", pattern, evicted);
+        log.info("Hybrid Cache EVICT PATTERN: {} ({} keys from L2, {} from L1)", pattern, evicted, l1Evicted);
+    }
+
+    @Override
+    public long invalidateResource(String resource) {
+        long generation = keyConvention.bumpGeneration(resource);
+
+        // Previous generation is unreachable now; free its L1 entries right away
+        long l1Evicted = l1Cache.evictPattern(keyConvention.buildPattern(resource, generation - 1));
+        invalidationPublisher.publishGenerationBump(resource, generation);
+
+        log.info("Hybrid Cache INVALIDATE RESOURCE: {} -> generation {} ({} L1 entries dropped)",
+                resource, generation, l1Evicted);
+        return generation;
     }
 
     @Override
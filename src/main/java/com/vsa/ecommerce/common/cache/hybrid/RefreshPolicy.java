@@ -0,0 +1,44 @@
+package com.vsa.ecommerce.common.cache.hybrid;
+
+import java.time.Duration;
+
+/**
+ * Refresh-ahead (stale-while-revalidate) policy for a cache entry.
+ * <p>
+ * Timeline of an entry written at t0:
+ *
+ * <pre>
+ * t0 ──── fresh ────► t0 + softTtl ──── stale (served, 1 background reload) ────► t0 + hardTtl ── expired (callers block)
+ * </pre>
+ *
+ * @param softTtl Age after which the value is still served but reloaded in the
+ *                background
+ * @param hardTtl L2 time-to-live; after it the entry is gone and callers load
+ *                synchronously
+ */
+public record RefreshPolicy(Duration softTtl, Duration hardTtl) {
+
+    public RefreshPolicy {
+        if (softTtl == null || hardTtl == null) {
+            throw new IllegalArgumentException("softTtl and hardTtl are required");
+        }
+        if (softTtl.isNegative() || softTtl.compareTo(hardTtl) >= 0) {
+            throw new IllegalArgumentException("softTtl must be >= 0 and shorter than hardTtl: "
+                    + softTtl + " / " + hardTtl);
+        }
+    }
+
+    public static RefreshPolicy of(Duration softTtl, Duration hardTtl) {
+        return new RefreshPolicy(softTtl, hardTtl);
+    }
+
+    /**
+     * Whether an L2 entry with the given remaining TTL is past its soft TTL.
+     *
+     * @param remainingTtlMillis Remaining L2 TTL in milliseconds
+     * @return true if the entry should be refreshed in the background
+     */
+    public boolean isStale(long remainingTtlMillis) {
+        return remainingTtlMillis >= 0 && remainingTtlMillis <= hardTtl.toMillis() - softTtl.toMillis();
+    }
+}
@@ -3,13 +3,27 @@ package com.vsa.ecommerce.common.cache.l1;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.support.NullValue;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Caffeine-based implementation of L1 (Local/In-Memory) cache.
@@ -17,8 +31,12 @@ import java.util.concurrent.TimeUnit;
  * Features:
  * - Window TinyLFU eviction policy for optimal hit ratio
  * - Configurable TTL and maximum size
+ * - Negative caching: absent markers ({@link NullValue}) with their own, shorter TTL
  * - Thread-safe operations
- * - Built-in statistics tracking
+ * - Built-in statistics tracking, bound to Micrometer as cache "l1"
+ * (cache.gets, cache.evictions, cache.size, ...)
+ * - Secondary index by resource prefix ({namespace}:{version}:{resource}) so
+ * pattern invalidations remove only matching entries
  * <p>
  * Performance:
  * - Latency: <1ms (in-memory)
@@ -27,6 +45,7 @@ import java.util.concurrent.TimeUnit;
  * Configuration:
  * - cache.caffeine.ttl-seconds: Time-to-live for cache entries
  * - cache.caffeine.max-size: Maximum number of entries
+ * - cache.negative.ttl-seconds: Time-to-live for absent markers (capped by the TTL)
  */
 @Slf4j
 @Service
@@ -35,16 +54,31 @@ public class CaffeineLocalCacheService implements LocalCacheService {
     private final Cache<String, Object> cache;
     private final ObjectMapper objectMapper;
 
+    /**
+     * Keys currently cached, grouped by their "{namespace}:{version}:{resource}"
+     * prefix (see CacheKeyConvention). Additions and removals for one prefix are
+     * serialised through {@link ConcurrentMap#compute}, which only touches the
+     * index (Caffeine is read, never written, inside it), and removals are driven
+     * by Caffeine's removal listener so that size- and time-based evictions keep
+     * the index in sync.
+     */
+    private final ConcurrentMap<String, Set<String>> keysByResource = new ConcurrentHashMap<>();
+
     public CaffeineLocalCacheService(
             ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
             @Value("${cache.caffeine.ttl-seconds:30}") int ttlSeconds,
-            @Value("${cache.caffeine.max-size:1000}") int maxSize) {
+            @Value("${cache.caffeine.max-size:1000}") int maxSize,
+            @Value("${cache.negative.ttl-seconds:60}") int negativeTtlSeconds) {
         this.objectMapper = objectMapper;
         this.cache = Caffeine.newBuilder()
-                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .expireAfter(writeExpiry(TimeUnit.SECONDS.toNanos(ttlSeconds),
+                        TimeUnit.SECONDS.toNanos(Math.min(ttlSeconds, negativeTtlSeconds))))
                 .maximumSize(maxSize)
+                .removalListener(this::onRemoval)
                 .recordStats()
                 .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "l1");
 
         log.info("Caffeine L1 Cache initialized - TTL: {}s, Max Size: {}", ttlSeconds, maxSize);
     }
@@ -53,7 +87,7 @@ public class CaffeineLocalCacheService implements LocalCacheService {
     public <T> Optional<T> get(String key, Class<T> type) {
         try {
             Object value = cache.getIfPresent(key);
-            if (value == null) {
+            if (value == null || value == NullValue.INSTANCE) {
                 log.trace("L1 Cache MISS: {}", key);
                 return Optional.empty();
             }
@@ -84,13 +118,91 @@ public class CaffeineLocalCacheService implements LocalCacheService {
         }
 
         try {
-            cache.put(key, value);
+            store(key, value);
             log.trace("L1 Cache PUT: {}", key);
         } catch (Exception e) {
             log.error("Error putting value into L1 cache for key: {}", key, e);
         }
     }
 
+    @Override
+    public void putAbsent(String key) {
+        if (key == null) {
+            return;
+        }
+
+        store(key, NullValue.INSTANCE);
+        log.trace("L1 Cache PUT ABSENT: {}", key);
+    }
+
+    @Override
+    public boolean isAbsent(String key) {
+        // asMap().get does not record a second hit/miss in the statistics
+        return key != null && cache.asMap().get(key) == NullValue.INSTANCE;
+    }
+
+    private void store(String key, Object value) {
+        String resourcePrefix = resourcePrefix(key);
+        if (resourcePrefix == null) {
+            cache.put(key, value);
+            return;
+        }
+
+        // Index before the write, so a pattern eviction running meanwhile sees
+        // the key. Caffeine is never called inside compute: its removal
+        // listener takes the same bin lock, and the write may evict others.
+        index(resourcePrefix, key, false);
+        cache.put(key, value);
+
+        // A removal notification of the previous value may have dropped the
+        // key between the two steps; index it again if it is still cached
+        Set<String> indexed = keysByResource.get(resourcePrefix);
+        if (indexed == null || !indexed.contains(key)) {
+            index(resourcePrefix, key, true);
+        }
+    }
+
+    private void index(String resourcePrefix, String key, boolean onlyIfCached) {
+        keysByResource.compute(resourcePrefix, (prefix, keys) -> {
+            if (onlyIfCached && !cache.asMap().containsKey(key)) {
+                return keys;
+            }
+            Set<String> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            indexed.add(key);
+            return indexed;
+        });
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(Collection<String> keys, Class<T> type) {
+        Map<String, T> hits = new HashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return hits;
+        }
+
+        for (String key : keys) {
+            if (key != null) {
+                get(key, type).ifPresent(value -> hits.put(key, value));
+            }
+        }
+        log.trace("L1 Cache GET ALL: {} keys, {} hits", keys.size(), hits.size());
+        return hits;
+    }
+
+    @Override
+    public <T> void putAll(Map<String, T> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+
+        // Route through put() so every entry is registered in the resource index
+        entries.forEach((key, value) -> {
+            if (key != null && value != null) {
+                put(key, value);
+            }
+        });
+    }
+
     @Override
     public void evict(String key) {
         if (key == null) {
@@ -101,6 +213,42 @@ public class CaffeineLocalCacheService implements LocalCacheService {
         log.debug("L1 Cache EVICT: {}", key);
     }
 
+    @Override
+    public long evictPattern(String pattern) {
+        if (pattern == null || pattern.isBlank()) {
+            return 0;
+        }
+
+        // Indexable: literal "{namespace}:{version}:{resource}:" prefix plus a trailing '*'
+        String prefix = pattern.endsWith("*") ? pattern.substring(0, pattern.length() - 1) : pattern;
+        String resourcePrefix = resourcePrefix(prefix);
+        boolean indexable = pattern.endsWith("*") && resourcePrefix != null && !hasGlob(prefix);
+
+        long evicted = 0;
+        if (indexable) {
+            // Only touch entries of the matching resource: O(matches), not O(cache size)
+            Set<String> keys = keysByResource.get(resourcePrefix);
+            if (keys != null) {
+                for (String key : List.copyOf(keys)) {
+                    if (key.startsWith(prefix) && cache.asMap().remove(key) != null) {
+                        evicted++;
+                    }
+                }
+            }
+        } else {
+            // Arbitrary glob: fall back to scanning L1 keys (bounded by max-size)
+            Pattern regex = globToRegex(pattern);
+            for (String key : List.copyOf(cache.asMap().keySet())) {
+                if (regex.matcher(key).matches() && cache.asMap().remove(key) != null) {
+                    evicted++;
+                }
+            }
+        }
+
+        log.debug("L1 Cache EVICT PATTERN: {} ({} entries, indexed: {})", pattern, evicted, indexable);
+        return evicted;
+    }
+
     @Override
     public void evictAll() {
         long sizeBefore = cache.estimatedSize();
@@ -117,4 +265,146 @@ public class CaffeineLocalCacheService implements LocalCacheService {
     public long size() {
         return cache.estimatedSize();
     }
+
+    @Override
+    public Map<String, Long> sizeByResource() {
+        Map<String, Long> sizes = new TreeMap<>();
+        keysByResource.forEach((prefix, keys) -> sizes.merge(
+                prefix.substring(prefix.lastIndexOf(':') + 1), (long) keys.size(), Long::sum));
+        return sizes;
+    }
+
+    /**
+     * Drop a key from the resource index once Caffeine has removed it for any
+     * reason (explicit, replaced, size, expired). The key stays indexed if it was
+     * re-put in the meantime.
+     */
+    private void onRemoval(String key, Object value, RemovalCause cause) {
+        if (key == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        String resourcePrefix = resourcePrefix(key);
+        if (resourcePrefix == null) {
+            return;
+        }
+        keysByResource.computeIfPresent(resourcePrefix, (prefix, keys) -> {
+            if (!cache.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Expire values {@code ttlNanos} and absent markers {@code absentTtlNanos}
+     * after they were written.
+     */
+    private static Expiry<String, Object> writeExpiry(long ttlNanos, long absentTtlNanos) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, Object value, long currentTime) {
+                return value == NullValue.INSTANCE ? absentTtlNanos : ttlNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Object value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    /**
+     * Extract "{namespace}:{version}:{resource}" from a key or key prefix.
+     *
+     * @return prefix up to the third separator, or null if the key has fewer
+     *         than three segments followed by a separator
+     */
+    private static String resourcePrefix(String key) {
+        int separator = -1;
+        for (int i = 0; i < 3; i++) {
+            separator = key.indexOf(':', separator + 1);
+            if (separator < 0) {
+                return null;
+            }
+        }
+        return key.substring(0, separator);
+    }
+
+    private static boolean hasGlob(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert a Redis-style glob into a regex, with the semantics of Redis
+     * SCAN MATCH (so L1 evicts what L2 evicts): {@code *}, {@code ?},
+     * {@code [abc]}, {@code [^abc]}, {@code [a-z]} and {@code \\x} escapes;
+     * everything else is literal.
+     */
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 8);
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i++);
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                case '\\' -> regex.append(literal(i < glob.length() ? glob.charAt(i++) : '\\'));
+                case '[' -> i = appendClass(glob, i, regex);
+                default -> regex.append(literal(c));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Append the character class starting after a '['. Like Redis, a leading
+     * '^' negates, reversed ranges are swapped and a class without closing
+     * ']' extends to the end of the pattern.
+     *
+     * @return index after the class
+     */
+    private static int appendClass(String glob, int i, StringBuilder regex) {
+        boolean negated = i < glob.length() && glob.charAt(i) == '^';
+        if (negated) {
+            i++;
+        }
+        StringBuilder members = new StringBuilder();
+        while (i < glob.length() && glob.charAt(i) != ']') {
+            char c = glob.charAt(i++);
+            if (c == '\\' && i < glob.length()) {
+                c = glob.charAt(i++);
+            } else if (i + 1 < glob.length() && glob.charAt(i) == '-' && glob.charAt(i + 1) != ']') {
+                char to = glob.charAt(i + 1);
+                i += 2;
+                if (to == '\\' && i < glob.length()) {
+                    to = glob.charAt(i++);
+                }
+                members.append(literal(c < to ? c : to)).append('-').append(literal(c < to ? to : c));
+                continue;
+            }
+            members.append(literal(c));
+        }
+        if (members.isEmpty()) {
+            // "[]" matches nothing, "[^]" any character
+            regex.append(negated ? "." : "(?!)");
+        } else {
+            regex.append(negated ? "[^" : "[").append(members).append(']');
+        }
+        return i < glob.length() ? i + 1 : i;
+    }
+
+    private static String literal(char c) {
+        return Character.isLetterOrDigit(c) ? String.valueOf(c) : String.format("\\x{%x}", (int) c);
+    }
 }
@@ -2,6 +2,8 @@ package com.vsa.ecommerce.common.cache.l1;
 
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -44,6 +46,42 @@ public interface LocalCacheService {
      */
     <T> void put(String key, T value);
 
+    /**
+     * Get all present values for the given keys from L1 cache.
+     *
+     * @param keys Cache keys
+     * @param type Value type class
+     * @param <T>  Value type
+     * @return Map of key to value for L1 hits only (misses are absent)
+     */
+    <T> Map<String, T> getAll(Collection<String> keys, Class<T> type);
+
+    /**
+     * Put several values into L1 cache with default TTL.
+     * L1 uses a fixed expire-after-write, so there is no per-call TTL.
+     *
+     * @param entries Key to value entries (null keys or values are skipped)
+     * @param <T>     Value type
+     */
+    <T> void putAll(Map<String, T> entries);
+
+    /**
+     * Cache that the value of a key does not exist (negative caching). The
+     * marker expires after cache.negative.ttl-seconds (at most the L1 TTL) and
+     * is reported as a miss by {@link #get}.
+     *
+     * @param key Cache key
+     */
+    void putAbsent(String key);
+
+    /**
+     * Check whether a key is currently cached as known-absent.
+     *
+     * @param key Cache key
+     * @return true if an absent marker is cached for the key
+     */
+    boolean isAbsent(String key);
+
     /**
      * Evict a specific key from L1 cache.
      *
@@ -51,6 +89,16 @@ public interface LocalCacheService {
      */
     void evict(String key);
 
+    /**
+     * Evict entries whose keys match a pattern (e.g., "vsa:v1:product:*").
+     * Patterns of the form "{namespace}:{version}:{resource}:...*" are resolved
+     * through a per-resource key index, touching only the matching entries.
+     *
+     * @param pattern Key pattern (supports * and ? wildcards)
+     * @return Number of entries evicted
+     */
+    long evictPattern(String pattern);
+
     /**
      * Evict all entries from L1 cache.
      */
@@ -69,4 +117,12 @@ public interface LocalCacheService {
      * @return Approximate number of cached entries
      */
     long size();
+
+    /**
+     * Get the number of cached entries per resource (third key segment of
+     * CacheKeyConvention keys). Keys outside the convention are not counted.
+     *
+     * @return Entry count by resource name
+     */
+    Map<String, Long> sizeByResource();
 }
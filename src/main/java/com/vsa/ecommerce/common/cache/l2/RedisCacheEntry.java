@@ -0,0 +1,22 @@
+package com.vsa.ecommerce.common.cache.l2;
+
+/**
+ * L2 value together with its remaining time-to-live, read in one round trip.
+ *
+ * @param value              Cached value, or null for an absent marker
+ * @param remainingTtlMillis Remaining TTL in milliseconds, or -1 if the key has
+ *                           no expiration
+ * @param absent             true if the key is cached as known-absent
+ *                           (negative caching)
+ * @param <T>                Value type
+ */
+public record RedisCacheEntry<T>(T value, long remainingTtlMillis, boolean absent) {
+
+    public static <T> RedisCacheEntry<T> of(T value, long remainingTtlMillis) {
+        return new RedisCacheEntry<>(value, remainingTtlMillis, false);
+    }
+
+    public static <T> RedisCacheEntry<T> absent(long remainingTtlMillis) {
+        return new RedisCacheEntry<>(null, remainingTtlMillis, true);
+    }
+}
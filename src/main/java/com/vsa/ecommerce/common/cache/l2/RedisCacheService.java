@@ -1,8 +1,11 @@
 package com.vsa.ecommerce.common.cache.l2;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Interface for L2 (Distributed/Redis) cache operations.
@@ -55,6 +58,54 @@ public interface RedisCacheService {
      */
     <T> void put(String key, T value, Duration ttl);
 
+    /**
+     * Get value together with its remaining TTL (GET + PTTL pipelined in one
+     * round trip). Used to detect entries past a refresh-ahead soft TTL.
+     *
+     * @param key  Cache key
+     * @param type Value type class
+     * @param <T>  Value type
+     * @return Optional containing value and remaining TTL if found (an absent
+     *         marker is returned as an entry with {@code absent() == true})
+     */
+    <T> Optional<RedisCacheEntry<T>> getEntry(String key, Class<T> type);
+
+    /**
+     * Cache that the value of a key does not exist (negative caching).
+     * {@link #get} and {@link #getAll} treat the marker as a miss.
+     *
+     * @param key Cache key
+     * @param ttl Time-to-live of the marker, usually much shorter than for values
+     */
+    void putAbsent(String key, Duration ttl);
+
+    /**
+     * Get values for several keys in a single MGET round trip.
+     *
+     * @param keys Cache keys
+     * @param type Value type class
+     * @param <T>  Value type
+     * @return Map of key to value for L2 hits only (misses are absent)
+     */
+    <T> Map<String, T> getAll(Collection<String> keys, Class<T> type);
+
+    /**
+     * Put several values with default TTL in a single pipelined batch.
+     *
+     * @param entries Key to value entries (null keys or values are skipped)
+     * @param <T>     Value type
+     */
+    <T> void putAll(Map<String, T> entries);
+
+    /**
+     * Put several values with custom TTL in a single pipelined batch.
+     *
+     * @param entries Key to value entries (null keys or values are skipped)
+     * @param ttl     Time-to-live duration applied to every entry
+     * @param <T>     Value type
+     */
+    <T> void putAll(Map<String, T> entries, Duration ttl);
+
     /**
      * Evict a specific key from Redis cache.
      *
@@ -64,7 +115,8 @@ public interface RedisCacheService {
 
     /**
      * Evict keys matching a pattern (e.g., "vsa:v1:user:*").
-     * Use with caution in production - can be slow with many keys.
+     * Keys are discovered with incremental SCAN and removed with batched UNLINK,
+     * so Redis is never blocked, but the total cost still grows with keyspace size.
      *
      * @param pattern Redis key pattern (supports wildcards)
      * @return Number of keys evicted
@@ -81,14 +133,27 @@ public interface RedisCacheService {
 
     /**
      * Get all keys matching a pattern.
-     * WARNING: Use only for debugging/admin operations. Can be slow with large
-     * datasets.
+     * WARNING: Use only for debugging/admin operations. Materialises every
+     * matching key on the heap; prefer {@link #streamKeys(String)}.
      *
      * @param pattern Redis key pattern
      * @return Set of matching keys
      */
     Set<String> getKeys(String pattern);
 
+    /**
+     * Lazily stream keys matching a pattern using an incremental SCAN cursor.
+     * Keys are fetched batch by batch as the stream is consumed. May contain
+     * duplicates if the keyspace is rehashed during iteration.
+     * <p>
+     * The stream holds a Redis connection and MUST be closed, e.g. with
+     * try-with-resources.
+     *
+     * @param pattern Redis key pattern
+     * @return Stream of matching keys
+     */
+    Stream<String> streamKeys(String pattern);
+
     /**
      * Check if a key exists in Redis cache.
      *
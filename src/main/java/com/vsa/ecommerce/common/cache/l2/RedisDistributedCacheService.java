@@ -1,25 +1,42 @@
 package com.vsa.ecommerce.common.cache.l2;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vsa.ecommerce.common.cache.codec.CachePayloadSerializer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Redis-based implementation of L2 (Distributed) cache.
  * <p>
  * Features:
- * - JSON serialization for cross-platform compatibility
+ * - Pluggable payload codec (JSON or Smile) with LZ4 compression for large
+ * values, see {@link CachePayloadSerializer}
  * - Configurable TTL per key or default
- * - Pattern-based bulk operations
+ * - Multi-key reads via MGET and pipelined multi-key writes
+ * - Pattern-based bulk operations via incremental SCAN (never blocking KEYS)
+ * - Non-blocking deletes via UNLINK in batches
  * - Thread-safe operations
  * <p>
  * Performance:
@@ -28,32 +45,36 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * Configuration:
  * - cache.redis.ttl-minutes: Default time-to-live for cache entries
+ * - cache.redis.scan-batch-size: SCAN COUNT hint and UNLINK batch size
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RedisDistributedCacheService implements RedisCacheService {
 
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final CachePayloadSerializer payloadSerializer;
 
     @Value("${cache.redis.ttl-minutes:5}")
     private int defaultTtlMinutes;
 
+    @Value("${cache.redis.scan-batch-size:500}")
+    private int scanBatchSize;
+
     @Override
     public <T> Optional<T> get(String key, Class<T> type) {
         try {
-            String json = redisTemplate.opsForValue().get(key);
-            if (json == null) {
+            byte[] payload = binaryRedisTemplate.opsForValue().get(key);
+            if (payload == null || payloadSerializer.isAbsent(payload)) {
                 log.trace("L2 Cache MISS: {}", key);
                 return Optional.empty();
             }
 
             log.trace("L2 Cache HIT: {}", key);
-            T value = objectMapper.readValue(json, type);
+            T value = payloadSerializer.deserialize(payload, type);
             return Optional.of(value);
 
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Error deserializing from L2 cache for key: {}", key, e);
             evict(key);
             return Optional.empty();
@@ -76,23 +97,158 @@ public class RedisDistributedCacheService implements RedisCacheService {
         }
 
         try {
-            String json = objectMapper.writeValueAsString(value);
-            redisTemplate.opsForValue().set(key, json, ttl);
-            log.trace("L2 Cache PUT: {} (TTL: {})", key, ttl);
-        } catch (JsonProcessingException e) {
+            byte[] payload = payloadSerializer.serialize(value);
+            binaryRedisTemplate.opsForValue().set(key, payload, ttl);
+            log.trace("L2 Cache PUT: {} ({} bytes, TTL: {})", key, payload.length, ttl);
+        } catch (IOException e) {
             log.error("Error serializing value for L2 cache key: {}", key, e);
         } catch (Exception e) {
             log.error("Error putting value into L2 cache for key: {}", key, e);
         }
     }
 
+    @Override
+    public <T> Optional<RedisCacheEntry<T>> getEntry(String key, Class<T> type) {
+        try {
+            List<Object> results = binaryRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                    ops.opsForValue().get(key);
+                    ops.getExpire(key, TimeUnit.MILLISECONDS);
+                    return null;
+                }
+            });
+
+            if (results.isEmpty() || !(results.get(0) instanceof byte[] payload)) {
+                log.trace("L2 Cache MISS: {}", key);
+                return Optional.empty();
+            }
+
+            long ttl = results.get(1) instanceof Long remaining ? remaining : -1;
+            if (payloadSerializer.isAbsent(payload)) {
+                log.trace("L2 Cache ABSENT HIT: {}", key);
+                return Optional.of(RedisCacheEntry.absent(ttl));
+            }
+
+            log.trace("L2 Cache HIT: {}", key);
+            return Optional.of(RedisCacheEntry.of(payloadSerializer.deserialize(payload, type), ttl));
+
+        } catch (IOException e) {
+            log.error("Error deserializing from L2 cache for key: {}", key, e);
+            evict(key);
+            return Optional.empty();
+        } catch (Exception e) {
+            log.warn("Error retrieving from L2 cache for key: {}", key, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void putAbsent(String key, Duration ttl) {
+        if (key == null) {
+            return;
+        }
+
+        try {
+            binaryRedisTemplate.opsForValue().set(key, payloadSerializer.absentPayload(), ttl);
+            log.trace("L2 Cache PUT ABSENT: {} (TTL: {})", key, ttl);
+        } catch (Exception e) {
+            log.error("Error putting absent marker into L2 cache for key: {}", key, e);
+        }
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(Collection<String> keys, Class<T> type) {
+        Map<String, T> hits = new HashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return hits;
+        }
+
+        List<String> keyList = keys.stream().filter(Objects::nonNull).distinct().toList();
+        try {
+            List<byte[]> values = binaryRedisTemplate.opsForValue().multiGet(keyList);
+            if (values == null) {
+                return hits;
+            }
+
+            List<String> corrupted = new ArrayList<>();
+            for (int i = 0; i < keyList.size(); i++) {
+                byte[] payload = values.get(i);
+                if (payload == null || payloadSerializer.isAbsent(payload)) {
+                    continue;
+                }
+                try {
+                    hits.put(keyList.get(i), payloadSerializer.deserialize(payload, type));
+                } catch (IOException e) {
+                    log.error("Error deserializing from L2 cache for key: {}", keyList.get(i), e);
+                    corrupted.add(keyList.get(i));
+                }
+            }
+            if (!corrupted.isEmpty()) {
+                binaryRedisTemplate.delete(corrupted);
+            }
+
+            log.trace("L2 Cache GET ALL: {} keys, {} hits", keyList.size(), hits.size());
+            return hits;
+
+        } catch (Exception e) {
+            log.warn("Error retrieving {} keys from L2 cache", keyList.size(), e);
+            return hits;
+        }
+    }
+
+    @Override
+    public <T> void putAll(Map<String, T> entries) {
+        putAll(entries, Duration.ofMinutes(defaultTtlMinutes));
+    }
+
+    @Override
+    public <T> void putAll(Map<String, T> entries, Duration ttl) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+
+        // Serialize up front so a bad value does not abort the pipeline half-way
+        Map<String, byte[]> serialized = new LinkedHashMap<>();
+        entries.forEach((key, value) -> {
+            if (key == null || value == null) {
+                return;
+            }
+            try {
+                serialized.put(key, payloadSerializer.serialize(value));
+            } catch (IOException e) {
+                log.error("Error serializing value for L2 cache key: {}", key, e);
+            }
+        });
+        if (serialized.isEmpty()) {
+            return;
+        }
+
+        try {
+            binaryRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                    serialized.forEach((key, payload) -> ops.opsForValue().set(key, payload, ttl));
+                    return null;
+                }
+            });
+            log.trace("L2 Cache PUT ALL: {} keys (TTL: {})", serialized.size(), ttl);
+        } catch (Exception e) {
+            log.error("Error putting {} values into L2 cache", serialized.size(), e);
+        }
+    }
+
     @Override
     public void evict(String key) {
         if (key == null) {
             return;
         }
 
-        Boolean deleted = redisTemplate.delete(key);
+        Boolean deleted = binaryRedisTemplate.delete(key);
         log.debug("L2 Cache EVICT: {} (deleted: {})", key, deleted);
     }
 
@@ -103,29 +259,38 @@ public class RedisDistributedCacheService implements RedisCacheService {
             return 0;
         }
 
-        try {
-            Set<String> keys = redisTemplate.keys(pattern);
-            if (keys == null || keys.isEmpty()) {
-                log.debug("L2 Cache EVICT PATTERN: {} (no keys found)", pattern);
-                return 0;
+        long count = 0;
+        List<String> batch = new ArrayList<>(scanBatchSize);
+        try (Cursor<String> cursor = scan(pattern)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= scanBatchSize) {
+                    count += unlink(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                count += unlink(batch);
             }
 
-            Long deleted = redisTemplate.delete(keys);
-            long count = deleted != null ? deleted : 0;
-            log.info("L2 Cache EVICT PATTERN: {} ({} keys deleted)", pattern, count);
+            log.info("L2 Cache EVICT PATTERN: {} ({} keys unlinked)", pattern, count);
             return count;
 
         } catch (Exception e) {
-            log.error("Error evicting pattern from L2 cache: {}", pattern, e);
-            return 0;
+            log.error("Error evicting pattern from L2 cache: {} ({} keys unlinked before failure)", pattern, count, e);
+            return count;
         }
     }
 
     @Override
     public long getKeysCount(String pattern) {
-        try {
-            Set<String> keys = redisTemplate.keys(pattern);
-            return keys != null ? keys.size() : 0;
+        try (Cursor<String> cursor = scan(pattern)) {
+            long count = 0;
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+            return count;
         } catch (Exception e) {
             log.error("Error counting keys for pattern: {}", pattern, e);
             return 0;
@@ -134,16 +299,44 @@ public class RedisDistributedCacheService implements RedisCacheService {
 
     @Override
     public Set<String> getKeys(String pattern) {
-        try {
-            Set<String> keys = redisTemplate.keys(pattern);
-            log.debug("L2 Cache GET KEYS: {} ({} keys found)", pattern, keys != null ? keys.size() : 0);
-            return keys != null ? keys : Set.of();
+        try (Cursor<String> cursor = scan(pattern)) {
+            Set<String> keys = new HashSet<>();
+            cursor.forEachRemaining(keys::add);
+            log.debug("L2 Cache GET KEYS: {} ({} keys found)", pattern, keys.size());
+            return keys;
         } catch (Exception e) {
             log.error("Error getting keys for pattern: {}", pattern, e);
             return Set.of();
         }
     }
 
+    @Override
+    public Stream<String> streamKeys(String pattern) {
+        return scan(pattern).stream();
+    }
+
+    /**
+     * Open an incremental SCAN cursor over keys matching the pattern.
+     * Each underlying SCAN call inspects about {@code scanBatchSize} slots, so
+     * Redis is never blocked for the whole keyspace. Caller must close it.
+     */
+    private Cursor<String> scan(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(pattern)
+                .count(scanBatchSize)
+                .build();
+        return binaryRedisTemplate.scan(options);
+    }
+
+    /**
+     * Delete a batch of keys with a single UNLINK, which reclaims memory in a
+     * background thread on the Redis side instead of blocking like DEL.
+     */
+    private long unlink(List<String> keys) {
+        Long unlinked = binaryRedisTemplate.unlink(keys);
+        return unlinked != null ? unlinked : 0;
+    }
+
     @Override
     public boolean exists(String key) {
         if (key == null) {
@@ -151,7 +344,7 @@ public class RedisDistributedCacheService implements RedisCacheService {
         }
 
         try {
-            Boolean exists = redisTemplate.hasKey(key);
+            Boolean exists = binaryRedisTemplate.hasKey(key);
             return exists != null && exists;
         } catch (Exception e) {
             log.warn("Error checking existence for key: {}", key, e);
@@ -166,7 +359,7 @@ public class RedisDistributedCacheService implements RedisCacheService {
         }
 
         try {
-            Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
+            Long ttl = binaryRedisTemplate.getExpire(key, TimeUnit.SECONDS);
             return ttl != null ? ttl : -1;
         } catch (Exception e) {
             log.warn("Error getting TTL for key: {}", key, e);
@@ -1,5 +1,9 @@
 package com.vsa.ecommerce.common.cache.pubsub;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
 /**
  * Cache invalidation event model for Pub/Sub messaging.
  * <p>
@@ -11,17 +15,32 @@ package com.vsa.ecommerce.common.cache.pubsub;
  * Event Types:
  * - SINGLE_KEY: Invalidate a specific cache key (e.g., "vsa:v1:user::123")
  * - PATTERN: Invalidate all keys matching a pattern (e.g., "vsa:v1:user:*")
+ * - BATCH: Invalidate several keys and/or patterns collected by the publisher
+ * over a short window (one message instead of one per key)
+ * - GENERATION: A resource's key generation was bumped (see CacheKeyConvention)
+ * - BLOOM_ADD: Ids were created and must be added to the resource's Bloom filter
  *
- * @param key       Specific cache key to invalidate (for SINGLE_KEY type)
- * @param pattern   Pattern to match keys (for PATTERN type)
- * @param type      Invalidation type
- * @param timestamp Event timestamp (epoch milliseconds)
+ * @param key        Specific cache key to invalidate (for SINGLE_KEY type)
+ * @param pattern    Pattern to match keys (for PATTERN type)
+ * @param type       Invalidation type
+ * @param timestamp  Event timestamp (epoch milliseconds)
+ * @param instanceId Id of the publishing instance, used to drop its own echo
+ * @param keys       Cache keys to invalidate (for BATCH type), or created ids
+ *                   (for BLOOM_ADD type, resource in {@code key})
+ * @param patterns   Patterns to invalidate (for BATCH type)
+ * @param generation New generation of the resource in {@code key} (for
+ *                   GENERATION type)
  */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
 public record CacheInvalidationEvent(
         String key,
         String pattern,
         Type type,
-        long timestamp) {
+        long timestamp,
+        String instanceId,
+        List<String> keys,
+        List<String> patterns,
+        Long generation) {
     public enum Type {
         /**
          * Invalidate a single specific key.
@@ -33,20 +52,79 @@ public record CacheInvalidationEvent(
          * Invalidate all keys matching a pattern.
          * Example: invalidate:permission:*
          */
-        PATTERN
+        PATTERN,
+
+        /**
+         * Invalidate a de-duplicated batch of keys and patterns.
+         */
+        BATCH,
+
+        /**
+         * Move a resource to a new key generation.
+         * Example: product -> 4
+         */
+        GENERATION,
+
+        /**
+         * Add created ids to a resource's Bloom filter.
+         * Example: product -> [1001]
+         */
+        BLOOM_ADD
     }
 
     /**
      * Create event for single key invalidation.
      */
     public static CacheInvalidationEvent single(String key) {
-        return new CacheInvalidationEvent(key, null, Type.SINGLE_KEY, System.currentTimeMillis());
+        return single(null, key);
+    }
+
+    /**
+     * Create event for single key invalidation tagged with the publishing
+     * instance.
+     */
+    public static CacheInvalidationEvent single(String instanceId, String key) {
+        return new CacheInvalidationEvent(key, null, Type.SINGLE_KEY, System.currentTimeMillis(), instanceId, null,
+                null, null);
     }
 
     /**
      * Create event for pattern-based invalidation.
      */
     public static CacheInvalidationEvent pattern(String pattern) {
-        return new CacheInvalidationEvent(null, pattern, Type.PATTERN, System.currentTimeMillis());
+        return pattern(null, pattern);
+    }
+
+    /**
+     * Create event for pattern-based invalidation tagged with the publishing
+     * instance.
+     */
+    public static CacheInvalidationEvent pattern(String instanceId, String pattern) {
+        return new CacheInvalidationEvent(null, pattern, Type.PATTERN, System.currentTimeMillis(), instanceId, null,
+                null, null);
+    }
+
+    /**
+     * Create event for a batch of key and pattern invalidations.
+     */
+    public static CacheInvalidationEvent batch(String instanceId, List<String> keys, List<String> patterns) {
+        return new CacheInvalidationEvent(null, null, Type.BATCH, System.currentTimeMillis(), instanceId, keys,
+                patterns, null);
+    }
+
+    /**
+     * Create event for ids added to a resource's Bloom filter.
+     */
+    public static CacheInvalidationEvent bloomAdd(String instanceId, String resource, List<String> ids) {
+        return new CacheInvalidationEvent(resource, null, Type.BLOOM_ADD, System.currentTimeMillis(), instanceId,
+                ids, null, null);
+    }
+
+    /**
+     * Create event for a resource generation bump.
+     */
+    public static CacheInvalidationEvent generation(String instanceId, String resource, long generation) {
+        return new CacheInvalidationEvent(resource, null, Type.GENERATION, System.currentTimeMillis(), instanceId,
+                null, null, generation);
     }
 }
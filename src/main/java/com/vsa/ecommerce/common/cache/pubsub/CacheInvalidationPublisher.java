@@ -2,12 +2,22 @@ package com.vsa.ecommerce.common.cache.pubsub;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Publisher for cache invalidation events via Redis Pub/Sub.
  * <p>
@@ -24,18 +34,65 @@ import org.springframework.stereotype.Service;
  * 3. Instance A publishes invalidation event
  * 4. Instances B, C, D receive event and evict from their L1
  * 5. All instances now have consistent state
+ * <p>
+ * Micro-batching: keys and patterns are collected for
+ * {@code cache.pub-sub.batch-window-ms} (or until
+ * {@code cache.pub-sub.max-batch-size} is reached), de-duplicated, and sent as
+ * one BATCH event tagged with this instance's id. A bulk update of thousands of
+ * rows therefore produces a handful of messages instead of one per key.
+ * <p>
+ * Instances older than the BATCH type cannot read it and would keep stale L1
+ * entries, so BATCH events are only sent with
+ * {@code cache.pub-sub.batch-events-enabled}. Until every instance understands
+ * them (i.e. after a rolling deploy has completed), a flush sends the
+ * de-duplicated keys and patterns as SINGLE_KEY and PATTERN events, which
+ * older instances read and ignore the instance id of.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CacheInvalidationPublisher {
 
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
 
+    /**
+     * Unique id of this application instance; subscribers drop events carrying
+     * their own id.
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Object bufferLock = new Object();
+    private Set<String> pendingKeys = new LinkedHashSet<>();
+    private Set<String> pendingPatterns = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Value("${cache.pub-sub.channel:cache-invalidation}")
     private String channel;
 
+    @Value("${cache.pub-sub.batch-window-ms:5}")
+    private long batchWindowMs;
+
+    @Value("${cache.pub-sub.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${cache.pub-sub.batch-events-enabled:false}")
+    private boolean batchEventsEnabled;
+
+    public CacheInvalidationPublisher(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
     /**
      * Publish single key invalidation event.
      *
@@ -47,8 +104,7 @@ public class CacheInvalidationPublisher {
             return;
         }
 
-        CacheInvalidationEvent event = CacheInvalidationEvent.single(key);
-        publish(event);
+        enqueue(key, null);
     }
 
     /**
@@ -62,8 +118,93 @@ public class CacheInvalidationPublisher {
             return;
         }
 
-        CacheInvalidationEvent event = CacheInvalidationEvent.pattern(pattern);
-        publish(event);
+        enqueue(null, pattern);
+    }
+
+    /**
+     * Publish a resource generation bump. Sent immediately rather than batched,
+     * since it replaces any pattern invalidation of the resource.
+     *
+     * @param resource   Resource type
+     * @param generation New generation
+     */
+    public void publishGenerationBump(String resource, long generation) {
+        publish(CacheInvalidationEvent.generation(instanceId, resource, generation));
+    }
+
+    /**
+     * Publish a created id so other instances add it to their Bloom filter of
+     * the resource. Sent immediately: until it arrives, other instances would
+     * reject lookups of the new id.
+     *
+     * @param resource Resource type
+     * @param id       Created id
+     */
+    public void publishBloomAdd(String resource, long id) {
+        publish(CacheInvalidationEvent.bloomAdd(instanceId, resource, List.of(Long.toString(id))));
+    }
+
+    /**
+     * Send everything buffered so far. Called by the flush timer, when the
+     * buffer is full, and on shutdown.
+     */
+    public void flush() {
+        List<String> keys;
+        List<String> patterns;
+        synchronized (bufferLock) {
+            flushScheduled = false;
+            if (pendingKeys.isEmpty() && pendingPatterns.isEmpty()) {
+                return;
+            }
+            keys = new ArrayList<>(pendingKeys);
+            patterns = new ArrayList<>(pendingPatterns);
+            pendingKeys = new LinkedHashSet<>();
+            pendingPatterns = new LinkedHashSet<>();
+        }
+
+        if (batchEventsEnabled) {
+            publish(CacheInvalidationEvent.batch(instanceId, keys, patterns));
+            return;
+        }
+        for (String key : keys) {
+            publish(CacheInvalidationEvent.single(instanceId, key));
+        }
+        for (String pattern : patterns) {
+            publish(CacheInvalidationEvent.pattern(instanceId, pattern));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        flush();
+    }
+
+    private void enqueue(String key, String pattern) {
+        boolean flushNow;
+        synchronized (bufferLock) {
+            if (key != null) {
+                pendingKeys.add(key);
+            }
+            if (pattern != null) {
+                pendingPatterns.add(pattern);
+            }
+
+            flushNow = batchWindowMs <= 0 || pendingKeys.size() + pendingPatterns.size() >= maxBatchSize;
+            if (!flushNow && !flushScheduled) {
+                try {
+                    flushScheduler.schedule(this::flush, batchWindowMs, TimeUnit.MILLISECONDS);
+                    flushScheduled = true;
+                } catch (RejectedExecutionException e) {
+                    // Shutting down: no timer left, send immediately
+                    flushNow = true;
+                }
+            }
+        }
+
+        if (flushNow) {
+            flush();
+        }
     }
 
     /**
@@ -76,7 +217,7 @@ public class CacheInvalidationPublisher {
             String message = objectMapper.writeValueAsString(event);
             redisTemplate.convertAndSend(channel, message);
 
-            log.debug("Published cache invalidation event: {} on channel: {}", event, channel);
+            log.debug("Published cache invalidation event {} on channel: {}", event.type(), channel);
 
         } catch (JsonProcessingException e) {
             log.error("Error serializing cache invalidation event: {}", event, e);
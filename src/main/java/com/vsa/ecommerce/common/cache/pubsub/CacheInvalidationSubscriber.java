@@ -1,11 +1,21 @@
 package com.vsa.ecommerce.common.cache.pubsub;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vsa.ecommerce.common.cache.CacheKeyConvention;
+import com.vsa.ecommerce.common.cache.bloom.CacheBloomFilterService;
 import com.vsa.ecommerce.common.cache.l1.LocalCacheService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Subscriber for cache invalidation events via Redis Pub/Sub.
  * <p>
@@ -18,6 +28,12 @@ import org.springframework.stereotype.Component;
  * IMPORTANT: This subscriber only evicts from L1 (local cache).
  * L2 (Redis) is already up-to-date because the publisher instance
  * evicted from L2 before publishing the event.
+ * <p>
+ * Events published by this instance are dropped (its L1 was already evicted
+ * before publishing). Messages are delivered on a single bounded consumer
+ * thread configured in HybridCacheConfig, so batches are applied in order.
+ * Messages that do not fit the queue are dropped and replaced by one resync
+ * of the whole L1 ({@link #onEventsDropped()}).
  */
 @Slf4j
 @Component
@@ -26,6 +42,16 @@ public class CacheInvalidationSubscriber {
 
     private final LocalCacheService l1Cache;
     private final ObjectMapper objectMapper;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheKeyConvention keyConvention;
+    private final CacheBloomFilterService bloomFilters;
+
+    private final AtomicBoolean resyncScheduled = new AtomicBoolean();
+    private final ExecutorService resyncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-resync");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Handle incoming cache invalidation message.
@@ -37,11 +63,19 @@ public class CacheInvalidationSubscriber {
         try {
             CacheInvalidationEvent event = objectMapper.readValue(message, CacheInvalidationEvent.class);
 
+            if (publisher.getInstanceId().equals(event.instanceId())) {
+                log.trace("Ignoring own cache invalidation event");
+                return;
+            }
+
             log.debug("Received cache invalidation event: {}", event);
 
             switch (event.type()) {
                 case SINGLE_KEY -> evictSingleKey(event.key());
                 case PATTERN -> evictPattern(event.pattern());
+                case BATCH -> evictBatch(event.keys(), event.patterns());
+                case GENERATION -> applyGeneration(event.key(), event.generation());
+                case BLOOM_ADD -> addToBloomFilter(event.key(), event.keys());
                 default -> log.warn("Unknown invalidation type: {}", event.type());
             }
 
@@ -50,6 +84,43 @@ public class CacheInvalidationSubscriber {
         }
     }
 
+    /**
+     * Called whenever the invalidation channel is subscribed, including
+     * resubscriptions after a reconnect. BLOOM_ADD events sent while this
+     * instance was disconnected are lost, so the Bloom filters are rebuilt
+     * (and fail open until then). Rebuilds run off the Redis I/O thread.
+     */
+    public void onSubscribed() {
+        log.info("Cache invalidation channel subscribed, rebuilding Bloom filters");
+        bloomFilters.rebuildAllAsync();
+    }
+
+    /**
+     * Called when the consumer queue was full and messages were dropped. The
+     * dropped invalidations are unknown, so L1 is cleared, generations are
+     * reloaded and the Bloom filters rebuilt (L2 is already up to date).
+     * Drops arriving before the resync starts share one resync.
+     */
+    public void onEventsDropped() {
+        if (resyncScheduled.compareAndSet(false, true)) {
+            log.warn("Cache invalidation queue full, events dropped; resynchronizing L1");
+            resyncExecutor.execute(this::resync);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resyncExecutor.shutdownNow();
+    }
+
+    private void resync() {
+        // Cleared first, so a drop during the resync schedules another one
+        resyncScheduled.set(false);
+        l1Cache.evictAll();
+        keyConvention.syncGenerations();
+        bloomFilters.rebuildAllAsync();
+    }
+
     /**
      * Evict a single key from L1 cache.
      */
@@ -64,17 +135,57 @@ public class CacheInvalidationSubscriber {
 
     /**
      * Evict keys matching a pattern from L1 cache.
-     * Since Caffeine doesn't support pattern-based eviction efficiently,
-     * we clear all L1 cache. This is acceptable because:
-     * - L1 has short TTL (30 seconds)
-     * - L1 will rebuild from L2 naturally on next access
+     * Only the entries of the matching resource are removed, so unrelated
+     * L1 entries survive and do not have to be reloaded from L2.
      */
     private void evictPattern(String pattern) {
         if (pattern == null || pattern.isBlank()) {
             return;
         }
 
-        l1Cache.evictAll();
-        log.info("Evicted ALL L1 cache entries due to pattern invalidation: {}", pattern);
+        long evicted = l1Cache.evictPattern(pattern);
+        log.info("Evicted {} L1 cache entries due to pattern invalidation: {}", evicted, pattern);
+    }
+
+    /**
+     * Move to a resource's new key generation and drop the previous
+     * generation's L1 entries, which no key lookup can reach anymore.
+     */
+    private void applyGeneration(String resource, Long generation) {
+        if (resource == null || generation == null) {
+            return;
+        }
+
+        if (keyConvention.applyGeneration(resource, generation)) {
+            long evicted = l1Cache.evictPattern(keyConvention.buildPattern(resource, generation - 1));
+            log.info("Applied cache generation {} for resource {} ({} L1 entries dropped)", generation, resource,
+                    evicted);
+        }
+    }
+
+    /**
+     * Add ids created on another instance to the local Bloom filter.
+     */
+    private void addToBloomFilter(String resource, List<String> ids) {
+        if (resource == null || ids == null) {
+            return;
+        }
+
+        ids.forEach(id -> bloomFilters.addLocal(resource, Long.parseLong(id)));
+        log.debug("Added {} ids to Bloom filter of resource {} from Pub/Sub event", ids.size(), resource);
+    }
+
+    /**
+     * Apply a batch: patterns first, then the de-duplicated keys.
+     */
+    private void evictBatch(List<String> keys, List<String> patterns) {
+        if (patterns != null) {
+            new LinkedHashSet<>(patterns).forEach(this::evictPattern);
+        }
+        if (keys != null && !keys.isEmpty()) {
+            Collection<String> uniqueKeys = new LinkedHashSet<>(keys);
+            uniqueKeys.forEach(this::evictSingleKey);
+            log.debug("Evicted {} L1 cache keys from Pub/Sub batch", uniqueKeys.size());
+        }
     }
 }
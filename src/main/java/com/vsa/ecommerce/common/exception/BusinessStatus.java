@@ -46,6 +46,8 @@ public enum BusinessStatus {
     PRODUCT_NOT_FOUND(404, "Product not found"),
     ORDER_NOT_FOUND(404, "Order not found"),
     INSUFFICIENT_STOCK(400, "Insufficient stock"),
+    STOCK_SHORTFALL(400, "Insufficient stock for %s"),
+    HOT_STOCK_ACTIVE(409, "Product %d is in hot stock mode, switch it off first"),
     INVALID_ORDER_STATUS_TRANSITION(400, "Invalid order status transition"),
     RESOURCE_NOT_FOUND(404, "Resource not found"),
     CART_EMPTY(400, "Cart is empty");
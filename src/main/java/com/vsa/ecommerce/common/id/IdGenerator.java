@@ -1,5 +1,7 @@
 package com.vsa.ecommerce.common.id;
 
+import java.util.function.LongSupplier;
+
 /**
  * Interface for generating unique identifiers.
  */
@@ -11,4 +13,42 @@ public interface IdGenerator {
      * @return unique long ID
      */
     long nextId();
+
+    /**
+     * Generate {@code count} unique IDs in one call.
+     * Implementations may reserve the whole range at once.
+     * 
+     * @param count Number of IDs
+     * @return unique long IDs
+     */
+    default long[] nextIds(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative");
+        }
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+
+    /**
+     * Supplier handing out a block of {@code count} IDs reserved up front
+     * (see {@link #nextIds(int)}), then falling back to {@link #nextId()}.
+     * Not thread-safe; meant for one bulk insert.
+     * 
+     * @param count Number of IDs to reserve
+     * @return ID supplier
+     */
+    default LongSupplier nextIdBlock(int count) {
+        long[] ids = nextIds(count);
+        return new LongSupplier() {
+            private int next;
+
+            @Override
+            public long getAsLong() {
+                return next < ids.length ? ids[next++] : nextId();
+            }
+        };
+    }
 }
@@ -2,28 +2,28 @@ package com.vsa.ecommerce.common.id;
 
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.id.IdentifierGenerator;
-import org.springframework.stereotype.Component;
 
 /**
  * Hibernate custom ID generator using Snowflake algorithm.
  * 
- * Usage in entity:
+ * Usage in entity (see {@link SnowflakeId}):
  * 
  * <pre>
  * &#64;Id
- * &#64;GeneratedValue(generator = "snowflake")
- * @GenericGenerator(name = "snowflake", strategy = "com.vsa.ecommerce.common.id.SnowflakeHibernateGenerator")
+ * &#64;SnowflakeId
  * private Long id;
  * </pre>
+ * 
+ * Hibernate instantiates this class itself, so the shared generator is
+ * handed over by SnowflakeConfig.
  */
-@Component
 public class SnowflakeHibernateGenerator implements IdentifierGenerator {
 
     private static SnowflakeIdGenerator snowflakeIdGenerator;
 
     /**
      * Set the Snowflake ID generator.
-     * Called by Spring after bean initialization.
+     * Called by SnowflakeConfig when the generator bean is created.
      */
     public static void setSnowflakeIdGenerator(SnowflakeIdGenerator generator) {
         snowflakeIdGenerator = generator;
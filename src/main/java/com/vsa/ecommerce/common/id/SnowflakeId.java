@@ -0,0 +1,27 @@
+package com.vsa.ecommerce.common.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity id as application-assigned by the Snowflake generator.
+ * <p>
+ * The id is known before the INSERT, so Hibernate keeps inserts in JDBC
+ * batches ({@code hibernate.jdbc.batch_size}, {@code order_inserts}), which
+ * {@code GenerationType.IDENTITY} disables.
+ *
+ * <pre>
+ * &#64;Id
+ * &#64;SnowflakeId
+ * private Long id;
+ * </pre>
+ */
+@IdGeneratorType(SnowflakeHibernateGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface SnowflakeId {
+}
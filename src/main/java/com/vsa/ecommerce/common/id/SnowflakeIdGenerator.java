@@ -2,6 +2,10 @@ package com.vsa.ecommerce.common.id;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Twitter Snowflake ID Generator.
  * 
@@ -16,6 +20,9 @@ import lombok.extern.slf4j.Slf4j;
  * - Time-ordered (sortable)
  * - No coordination required
  * - 4096 IDs per millisecond per machine
+ * - Lock-free: the last timestamp and sequence are packed into one AtomicLong
+ * advanced by CAS
+ * - Block reservation ({@link #nextIds(int)}) for bulk inserts
  * 
  * Usage:
  * 
@@ -45,8 +52,8 @@ public class SnowflakeIdGenerator implements IdGenerator {
     /**
      * Max values
      */
-    private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS); // 31
-    private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS); // 31
+    static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS); // 31
+    static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS); // 31
     private static final long MAX_SEQUENCE = ~(-1L << SEQUENCE_BITS); // 4095
 
     /**
@@ -56,12 +63,22 @@ public class SnowflakeIdGenerator implements IdGenerator {
     private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
     private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
 
+    /**
+     * Tolerated backward clock movement: ids continue from the last timestamp
+     * meanwhile. Larger jumps refuse to generate ids.
+     */
+    private static final long MAX_BACKWARD_MS = 5L;
+
     // ==================== Instance Fields ====================
 
-    private final long datacenterId;
-    private final long workerId;
-    private long sequence = 0L;
-    private long lastTimestamp = -1L;
+    private final long datacenterBits;
+    private final WorkerIdLease workerIdLease;
+
+    /**
+     * Packed {timestamp - EPOCH}{sequence} of the last id handed out, i.e. the
+     * id without machine bits. Only ever moves forward, by CAS.
+     */
+    private final AtomicLong state = new AtomicLong();
 
     // ==================== Constructor ====================
 
@@ -72,75 +89,67 @@ public class SnowflakeIdGenerator implements IdGenerator {
      * @param workerId     Worker ID (0-31)
      */
     public SnowflakeIdGenerator(long datacenterId, long workerId) {
+        this(datacenterId, WorkerIdLease.fixed(validateWorkerId(workerId)));
+        log.info("Snowflake ID Generator initialized: datacenterId={}, workerId={}",
+                datacenterId, workerId);
+    }
+
+    /**
+     * Create a generator whose worker id comes from a lease (see
+     * WorkerIdLeaseService). Ids are refused while the lease does not cover
+     * their timestamp.
+     * 
+     * @param datacenterId  Datacenter ID (0-31)
+     * @param workerIdLease Worker ID lease
+     */
+    public SnowflakeIdGenerator(long datacenterId, WorkerIdLease workerIdLease) {
         if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
             throw new IllegalArgumentException(
                     String.format("Datacenter ID must be between 0 and %d", MAX_DATACENTER_ID));
         }
-        if (workerId > MAX_WORKER_ID || workerId < 0) {
-            throw new IllegalArgumentException(
-                    String.format("Worker ID must be between 0 and %d", MAX_WORKER_ID));
-        }
-
-        this.datacenterId = datacenterId;
-        this.workerId = workerId;
 
-        log.info("Snowflake ID Generator initialized: datacenterId={}, workerId={}",
-                datacenterId, workerId);
+        this.datacenterBits = datacenterId << DATACENTER_ID_SHIFT;
+        this.workerIdLease = workerIdLease;
     }
 
     // ==================== Public Methods ====================
 
     /**
      * Generate next unique ID.
-     * Thread-safe.
+     * Thread-safe and lock-free (one CAS on the packed state).
      * 
      * @return 64-bit unique ID
      */
-    public synchronized long nextId() {
-        long timestamp = currentTimestamp();
+    @Override
+    public long nextId() {
+        long packed = reserve(1);
+        return toId(packed, machineBits(packed));
+    }
 
-        // Check clock moving backwards
-        if (timestamp < lastTimestamp) {
-            long offset = lastTimestamp - timestamp;
-            if (offset <= 5) {
-                // Small clock drift, wait it out
-                try {
-                    wait(offset << 1);
-                    timestamp = currentTimestamp();
-                    if (timestamp < lastTimestamp) {
-                        throw new RuntimeException(
-                                String.format("Clock moved backwards. Refusing to generate ID for %d ms", offset));
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Interrupted while waiting for clock", e);
-                }
-            } else {
-                throw new RuntimeException(
-                        String.format("Clock moved backwards. Refusing to generate ID for %d ms", offset));
-            }
+    /**
+     * Reserve {@code count} ids at once, e.g. for a bulk insert. Each CAS
+     * takes as many sequence numbers as remain in the current millisecond, so
+     * up to 4096 ids cost one or two CAS instead of one per id.
+     * 
+     * @param count Number of ids
+     * @return ascending unique IDs
+     */
+    @Override
+    public long[] nextIds(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative");
         }
-
-        // Same millisecond: increment sequence
-        if (timestamp == lastTimestamp) {
-            sequence = (sequence + 1) & MAX_SEQUENCE;
-
-            // Sequence overflow: wait for next millisecond
-            if (sequence == 0) {
-                timestamp = waitNextMillis(lastTimestamp);
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            long first = reserve(count - filled);
+            int granted = granted(first, count - filled);
+            long machineBits = machineBits(first);
+            for (int i = 0; i < granted; i++) {
+                ids[filled++] = toId(first + i, machineBits);
             }
-        } else {
-            // New millisecond: reset sequence
-            sequence = 0L;
         }
-
-        lastTimestamp = timestamp;
-
-        // Generate ID
-        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
-                | (datacenterId << DATACENTER_ID_SHIFT)
-                | (workerId << WORKER_ID_SHIFT)
-                | sequence;
+        return ids;
     }
 
     /**
@@ -157,16 +166,84 @@ public class SnowflakeIdGenerator implements IdGenerator {
 
     // ==================== Private Methods ====================
 
+    /**
+     * Take up to {@code wanted} consecutive sequence numbers of one
+     * millisecond.
+     * 
+     * @return packed state of the first one; the number taken is
+     *         {@link #granted}
+     */
+    private long reserve(int wanted) {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long timestamp = currentTimestamp() - EPOCH;
+
+            long first;
+            if (timestamp > lastTimestamp) {
+                // New millisecond: sequence restarts at 0
+                first = timestamp << SEQUENCE_BITS;
+            } else {
+                // Same millisecond, or the clock moved back a little: continue
+                // the last timestamp's sequence, never reusing a value
+                long offset = lastTimestamp - timestamp;
+                if (offset > MAX_BACKWARD_MS) {
+                    throw new IllegalStateException(
+                            String.format("Clock moved backwards. Refusing to generate ID for %d ms", offset));
+                }
+                if ((current & MAX_SEQUENCE) == MAX_SEQUENCE) {
+                    // Sequence exhausted: wait for the clock to pass the last timestamp
+                    awaitAfter(lastTimestamp, timestamp);
+                    continue;
+                }
+                first = current + 1;
+            }
+
+            if (state.compareAndSet(current, first + granted(first, wanted) - 1)) {
+                return first;
+            }
+        }
+    }
+
+    private static int granted(long first, int wanted) {
+        return (int) Math.min(wanted, MAX_SEQUENCE - (first & MAX_SEQUENCE) + 1);
+    }
+
+    /**
+     * Datacenter and leased worker bits for ids of the packed state's
+     * millisecond.
+     */
+    private long machineBits(long packed) {
+        long workerId = workerIdLease.workerId((packed >>> SEQUENCE_BITS) + EPOCH);
+        return datacenterBits | (workerId << WORKER_ID_SHIFT);
+    }
+
+    private static long toId(long packed, long machineBits) {
+        return ((packed >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | machineBits | (packed & MAX_SEQUENCE);
+    }
+
+    private static long validateWorkerId(long workerId) {
+        if (workerId > MAX_WORKER_ID || workerId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Worker ID must be between 0 and %d", MAX_WORKER_ID));
+        }
+        return workerId;
+    }
+
     private long currentTimestamp() {
         return System.currentTimeMillis();
     }
 
-    private long waitNextMillis(long lastTimestamp) {
-        long timestamp = currentTimestamp();
-        while (timestamp <= lastTimestamp) {
-            timestamp = currentTimestamp();
+    /**
+     * Spin within the current millisecond; park (no monitor held, so virtual
+     * threads are not pinned) when the clock is behind.
+     */
+    private static void awaitAfter(long lastTimestamp, long timestamp) {
+        if (timestamp < lastTimestamp) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(lastTimestamp - timestamp));
+        } else {
+            Thread.onSpinWait();
         }
-        return timestamp;
     }
 
     // ==================== Inner Class ====================
@@ -0,0 +1,52 @@
+package com.vsa.ecommerce.common.id;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes id properties as JSON strings.
+ * <p>
+ * Snowflake ids exceed 2^53, the largest integer a JavaScript number holds
+ * exactly, so a client parsing them as numbers silently gets a different id.
+ * Every {@code Long}/{@code long} bean property named {@code id} or ending in
+ * {@code Id} (userId, productId, ...) is serialized with
+ * {@link ToStringSerializer}; other numbers (counts, quantities) stay numbers.
+ * <p>
+ * Reading is unchanged: Jackson accepts an id as a string or as a number, so
+ * requests and values cached before this module still deserialize.
+ * <p>
+ * Spring Boot registers Module beans with the application ObjectMapper, which
+ * the cache codecs also derive from.
+ */
+@Component
+public class SnowflakeIdJsonModule extends SimpleModule {
+
+    public SnowflakeIdJsonModule() {
+        super("SnowflakeIdJsonModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                    BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+                for (BeanPropertyWriter property : beanProperties) {
+                    if (isId(property)) {
+                        property.assignSerializer(ToStringSerializer.instance);
+                    }
+                }
+                return beanProperties;
+            }
+        });
+    }
+
+    private static boolean isId(BeanPropertyWriter property) {
+        Class<?> type = property.getType().getRawClass();
+        String name = property.getName();
+        return (type == Long.class || type == long.class) && (name.equals("id") || name.endsWith("Id"));
+    }
+}
@@ -0,0 +1,23 @@
+package com.vsa.ecommerce.common.id;
+
+/**
+ * Source of the Snowflake worker id this node may currently use.
+ */
+public interface WorkerIdLease {
+
+    /**
+     * Worker id for an id with the given timestamp.
+     * 
+     * @param timestampMillis Timestamp of the id being generated
+     * @return worker id (0-31)
+     * @throws IllegalStateException if the lease does not cover the timestamp
+     */
+    long workerId(long timestampMillis);
+
+    /**
+     * A worker id assigned by configuration, valid forever.
+     */
+    static WorkerIdLease fixed(long workerId) {
+        return timestampMillis -> workerId;
+    }
+}
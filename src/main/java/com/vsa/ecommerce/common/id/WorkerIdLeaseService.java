@@ -0,0 +1,227 @@
+package com.vsa.ecommerce.common.id;
+
+import com.vsa.ecommerce.common.util.RedisScriptUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases this node's Snowflake worker id from a Redis registry, so replicas
+ * started from the same configuration never share a worker id.
+ * <p>
+ * Storage: one key per worker id of the datacenter,
+ * {@code snowflake_worker:{dc<datacenterId>}:<workerId>} -> owner (host +
+ * random instance id), with a TTL of {@code snowflake.lease.ttl-ms}. The hash
+ * tag keeps a datacenter's keys in one cluster slot for the claim script.
+ * <p>
+ * Lifecycle:
+ * - start: one Lua script claims the first free worker id, beginning at the
+ * configured {@code snowflake.worker-id}; startup fails if all 32 are taken
+ * - heartbeat every {@code snowflake.lease.renew-interval-ms}: the TTL is
+ * renewed only while the key still names this node
+ * - release on shutdown
+ * <p>
+ * The lease is valid locally until the start of the last successful renewal
+ * plus the TTL minus {@code snowflake.lease.safety-margin-ms}; the generator
+ * refuses ids with a later timestamp. When Redis is unreachable the node thus
+ * stops issuing ids before another node can claim the worker id. A lease found
+ * lost (key expired or taken) is dropped at once and a worker id claimed again
+ * on the same heartbeat.
+ */
+@Slf4j
+public class WorkerIdLeaseService implements WorkerIdLease {
+
+    private static final String KEY_PREFIX = "snowflake_worker:";
+
+    /**
+     * KEYS worker keys 0..31; ARGV[1] owner, ARGV[2] TTL in ms, ARGV[3]
+     * preferred worker id. Returns the claimed worker id or -1.
+     */
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local count = #KEYS "
+                    + "for i = 0, count - 1 do "
+                    + "local worker = (tonumber(ARGV[3]) + i) % count "
+                    + "if redis.call('SET', KEYS[worker + 1], ARGV[1], 'NX', 'PX', ARGV[2]) then "
+                    + "return worker end "
+                    + "end "
+                    + "return -1",
+            Long.class);
+
+    /**
+     * KEYS[1] worker key; ARGV[1] owner, ARGV[2] TTL in ms. Returns 1 if
+     * renewed, 0 if the key expired or belongs to another node.
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * KEYS[1] worker key; ARGV[1] owner. Deletes the key if still owned.
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long datacenterId;
+    private final long preferredWorkerId;
+    private final long ttlMs;
+    private final long renewIntervalMs;
+    private final long safetyMarginMs;
+    private final String owner;
+    private final List<String> workerKeys;
+
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "snowflake-worker-lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private volatile Lease lease;
+
+    /**
+     * @param redisTemplate     Redis template
+     * @param datacenterId      Datacenter ID (0-31), fixed by configuration
+     * @param preferredWorkerId Worker ID tried first (0-31)
+     * @param ttlMs             Lease TTL in Redis
+     * @param renewIntervalMs   Heartbeat interval
+     * @param safetyMarginMs    Local lease ends this long before the TTL
+     */
+    public WorkerIdLeaseService(StringRedisTemplate redisTemplate, long datacenterId, long preferredWorkerId,
+            long ttlMs, long renewIntervalMs, long safetyMarginMs) {
+        if (datacenterId < 0 || datacenterId > SnowflakeIdGenerator.MAX_DATACENTER_ID) {
+            throw new IllegalArgumentException(String.format("Datacenter ID must be between 0 and %d",
+                    SnowflakeIdGenerator.MAX_DATACENTER_ID));
+        }
+        if (renewIntervalMs <= 0 || renewIntervalMs >= ttlMs - safetyMarginMs) {
+            throw new IllegalArgumentException(
+                    "Lease renew interval must be positive and shorter than the TTL minus the safety margin");
+        }
+
+        this.redisTemplate = redisTemplate;
+        this.datacenterId = datacenterId;
+        this.preferredWorkerId = Math.floorMod(preferredWorkerId, SnowflakeIdGenerator.MAX_WORKER_ID + 1);
+        this.ttlMs = ttlMs;
+        this.renewIntervalMs = renewIntervalMs;
+        this.safetyMarginMs = safetyMarginMs;
+        this.owner = hostName() + ":" + UUID.randomUUID();
+
+        List<String> keys = new ArrayList<>();
+        for (long workerId = 0; workerId <= SnowflakeIdGenerator.MAX_WORKER_ID; workerId++) {
+            keys.add(KEY_PREFIX + "{dc" + datacenterId + "}:" + workerId);
+        }
+        this.workerKeys = List.copyOf(keys);
+    }
+
+    /**
+     * Claim a worker id and start the heartbeat.
+     *
+     * @throws IllegalStateException if every worker id of the datacenter is
+     *                               taken
+     */
+    public void start() {
+        RedisScriptUtil.preload(redisTemplate, CLAIM_SCRIPT, RENEW_SCRIPT, RELEASE_SCRIPT);
+        if (!claim(preferredWorkerId)) {
+            throw new IllegalStateException(String.format(
+                    "No free Snowflake worker id in datacenter %d (all %d leased)", datacenterId,
+                    workerKeys.size()));
+        }
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat, renewIntervalMs, renewIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the heartbeat and free the worker id for other nodes.
+     */
+    public void release() {
+        heartbeatScheduler.shutdownNow();
+        Lease current = lease;
+        lease = null;
+        if (current == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key(current.workerId())), owner);
+            log.info("Snowflake worker id {} released", current.workerId());
+        } catch (Exception e) {
+            log.warn("Failed to release Snowflake worker id {}, it expires with its TTL", current.workerId(), e);
+        }
+    }
+
+    @Override
+    public long workerId(long timestampMillis) {
+        Lease current = lease;
+        if (current == null || timestampMillis >= current.validUntilMillis()) {
+            throw new IllegalStateException("Snowflake worker id lease lost or expired. Refusing to generate ID");
+        }
+        return current.workerId();
+    }
+
+    private void heartbeat() {
+        Lease current = lease;
+        long renewStart = System.currentTimeMillis();
+        try {
+            if (current != null) {
+                Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(key(current.workerId())), owner,
+                        String.valueOf(ttlMs));
+                if (renewed != null && renewed == 1L) {
+                    lease = new Lease(current.workerId(), renewStart + ttlMs - safetyMarginMs);
+                    return;
+                }
+                log.error("Snowflake worker id {} lease lost, ids are refused until a worker id is claimed again",
+                        current.workerId());
+                lease = null;
+            }
+            claim(current != null ? current.workerId() : preferredWorkerId);
+        } catch (Exception e) {
+            log.warn("Snowflake worker lease heartbeat failed (lease valid until {})",
+                    current != null ? current.validUntilMillis() : "lost", e);
+        }
+    }
+
+    private boolean claim(long startWorkerId) {
+        long claimStart = System.currentTimeMillis();
+        Long workerId = redisTemplate.execute(CLAIM_SCRIPT, workerKeys, owner, String.valueOf(ttlMs),
+                String.valueOf(startWorkerId));
+        if (workerId == null || workerId < 0) {
+            log.error("No free Snowflake worker id in datacenter {}", datacenterId);
+            return false;
+        }
+        lease = new Lease(workerId, claimStart + ttlMs - safetyMarginMs);
+        log.info("Snowflake worker id leased: datacenterId={}, workerId={}, owner={}", datacenterId, workerId,
+                owner);
+        return true;
+    }
+
+    private String key(long workerId) {
+        return workerKeys.get((int) workerId);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+
+    /**
+     * Worker id held and the local end of its validity.
+     */
+    private record Lease(long workerId, long validUntilMillis) {
+    }
+}
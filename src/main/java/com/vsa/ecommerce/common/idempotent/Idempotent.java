@@ -18,7 +18,7 @@ public @interface Idempotent {
     String keyPrefix() default "idempotent:";
 
     /**
-     * Expiration time for the idempotency key.
+     * How long the stored response is kept for the idempotency key.
      */
     long expireTime() default 24;
 
@@ -34,7 +34,8 @@ public @interface Idempotent {
 
     /**
      * Whether to return the cached response or throw an error on duplicate request.
-     * Default is false (throw error).
+     * Default is true: duplicates get the stored response, waiting for it if the
+     * first request is still running.
      */
-    boolean returnCachedResponse() default false;
+    boolean returnCachedResponse() default true;
 }
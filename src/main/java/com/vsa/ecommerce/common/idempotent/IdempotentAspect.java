@@ -1,31 +1,136 @@
 package com.vsa.ecommerce.common.idempotent;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
+import com.vsa.ecommerce.common.security.SecurityUtils;
+import com.vsa.ecommerce.common.util.RedisScriptUtil;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Makes {@link Idempotent} endpoints safe to retry.
+ * <p>
+ * Flow per idempotency key (header value, scoped to the current user):
+ * - The first request claims the key with a short-lived
+ * "processing:{owner token}" marker (SET NX) and runs the endpoint
+ * - On success the marker is replaced by the serialized response (status and
+ * body) for {@link Idempotent#expireTime()}; on failure the marker is removed
+ * so the client can retry. Both are compare-and-set on the owner token, so a
+ * request that outlived its marker never overwrites or deletes the claim (or
+ * stored response) of a retry that took the key over
+ * - Completion is announced on a Redis Pub/Sub channel
+ * ({@code idempotency.channel})
+ * - A retry finding a stored response gets it back without running the
+ * endpoint; a retry finding the marker waits for the completion signal (up to
+ * {@code idempotency.wait-timeout-ms}) and then replays the stored response
+ * <p>
+ * With {@code returnCachedResponse = false} any duplicate gets CONFLICT, as
+ * before.
+ * <p>
+ * Configuration:
+ * - idempotency.channel: Pub/Sub channel for completion signals
+ * - idempotency.processing-ttl-ms: Lifetime of the "processing" marker, so a
+ * node dying mid-request does not block the key for the whole expire time
+ * - idempotency.wait-timeout-ms: How long a concurrent retry waits before
+ * CONFLICT
+ * - idempotency.poll-interval-ms: Re-check interval while waiting, in case a
+ * signal is lost
+ */
 @Aspect
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class IdempotentAspect {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private static final String PROCESSING = "processing";
+    private static final String PROCESSING_PREFIX = PROCESSING + ":";
 
-    @Before("@annotation(idempotent)")
-    public void validateIdempotency(JoinPoint joinPoint, Idempotent idempotent) {
+    /**
+     * KEYS[1] idempotency key; ARGV[1] owner marker, ARGV[2] response, ARGV[3]
+     * TTL in ms. Stores the response if the key is still ours or has expired.
+     */
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) "
+                    + "if current == false or current == ARGV[1] then "
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * KEYS[1] idempotency key; ARGV[1] owner marker. Deletes the key only if
+     * it still holds our marker.
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Completion signals awaited by requests on this node, by Redis key.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Void>> completions = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.channel:idempotency-completed}")
+    private String channel;
+
+    @Value("${idempotency.processing-ttl-ms:60000}")
+    private long processingTtlMs;
+
+    @Value("${idempotency.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.poll-interval-ms:250}")
+    private long pollIntervalMs;
+
+    @PostConstruct
+    public void subscribe() {
+        RedisScriptUtil.preload(redisTemplate, STORE_SCRIPT, RELEASE_SCRIPT);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> signal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+    }
+
+    @Around("@annotation(idempotent)")
+    public Object handleIdempotency(ProceedingJoinPoint joinPoint, Idempotent idempotent) throws Throwable {
         HttpServletRequest request = getRequest()
                 .orElseThrow(
                         () -> new BusinessException(BusinessStatus.INTERNAL_SERVER_ERROR, "Request context not found"));
@@ -36,28 +141,175 @@ public class IdempotentAspect {
             // If the key is missing, we might want to throw an error or skip.
             // In a strict API, it should be required for idempotent endpoints.
             log.warn("Missing idempotency key for method: {}", joinPoint.getSignature().toShortString());
-            // throw new BusinessException(BusinessStatus.PARAM_ERROR, "Idempotency key is
-            // required");
-            return;
+            return joinPoint.proceed();
         }
 
-        String redisKey = idempotent.keyPrefix() + idempotencyKey;
+        String redisKey = buildKey(idempotent, idempotencyKey);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
 
-        // Try to set the key in Redis (pseudo-lock)
-        // If it returns false, the key already exists (request is being processed or
-        // was processed)
-        Boolean success = redisTemplate.opsForValue().setIfAbsent(redisKey, "processing",
-                Duration.of(idempotent.expireTime(), idempotent.unit().toChronoUnit()));
+        while (true) {
+            String marker = PROCESSING_PREFIX + UUID.randomUUID();
+            Boolean claimed = redisTemplate.opsForValue().setIfAbsent(redisKey, marker,
+                    Duration.ofMillis(processingTtlMs));
+            if (Boolean.TRUE.equals(claimed)) {
+                return execute(joinPoint, idempotent, redisKey, marker);
+            }
 
-        if (Boolean.FALSE.equals(success)) {
-            log.warn("Duplicate request detected for key: {}", idempotencyKey);
-            throw new BusinessException(BusinessStatus.CONFLICT,
-                    "Request is already being processed or has been completed.");
+            if (!idempotent.returnCachedResponse()) {
+                log.warn("Duplicate request detected for key: {}", idempotencyKey);
+                throw new BusinessException(BusinessStatus.CONFLICT,
+                        "Request is already being processed or has been completed.");
+            }
+
+            String stored = awaitCompletion(redisKey, deadline);
+            if (isProcessing(stored)) {
+                log.warn("Timed out waiting for in-flight request with key: {}", idempotencyKey);
+                throw new BusinessException(BusinessStatus.CONFLICT,
+                        "Request is still being processed, please retry later.");
+            }
+            if (stored != null) {
+                log.debug("Replaying stored response for idempotency key: {}", idempotencyKey);
+                return replay(method, stored);
+            }
+            // The first attempt failed and released the key: try to claim it
+        }
+    }
+
+    /**
+     * Run the endpoint as the owner of the key and store its response.
+     *
+     * @param marker Processing marker holding the claim
+     */
+    private Object execute(ProceedingJoinPoint joinPoint, Idempotent idempotent, String redisKey, String marker)
+            throws Throwable {
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            release(redisKey, marker);
+            throw e;
+        }
+
+        try {
+            long ttlMs = idempotent.unit().toMillis(idempotent.expireTime());
+            Long stored = redisTemplate.execute(STORE_SCRIPT, List.of(redisKey), marker, serialize(result),
+                    Long.toString(ttlMs));
+            if (stored == null || stored == 0) {
+                log.warn("Idempotency key {} was taken over after its marker expired, response not stored",
+                        redisKey);
+            }
+            publish(redisKey);
+        } catch (Exception e) {
+            // The work is done; a retry will re-run it once the marker expires
+            log.error("Failed to store idempotent response for key: {}", redisKey, e);
         }
+        return result;
+    }
+
+    /**
+     * Wait until the key holds a stored response, disappears, or the deadline
+     * passes.
+     *
+     * @return the stored response, null if the key was released, or a
+     *         processing marker if the wait timed out
+     */
+    private String awaitCompletion(String redisKey, long deadline) throws InterruptedException {
+        CompletableFuture<Void> completion = null;
+        try {
+            while (true) {
+                // Register before reading so a signal sent in between is not missed
+                completion = completions.computeIfAbsent(redisKey, key -> new CompletableFuture<>());
+                String value = redisTemplate.opsForValue().get(redisKey);
+                if (value == null) {
+                    return null;
+                }
+                if (!isProcessing(value)) {
+                    return value;
+                }
 
-        // Note: For full implementation with returnCachedResponse=true,
-        // we would need an @Around advice to capture the result and store it in Redis.
-        // For now, we provide the blocking mechanism.
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return value;
+                }
+                try {
+                    completion.get(Math.min(remaining, pollIntervalMs), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // Re-check Redis
+                }
+            }
+        } finally {
+            // A replay of a finished key is never signalled; other waiters of the key
+            // re-register on their next poll
+            if (completion != null) {
+                completions.remove(redisKey, completion);
+            }
+        }
+    }
+
+    private void release(String redisKey, String marker) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey), marker);
+            publish(redisKey);
+        } catch (Exception e) {
+            log.error("Failed to release idempotency key: {}", redisKey, e);
+        }
+    }
+
+    /**
+     * Whether a key value is a processing marker. The bare "processing"
+     * marker of earlier versions counts too.
+     */
+    private static boolean isProcessing(String value) {
+        return value != null && (value.startsWith(PROCESSING_PREFIX) || PROCESSING.equals(value));
+    }
+
+    private void publish(String redisKey) {
+        // Wake waiters on this node right away; the others hear it on the channel
+        signal(redisKey);
+        redisTemplate.convertAndSend(channel, redisKey);
+    }
+
+    private void signal(String redisKey) {
+        CompletableFuture<Void> completion = completions.remove(redisKey);
+        if (completion != null) {
+            completion.complete(null);
+        }
+    }
+
+    private String serialize(Object result) throws JsonProcessingException {
+        StoredResponse stored = result instanceof ResponseEntity<?> entity
+                ? new StoredResponse(entity.getStatusCode().value(), objectMapper.writeValueAsString(entity.getBody()))
+                : new StoredResponse(null, objectMapper.writeValueAsString(result));
+        return objectMapper.writeValueAsString(stored);
+    }
+
+    /**
+     * Rebuild the endpoint's return value from a stored response. The body is
+     * read back as the declared body type, so the response goes through the
+     * same message conversion (and Result wrapping) as the original.
+     */
+    private Object replay(Method method, String value) throws JsonProcessingException {
+        StoredResponse stored = objectMapper.readValue(value, StoredResponse.class);
+        ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+
+        if (ResponseEntity.class.isAssignableFrom(method.getReturnType())) {
+            JavaType bodyType = objectMapper.constructType(returnType.getGeneric(0).getType());
+            Object body = objectMapper.readValue(stored.body(), bodyType);
+            return ResponseEntity.status(HttpStatusCode.valueOf(stored.status() != null ? stored.status() : 200))
+                    .body(body);
+        }
+        return objectMapper.readValue(stored.body(), objectMapper.constructType(returnType.getType()));
+    }
+
+    /**
+     * Keys are scoped to the caller, so one user's key never replays another
+     * user's response.
+     */
+    private String buildKey(Idempotent idempotent, String idempotencyKey) {
+        return SecurityUtils.getCurrentUserId()
+                .map(userId -> idempotent.keyPrefix() + userId + ":" + idempotencyKey)
+                .orElse(idempotent.keyPrefix() + idempotencyKey);
     }
 
     private Optional<HttpServletRequest> getRequest() {
@@ -66,4 +318,13 @@ public class IdempotentAspect {
                 .map(ServletRequestAttributes.class::cast)
                 .map(ServletRequestAttributes::getRequest);
     }
+
+    /**
+     * Response of a completed request.
+     *
+     * @param status HTTP status for ResponseEntity results, null otherwise
+     * @param body   Body serialized as JSON
+     */
+    record StoredResponse(Integer status, String body) {
+    }
 }
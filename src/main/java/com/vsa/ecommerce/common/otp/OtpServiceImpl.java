@@ -1,12 +1,17 @@
 package com.vsa.ecommerce.common.otp;
 
+import com.vsa.ecommerce.common.util.RedisScriptUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -24,6 +29,9 @@ import java.util.concurrent.TimeUnit;
  * - Automatic expiration (TTL-based)
  * - Secure random generation
  * - Attempt limiting (prevent brute force)
+ * - Storing and verifying are each one preloaded Lua script (EVALSHA): one
+ * round trip, and no race between the attempt check, the comparison and the
+ * counter update
  */
 @Slf4j
 @Service
@@ -35,6 +43,41 @@ public class OtpServiceImpl implements OtpService {
     private static final int DEFAULT_OTP_LENGTH = 6;
     private static final int MAX_VERIFICATION_ATTEMPTS = 5;
     private static final int OTP_TTL_MINUTES = 5;
+    private static final long ATTEMPT_TTL_SECONDS = TimeUnit.MINUTES.toSeconds(15);
+
+    private static final long VERIFY_VALID = 1;
+    private static final long VERIFY_INVALID = 0;
+    private static final long VERIFY_ATTEMPTS_EXCEEDED = -1;
+
+    /**
+     * KEYS[1] OTP, KEYS[2] attempt counter; ARGV[1] OTP, ARGV[2] TTL in
+     * milliseconds. Stores the OTP and resets the attempt counter.
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+                    + "redis.call('DEL', KEYS[2]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] OTP, KEYS[2] attempt counter; ARGV[1] code, ARGV[2] max
+     * attempts, ARGV[3] attempt counter TTL in seconds.
+     * Returns 1 (valid, both keys deleted), 0 (wrong or missing code, attempt
+     * counted) or -1 (attempts exceeded).
+     */
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(
+            "local attempts = tonumber(redis.call('GET', KEYS[2]) or '0') "
+                    + "if attempts >= tonumber(ARGV[2]) then return -1 end "
+                    + "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('DEL', KEYS[1], KEYS[2]) return 1 end "
+                    + "if redis.call('INCR', KEYS[2]) == 1 then redis.call('EXPIRE', KEYS[2], ARGV[3]) end "
+                    + "return 0",
+            Long.class);
+
+    @PostConstruct
+    public void preloadScripts() {
+        RedisScriptUtil.preload(redisTemplate, SAVE_SCRIPT, VERIFY_SCRIPT);
+    }
 
     /**
      * Generate and store an OTP with default expiration.
@@ -65,11 +108,8 @@ public class OtpServiceImpl implements OtpService {
     }
 
     private void saveOtp(String key, String otp, Duration ttl, String attemptKey) {
-        // Store OTP with TTL
-        redisTemplate.opsForValue().set(key, otp, ttl);
-
-        // Reset attempt counter
-        redisTemplate.delete(attemptKey);
+        // Store OTP with TTL and reset attempt counter
+        redisTemplate.execute(SAVE_SCRIPT, List.of(key, attemptKey), otp, String.valueOf(ttl.toMillis()));
     }
 
     /**
@@ -88,35 +128,20 @@ public class OtpServiceImpl implements OtpService {
         String attemptKey = buildAttemptKey(identifier);
 
         try {
-            // Check attempt limit
-            if (!isAttemptAllowed(attemptKey)) {
-                log.warn("OTP verification attempts exceeded for: {}", identifier);
-                return false;
-            }
-
-            // Get stored OTP
-            String storedOtp = redisTemplate.opsForValue().get(key);
-
-            if (storedOtp == null) {
-                log.debug("OTP not found or expired for: {}", identifier);
-                incrementAttempt(attemptKey);
-                return false;
-            }
-
-            // Verify OTP
-            boolean isValid = storedOtp.equals(code);
+            // Check attempt limit, compare and delete or count the attempt
+            Long result = redisTemplate.execute(VERIFY_SCRIPT, List.of(key, attemptKey), code,
+                    String.valueOf(MAX_VERIFICATION_ATTEMPTS), String.valueOf(ATTEMPT_TTL_SECONDS));
 
-            if (isValid) {
-                // Delete OTP after successful verification
-                redisTemplate.delete(key);
-                redisTemplate.delete(attemptKey);
+            if (result != null && result == VERIFY_VALID) {
                 log.info("OTP verified successfully for: {}", identifier);
-            } else {
-                incrementAttempt(attemptKey);
-                log.warn("Invalid OTP attempt for: {}", identifier);
+                return true;
             }
-
-            return isValid;
+            if (result != null && result == VERIFY_ATTEMPTS_EXCEEDED) {
+                log.warn("OTP verification attempts exceeded for: {}", identifier);
+            } else if (result != null && result == VERIFY_INVALID) {
+                log.warn("Invalid or expired OTP attempt for: {}", identifier);
+            }
+            return false;
 
         } catch (Exception e) {
             log.error("Error verifying OTP for: {}", identifier, e);
@@ -169,30 +194,6 @@ public class OtpServiceImpl implements OtpService {
         return otp.toString();
     }
 
-    private boolean isAttemptAllowed(String attemptKey) {
-        try {
-            String attempts = redisTemplate.opsForValue().get(attemptKey);
-            if (attempts == null) {
-                return true;
-            }
-            return Integer.parseInt(attempts) < MAX_VERIFICATION_ATTEMPTS;
-        } catch (Exception e) {
-            return true; // Fail open
-        }
-    }
-
-    private void incrementAttempt(String attemptKey) {
-        try {
-            Long count = redisTemplate.opsForValue().increment(attemptKey);
-            if (count != null && count == 1) {
-                // Set expiration on first attempt (15 minutes)
-                redisTemplate.expire(attemptKey, 15, TimeUnit.MINUTES);
-            }
-        } catch (Exception e) {
-            log.error("Error incrementing OTP attempt counter", e);
-        }
-    }
-
     private String buildOtpKey(String identifier) {
         return String.format("otp:%s", identifier);
     }
@@ -30,4 +30,11 @@ public @interface RateLimit {
      * Time unit for the window.
      */
     TimeUnit unit() default TimeUnit.MINUTES;
+
+    /**
+     * Decide most requests from a node-local bucket that leases permits from
+     * Redis in blocks (see {@link RateLimitingService#allowRequestLeased}).
+     * Suited to high limits on hot endpoints; small limits always use Redis.
+     */
+    boolean localLease() default false;
 }
@@ -34,7 +34,9 @@ public class RateLimitAspect {
 
         Duration window = Duration.of(rateLimit.window(), rateLimit.unit().toChronoUnit());
 
-        boolean allowed = rateLimitingService.allowRequest(identifier, rateLimit.maxRequests(), window);
+        boolean allowed = rateLimit.localLease()
+                ? rateLimitingService.allowRequestLeased(identifier, rateLimit.maxRequests(), window)
+                : rateLimitingService.allowRequest(identifier, rateLimit.maxRequests(), window);
 
         if (!allowed) {
             log.warn("Rate limit exceeded for identifier: {}", identifier);
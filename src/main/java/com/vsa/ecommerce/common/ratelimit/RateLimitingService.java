@@ -1,12 +1,23 @@
 package com.vsa.ecommerce.common.ratelimit;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vsa.ecommerce.common.util.RedisScriptUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Redis-based rate limiting service using sliding window algorithm.
@@ -18,16 +29,99 @@ import java.util.concurrent.TimeUnit;
  * - Resource access throttling
  * <p>
  * Algorithm: Sliding Window Counter
- * - More accurate than fixed window
- * - Lower memory footprint than sliding log
+ * - More accurate than fixed window: the previous window's count is weighted
+ * by how much of it still overlaps the sliding window, so there is no 2x
+ * burst at window boundaries
+ * - Lower memory footprint than sliding log: one hash per identifier
+ * (window index, current count, previous count)
+ * - Check and increment are one Lua script (one round trip, atomic)
+ * - Windows follow the Redis server clock (TIME), so nodes with skewed clocks
+ * agree on them
+ * <p>
+ * Local lease mode ({@link #allowRequestLeased}): each node keeps an
+ * in-process token bucket per identifier and leases permits from the Redis
+ * window in blocks, so most requests are decided without a network hop.
+ * Leased permits are counted globally before use, so the limit is never
+ * exceeded. Permits left when a lease expires are refunded to their window
+ * by the node's next lease, and each block is sized from what the previous
+ * lease actually used (at most the configured block), so an identifier with
+ * few requests per node does not hold permits that other nodes need.
+ * <p>
+ * Configuration:
+ * - rate-limit.local-lease.enabled: Master switch for lease mode (default true)
+ * - rate-limit.local-lease.block-fraction: Largest lease block as a fraction of the
+ * limit; limits giving a block below 2 use the Redis check directly
+ * - rate-limit.local-lease.lease-ttl-ms: Lifetime of a leased block (capped at
+ * the window)
+ * - rate-limit.local-lease.denied-backoff-ms: After Redis refuses a lease, the
+ * node rejects locally for this long
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RateLimitingService {
 
+    /**
+     * KEYS[1] window hash; ARGV[1] limit, ARGV[2] permits wanted, ARGV[3]
+     * window in ms, ARGV[4] unused permits to refund, ARGV[5] window index they
+     * were granted in. The time is read from the server (effect replication,
+     * Redis 5+). Refunds are applied first, then up to the wanted permits are
+     * granted. Returns the permits granted (0 if the window is full) and the
+     * current window index.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local limit = tonumber(ARGV[1]) "
+                    + "local permits = tonumber(ARGV[2]) "
+                    + "local window = tonumber(ARGV[3]) "
+                    + "local refund = tonumber(ARGV[4]) "
+                    + "local refundIndex = tonumber(ARGV[5]) "
+                    + "local time = redis.call('TIME') "
+                    + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+                    + "local index = math.floor(now / window) "
+                    + "local state = redis.call('HMGET', KEYS[1], 'w', 'c', 'p') "
+                    + "local stored = tonumber(state[1]) "
+                    + "local current = tonumber(state[2]) or 0 "
+                    + "local previous = tonumber(state[3]) or 0 "
+                    + "if stored ~= index then "
+                    + "if stored == index - 1 then previous = current else previous = 0 end "
+                    + "current = 0 end "
+                    + "if refund > 0 then "
+                    + "if refundIndex == index then current = math.max(current - refund, 0) "
+                    + "elseif refundIndex == index - 1 then previous = math.max(previous - refund, 0) end "
+                    + "end "
+                    + "local used = previous * (window - (now - index * window)) / window + current "
+                    + "local granted = math.max(math.min(permits, math.floor(limit - used)), 0) "
+                    + "if granted > 0 or refund > 0 then "
+                    + "redis.call('HSET', KEYS[1], 'w', index, 'c', current + granted, 'p', previous) "
+                    + "redis.call('PEXPIRE', KEYS[1], window * 2) end "
+                    + "return {granted, index}",
+            List.class);
+
     private final RedisTemplate<String, String> redisTemplate;
 
+    private final Cache<String, LeasedBucket> leasedBuckets = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    @Value("${rate-limit.local-lease.enabled:true}")
+    private boolean leaseEnabled;
+
+    @Value("${rate-limit.local-lease.block-fraction:0.1}")
+    private double leaseBlockFraction;
+
+    @Value("${rate-limit.local-lease.lease-ttl-ms:1000}")
+    private long leaseTtlMs;
+
+    @Value("${rate-limit.local-lease.denied-backoff-ms:100}")
+    private long deniedBackoffMs;
+
+    @PostConstruct
+    public void preloadScripts() {
+        RedisScriptUtil.preload(redisTemplate, ACQUIRE_SCRIPT);
+    }
+
     /**
      * Check if request is allowed based on rate limit.
      * Increments counter if allowed.
@@ -43,29 +137,14 @@ public class RateLimitingService {
             return false;
         }
 
-        String key = buildRateLimitKey(identifier);
-
         try {
-            // Increment counter
-            Long currentCount = redisTemplate.opsForValue().increment(key);
-
-            if (currentCount == null) {
-                log.error("Failed to increment rate limit counter for: {}", identifier);
-                return true; // Fail open - allow request if Redis operation fails
-            }
-
-            // Set expiration on first request
-            if (currentCount == 1) {
-                redisTemplate.expire(key, window.getSeconds(), TimeUnit.SECONDS);
-            }
-
-            boolean allowed = currentCount <= maxRequests;
+            boolean allowed = acquire(buildRateLimitKey(identifier), maxRequests, window, 1, 0, 0)
+                    .granted() > 0;
 
             if (!allowed) {
-                log.warn("Rate limit exceeded for: {} (count: {}, max: {})", identifier, currentCount, maxRequests);
+                log.warn("Rate limit exceeded for: {} (max: {} per {})", identifier, maxRequests, window);
             } else {
-                log.debug("Rate limit check passed for: {} (count: {}, max: {})", identifier, currentCount,
-                        maxRequests);
+                log.debug("Rate limit check passed for: {} (max: {} per {})", identifier, maxRequests, window);
             }
 
             return allowed;
@@ -77,13 +156,82 @@ public class RateLimitingService {
     }
 
     /**
-     * Get remaining requests for an identifier.
+     * Check a request against the local leased bucket, leasing a new block of
+     * permits from Redis only when the bucket is empty or its lease expired.
+     * Falls back to {@link #allowRequest} when lease mode is disabled or the
+     * limit is too small to split into blocks.
+     * <p>
+     * Leasing holds the bucket's lock across the Redis call; it is a
+     * {@link ReentrantLock}, so waiting virtual threads unmount instead of
+     * pinning their carrier.
+     *
+     * @param identifier  Unique identifier (e.g., user ID, IP address)
+     * @param maxRequests Maximum number of requests allowed (cluster-wide)
+     * @param window      Time window duration
+     * @return true if request is allowed, false if rate limit exceeded
+     */
+    public boolean allowRequestLeased(String identifier, int maxRequests, Duration window) {
+        int blockSize = (int) (maxRequests * leaseBlockFraction);
+        if (!leaseEnabled || blockSize < 2 || identifier == null || identifier.isBlank()) {
+            return allowRequest(identifier, maxRequests, window);
+        }
+
+        String key = buildRateLimitKey(identifier);
+        LeasedBucket bucket = leasedBuckets.get(key, k -> new LeasedBucket());
+        if (bucket.tryTake(System.currentTimeMillis())) {
+            return true;
+        }
+
+        bucket.lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (bucket.tryTake(now)) {
+                return true;
+            }
+            if (now < bucket.deniedUntilMillis) {
+                return false;
+            }
+
+            // The lease is used up or expired: refund what is left of it and size the
+            // next block from what it served
+            long unused = bucket.drain();
+            long used = bucket.leasedPermits - unused;
+            int permits = (int) Math.max(1, Math.min(blockSize, 2 * used));
+
+            Grant grant;
+            try {
+                grant = acquire(key, maxRequests, window, permits, unused, bucket.leaseWindowIndex);
+            } catch (Exception e) {
+                log.error("Error leasing rate limit permits for: {}", identifier, e);
+                return true; // Fail open - allow request on error
+            }
+
+            bucket.leasedPermits = grant.granted();
+            bucket.leaseWindowIndex = grant.windowIndex();
+            if (grant.granted() <= 0) {
+                bucket.deniedUntilMillis = now + deniedBackoffMs;
+                log.warn("Rate limit exceeded for: {} (max: {} per {})", identifier, maxRequests, window);
+                return false;
+            }
+
+            // This request takes one permit of the new lease
+            bucket.refill(grant.granted() - 1, now + Math.min(leaseTtlMs, window.toMillis()));
+            log.debug("Leased {} rate limit permits for: {} ({} refunded)", grant.granted(), identifier, unused);
+            return true;
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    /**
+     * Get remaining requests for an identifier in the current sliding window.
      *
      * @param identifier  Unique identifier
      * @param maxRequests Maximum number of requests allowed
+     * @param window      Time window duration
      * @return Number of remaining requests, or maxRequests if no data
      */
-    public int getRemainingRequests(String identifier, int maxRequests) {
+    public int getRemainingRequests(String identifier, int maxRequests, Duration window) {
         if (identifier == null || identifier.isBlank()) {
             return maxRequests;
         }
@@ -91,13 +239,24 @@ public class RateLimitingService {
         String key = buildRateLimitKey(identifier);
 
         try {
-            String value = redisTemplate.opsForValue().get(key);
-            if (value == null) {
+            List<Object> state = redisTemplate.opsForHash().multiGet(key, List.of("w", "c", "p"));
+            if (state.get(0) == null) {
                 return maxRequests;
             }
 
-            int currentCount = Integer.parseInt(value);
-            return Math.max(0, maxRequests - currentCount);
+            long windowMs = window.toMillis();
+            long now = redisTimeMillis();
+            long index = now / windowMs;
+            long stored = Long.parseLong(state.get(0).toString());
+            long current = Long.parseLong(state.get(1).toString());
+            long previous = Long.parseLong(state.get(2).toString());
+            if (stored != index) {
+                previous = stored == index - 1 ? current : 0;
+                current = 0;
+            }
+
+            double used = previous * (double) (windowMs - (now - index * windowMs)) / windowMs + current;
+            return (int) Math.max(0, Math.floor(maxRequests - used));
 
         } catch (Exception e) {
             log.error("Error getting remaining requests for: {}", identifier, e);
@@ -107,6 +266,7 @@ public class RateLimitingService {
 
     /**
      * Reset rate limit for an identifier.
+     * Leases already held by other nodes run out on their own.
      *
      * @param identifier Unique identifier
      */
@@ -117,10 +277,90 @@ public class RateLimitingService {
 
         String key = buildRateLimitKey(identifier);
         redisTemplate.delete(key);
+        leasedBuckets.invalidate(key);
         log.info("Rate limit reset for: {}", identifier);
     }
 
+    private Grant acquire(String key, int maxRequests, Duration window, int permits, long refund,
+            long refundWindowIndex) {
+        @SuppressWarnings("unchecked")
+        List<Object> result = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(key),
+                String.valueOf(maxRequests), String.valueOf(permits), String.valueOf(window.toMillis()),
+                String.valueOf(refund), String.valueOf(refundWindowIndex));
+        if (result == null || result.size() < 2) {
+            throw new IllegalStateException("Rate limit script returned no result");
+        }
+        return new Grant(((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue());
+    }
+
+    /**
+     * Redis server time, the clock the acquire script uses for windows.
+     */
+    private long redisTimeMillis() {
+        Long time = redisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().time());
+        return time != null ? time : System.currentTimeMillis();
+    }
+
+    /**
+     * Sliding-window hashes live under their own prefix, so fixed-window
+     * counters left by earlier versions (plain strings) are never read as one.
+     */
     private String buildRateLimitKey(String identifier) {
-        return String.format("rate-limit:%s", identifier);
+        return String.format("rate-limit:sw:%s", identifier);
+    }
+
+    /**
+     * Permits granted by the acquire script and the window they count in.
+     */
+    private record Grant(long granted, long windowIndex) {
+    }
+
+    /**
+     * Permits leased by this node for one identifier.
+     */
+    private static final class LeasedBucket {
+
+        private final AtomicLong tokens = new AtomicLong();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long expiresAtMillis;
+
+        /**
+         * Guarded by the lock: size and window index of the current lease, and
+         * the end of a local rejection period.
+         */
+        private long leasedPermits;
+        private long leaseWindowIndex;
+        private long deniedUntilMillis;
+
+        private boolean tryTake(long nowMillis) {
+            if (nowMillis >= expiresAtMillis) {
+                return false;
+            }
+            long available = tokens.get();
+            while (available > 0) {
+                if (tokens.compareAndSet(available, available - 1)) {
+                    return true;
+                }
+                available = tokens.get();
+            }
+            return false;
+        }
+
+        /**
+         * Take all tokens left; a concurrent {@link #tryTake} gets either a
+         * token or none, never one that is also refunded.
+         */
+        private long drain() {
+            return tokens.getAndSet(0);
+        }
+
+        /**
+         * Tokens are published before the expiry, so a reader that sees the
+         * new expiry also sees the new tokens.
+         */
+        private void refill(long permits, long expiresAtMillis) {
+            tokens.set(permits);
+            this.expiresAtMillis = expiresAtMillis;
+        }
     }
 }
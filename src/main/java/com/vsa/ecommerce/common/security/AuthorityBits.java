@@ -0,0 +1,138 @@
+package com.vsa.ecommerce.common.security;
+
+import com.vsa.ecommerce.domain.enums.AppPermission;
+import com.vsa.ecommerce.domain.enums.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Authorities as a 64-bit mask.
+ * <p>
+ * Every {@link UserRole} and {@link AppPermission} owns a fixed bit (roles
+ * 0-15, permissions 16-62), so a principal's authorities are one {@code long}
+ * and an authority check is a hash lookup of the authority name plus a bit
+ * test.
+ * <p>
+ * Authority names:
+ * - Roles: ROLE_{name}, e.g. ROLE_ADMIN
+ * - Permissions: {resource}:{action}, e.g. order:read
+ * <p>
+ * Spring Security still sees {@link GrantedAuthority} collections; they are
+ * built once per distinct mask and shared.
+ */
+public final class AuthorityBits {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * Authority name -> single-bit mask.
+     */
+    private static final Map<String, Long> MASKS = new HashMap<>();
+
+    /**
+     * Mask -> shared, immutable authority set. Bounded by the role and
+     * permission combinations actually assigned.
+     */
+    private static final ConcurrentMap<Long, Set<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            register(ROLE_PREFIX + role.name(), role.getBit());
+        }
+        for (AppPermission permission : AppPermission.values()) {
+            register(permission.getName(), permission.getBit());
+        }
+    }
+
+    private AuthorityBits() {
+    }
+
+    public static long of(UserRole role) {
+        return 1L << role.getBit();
+    }
+
+    public static long of(AppPermission permission) {
+        return 1L << permission.getBit();
+    }
+
+    /**
+     * Mask of an authority name.
+     *
+     * @param authority Authority name (ROLE_ADMIN, order:read)
+     * @return single-bit mask, or 0 for names without a bit
+     */
+    public static long of(String authority) {
+        Long mask = authority != null ? MASKS.get(authority) : null;
+        return mask != null ? mask : 0L;
+    }
+
+    /**
+     * Mask of a role name, with or without the ROLE_ prefix.
+     */
+    public static long ofRole(String role) {
+        if (role == null) {
+            return 0L;
+        }
+        return of(role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role);
+    }
+
+    /**
+     * Mask of a set of authority names; names without a bit are ignored.
+     */
+    public static long of(Collection<String> authorities) {
+        long bits = 0L;
+        for (String authority : authorities) {
+            bits |= of(authority);
+        }
+        return bits;
+    }
+
+    /**
+     * Check that every bit of {@code mask} is set. An empty mask (unknown
+     * authority) never matches.
+     */
+    public static boolean has(long bits, long mask) {
+        return mask != 0L && (bits & mask) == mask;
+    }
+
+    /**
+     * Authorities of a mask, as a shared immutable set.
+     */
+    public static Set<GrantedAuthority> toAuthorities(long bits) {
+        return AUTHORITIES.computeIfAbsent(bits, AuthorityBits::buildAuthorities);
+    }
+
+    private static Set<GrantedAuthority> buildAuthorities(long bits) {
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (UserRole role : UserRole.values()) {
+            if (has(bits, of(role))) {
+                authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role.name()));
+            }
+        }
+        for (AppPermission permission : AppPermission.values()) {
+            if (has(bits, of(permission))) {
+                authorities.add(new SimpleGrantedAuthority(permission.getName()));
+            }
+        }
+        return Set.copyOf(authorities);
+    }
+
+    private static void register(String authority, int bit) {
+        if (bit < 0 || bit > 62) {
+            throw new IllegalStateException("Authority bit out of range for " + authority + ": " + bit);
+        }
+        long mask = 1L << bit;
+        if (MASKS.containsValue(mask)) {
+            throw new IllegalStateException("Authority bit " + bit + " assigned twice (" + authority + ")");
+        }
+        MASKS.put(authority, mask);
+    }
+}
@@ -0,0 +1,184 @@
+package com.vsa.ecommerce.common.security;
+
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Method security expression root evaluating role and authority checks as bit
+ * tests on a {@link UserPrincipal}'s {@link AuthorityBits} mask. Other
+ * principals (e.g. anonymous) and all other operations go to the standard
+ * root.
+ * <p>
+ * Adds {@code hasPermission(permission)} for global permissions, e.g.
+ * {@code @PreAuthorize("hasPermission('order:read')")}.
+ * <p>
+ * Exposes the same properties as {@code SecurityExpressionRoot}
+ * ({@code principal}, {@code authentication} and the permission names
+ * {@code read}, {@code write}, {@code create}, {@code delete}, {@code admin}),
+ * so expressions such as {@code #userId == principal.id} keep working.
+ */
+public class AuthorityBitsExpressionRoot implements MethodSecurityExpressionOperations {
+
+    /**
+     * Permission names, as on {@code SecurityExpressionRoot}.
+     */
+    public final String read = "read";
+    public final String write = "write";
+    public final String create = "create";
+    public final String delete = "delete";
+    public final String admin = "administration";
+
+    private final MethodSecurityExpressionOperations delegate;
+    private final String rolePrefix;
+
+    public AuthorityBitsExpressionRoot(MethodSecurityExpressionOperations delegate, String rolePrefix) {
+        this.delegate = delegate;
+        this.rolePrefix = rolePrefix != null ? rolePrefix : "";
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        UserPrincipal principal = userPrincipal();
+        if (principal == null) {
+            return delegate.hasAuthority(authority);
+        }
+        return AuthorityBits.has(principal.getAuthorityBits(), AuthorityBits.of(authority));
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        UserPrincipal principal = userPrincipal();
+        if (principal == null) {
+            return delegate.hasAnyAuthority(authorities);
+        }
+        for (String authority : authorities) {
+            if (AuthorityBits.has(principal.getAuthorityBits(), AuthorityBits.of(authority))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        UserPrincipal principal = userPrincipal();
+        if (principal == null) {
+            return delegate.hasRole(role);
+        }
+        return AuthorityBits.has(principal.getAuthorityBits(), AuthorityBits.of(withRolePrefix(role)));
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        UserPrincipal principal = userPrincipal();
+        if (principal == null) {
+            return delegate.hasAnyRole(roles);
+        }
+        for (String role : roles) {
+            if (AuthorityBits.has(principal.getAuthorityBits(), AuthorityBits.of(withRolePrefix(role)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Global permission check, see {@link AuthorityBitsPermissionEvaluator}.
+     */
+    public boolean hasPermission(Object permission) {
+        return delegate.hasPermission(null, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return delegate.getAuthentication();
+    }
+
+    /**
+     * Principal of the current authentication; null if there is none.
+     */
+    public Object getPrincipal() {
+        Authentication authentication = delegate.getAuthentication();
+        return authentication != null ? authentication.getPrincipal() : null;
+    }
+
+    @Override
+    public boolean permitAll() {
+        return delegate.permitAll();
+    }
+
+    @Override
+    public boolean denyAll() {
+        return delegate.denyAll();
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        delegate.setFilterObject(filterObject);
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return delegate.getFilterObject();
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        delegate.setReturnObject(returnObject);
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return delegate.getReturnObject();
+    }
+
+    @Override
+    public Object getThis() {
+        return delegate.getThis();
+    }
+
+    private UserPrincipal userPrincipal() {
+        Authentication authentication = delegate.getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+
+    private String withRolePrefix(String role) {
+        if (role == null || rolePrefix.isEmpty() || role.startsWith(rolePrefix)) {
+            return role;
+        }
+        return rolePrefix + role;
+    }
+}
@@ -0,0 +1,46 @@
+package com.vsa.ecommerce.common.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Method security expression handler whose expression root answers
+ * {@code hasRole}, {@code hasAnyRole}, {@code hasAuthority},
+ * {@code hasAnyAuthority} and {@code hasPermission} with bit tests on the
+ * {@link UserPrincipal}'s authority mask, instead of building and scanning a
+ * set of authority strings on every invocation.
+ * <p>
+ * Everything else (isAuthenticated, filter/return objects, bean references)
+ * is handled by the standard root.
+ */
+public class AuthorityBitsMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    public AuthorityBitsMethodSecurityExpressionHandler() {
+        setPermissionEvaluator(new AuthorityBitsPermissionEvaluator());
+    }
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication,
+            MethodInvocation invocation) {
+        EvaluationContext context = super.createEvaluationContext(authentication, invocation);
+        if (context instanceof StandardEvaluationContext standardContext
+                && standardContext.getRootObject().getValue() instanceof MethodSecurityExpressionOperations root
+                && !(root instanceof AuthorityBitsExpressionRoot)) {
+            standardContext.setRootObject(new AuthorityBitsExpressionRoot(root, getDefaultRolePrefix()));
+        }
+        return context;
+    }
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication,
+            MethodInvocation invocation) {
+        return new AuthorityBitsExpressionRoot(super.createSecurityExpressionRoot(authentication, invocation),
+                getDefaultRolePrefix());
+    }
+}
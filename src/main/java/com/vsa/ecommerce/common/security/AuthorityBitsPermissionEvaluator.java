@@ -0,0 +1,62 @@
+package com.vsa.ecommerce.common.security;
+
+import com.vsa.ecommerce.domain.enums.AppPermission;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serializable;
+
+/**
+ * {@link PermissionEvaluator} backing {@code hasPermission(...)} in
+ * {@code @PreAuthorize} expressions with a bit test on the principal's
+ * {@link AuthorityBits} mask.
+ * <p>
+ * Permissions are global (resource:action), not per object, so the target is
+ * not consulted:
+ * - hasPermission(#order, 'order:read') or hasPermission(#order,
+ * T(...AppPermission).ORDER_READ)
+ * - hasPermission(#id, 'order', 'read'): resource and action given separately
+ */
+public class AuthorityBitsPermissionEvaluator implements PermissionEvaluator {
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        return hasPermission(authentication, maskOf(permission));
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType,
+            Object permission) {
+        if (permission instanceof String action && targetType != null && action.indexOf(':') < 0) {
+            return hasPermission(authentication, AuthorityBits.of(targetType + ":" + action));
+        }
+        return hasPermission(authentication, maskOf(permission));
+    }
+
+    /**
+     * Bit test for a {@link UserPrincipal}; other principals fall back to a scan
+     * of their granted authorities.
+     */
+    static boolean hasPermission(Authentication authentication, long mask) {
+        if (authentication == null || mask == 0L) {
+            return false;
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return AuthorityBits.has(principal.getAuthorityBits(), mask);
+        }
+
+        long granted = 0L;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            granted |= AuthorityBits.of(authority.getAuthority());
+        }
+        return AuthorityBits.has(granted, mask);
+    }
+
+    private static long maskOf(Object permission) {
+        if (permission instanceof AppPermission appPermission) {
+            return AuthorityBits.of(appPermission);
+        }
+        return permission != null ? AuthorityBits.of(permission.toString()) : 0L;
+    }
+}
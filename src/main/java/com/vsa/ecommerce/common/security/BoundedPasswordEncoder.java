@@ -0,0 +1,154 @@
+package com.vsa.ecommerce.common.security;
+
+import com.vsa.ecommerce.common.exception.BusinessException;
+import com.vsa.ecommerce.common.exception.BusinessStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PasswordEncoder} decorator that runs the delegate (BCrypt) on a
+ * dedicated, bounded pool instead of the calling request thread.
+ * <p>
+ * BCrypt is pure CPU work (~100ms at strength 12). Capping concurrent hashes
+ * at the core count keeps a login or registration storm from taking every
+ * core away from other requests; callers wait on the pool without burning
+ * CPU. When the queue is full the call fails fast with
+ * {@link BusinessStatus#TOO_MANY_REQUESTS} instead of piling up.
+ * <p>
+ * Metrics:
+ * - security.password.hashing.queue.depth: Tasks waiting for a worker
+ * - security.password.hashing.active: Tasks being hashed
+ * - security.password.hashing.latency{operation=encode|matches}: Hashing time
+ * (percentile histogram)
+ * - security.password.hashing.wait: Time queued before a worker picked the task
+ * - security.password.hashing.rejected: Calls rejected because of overload
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param delegate      Encoder doing the actual hashing
+     * @param poolSize      Worker threads (0 = available processors)
+     * @param queueCapacity Calls allowed to wait for a worker
+     * @param meterRegistry Registry for the hashing metrics
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = latencyTimer("encode", meterRegistry);
+        this.matchesTimer = latencyTimer("matches", meterRegistry);
+        this.waitTimer = Timer.builder("security.password.hashing.wait")
+                .description("Time a password hashing call waits for a worker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("security.password.hashing.rejected")
+                .description("Password hashing calls rejected because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing calls waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing calls being processed")
+                .register(meterRegistry);
+
+        log.info("Password hashing pool configured - Threads: {}, Queue capacity: {}", threads,
+                Math.max(1, queueCapacity));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Cheap string check on the encoded hash, kept on the caller thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Timer latencyTimer, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    latencyTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing pool saturated ({} queued), rejecting call", executor.getQueue().size());
+            throw new BusinessException(BusinessStatus.TOO_MANY_REQUESTS,
+                    "Server is busy, please try again later");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Timer latencyTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("security.password.hashing.latency")
+                .description("Password hashing time on the hashing pool")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
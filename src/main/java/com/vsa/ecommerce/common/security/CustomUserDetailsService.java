@@ -1,8 +1,11 @@
 package com.vsa.ecommerce.common.security;
 
+import com.vsa.ecommerce.common.cache.CacheKeyConvention;
+import com.vsa.ecommerce.common.cache.hybrid.HybridCacheService;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.common.exception.BusinessException;
-import com.vsa.ecommerce.domain.entity.User;
+import com.vsa.ecommerce.common.security.repository.SecurityUserRepository;
+import com.vsa.ecommerce.common.security.session.RefreshSessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,31 +14,93 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 /**
- * Custom UserDetailsService for loading user from database.
+ * Custom UserDetailsService for loading users.
+ * <p>
+ * Principals are cached in the hybrid cache as {@link UserPrincipalSnapshot}s
+ * under two keys, by email and by id, so refresh and the JWT filter normally
+ * make no database call. Unknown emails and ids are cached as absent (negative
+ * cache). Snapshots carry no password hash, so login
+ * ({@link #loadUserByUsername(String)}) always reads credentials from the
+ * database.
+ * <p>
+ * Slices that change anything a principal carries (password, status, roles,
+ * names) or create a user must call {@link #evictAfterCommit(Long, String)}.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final com.vsa.ecommerce.common.security.repository.SecurityUserRepository userRepository;
+    private static final String EMAIL_PREFIX = "email:";
+    private static final String ID_PREFIX = "id:";
 
+    private final SecurityUserRepository userRepository;
+    private final HybridCacheService hybridCache;
+    private final CacheKeyConvention keyConvention;
+    private final RefreshSessionService refreshSessionService;
+
+    /**
+     * Load a user with credentials for authentication; never cached.
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        log.debug("Loading user by email: {}", email);
+        log.debug("Loading user credentials by email: {}", email);
 
-        User user = userRepository.findByEmail(email)
+        if (email == null) {
+            throw new UsernameNotFoundException("User not found with email: null");
+        }
+        return userRepository.findByEmail(email)
+                .map(UserPrincipal::create)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    }
 
-        return UserPrincipal.create(user);
+    /**
+     * Load a user's principal, without password, through the cache.
+     */
+    public UserPrincipal loadPrincipalByEmail(String email) {
+        log.debug("Loading user by email: {}", email);
+
+        if (email == null) {
+            throw new UsernameNotFoundException("User not found with email: null");
+        }
+        return hybridCache.getOrComputeIfPresent(emailKey(email), UserPrincipalSnapshot.class,
+                () -> userRepository.findByEmail(email).map(UserPrincipal::create).map(UserPrincipalSnapshot::of))
+                .map(UserPrincipalSnapshot::toPrincipal)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
     public UserDetails loadUserById(Long id) {
         log.debug("Loading user by ID: {}", id);
 
-        User user = userRepository.findById(id)
+        return hybridCache.getOrComputeIfPresent(idKey(id), UserPrincipalSnapshot.class,
+                () -> userRepository.findById(id).map(UserPrincipal::create).map(UserPrincipalSnapshot::of))
+                .map(UserPrincipalSnapshot::toPrincipal)
                 .orElseThrow(() -> new BusinessException(BusinessStatus.NOT_FOUND, "User not found with id: " + id));
+    }
+
+    /**
+     * Evict a user's cached principal (both keys, and the copy kept with the
+     * refresh sessions) once the current transaction commits, or immediately
+     * without a transaction.
+     *
+     * @param userId User ID (null for a user not yet persisted)
+     * @param email  User email
+     */
+    public void evictAfterCommit(Long userId, String email) {
+        if (userId != null) {
+            hybridCache.evictAfterCommit(idKey(userId));
+            refreshSessionService.evictPrincipalAfterCommit(userId);
+        }
+        if (email != null) {
+            hybridCache.evictAfterCommit(emailKey(email));
+        }
+    }
+
+    private String emailKey(String email) {
+        return keyConvention.buildKey(CacheKeyConvention.RESOURCE_USER_PRINCIPAL, EMAIL_PREFIX + email);
+    }
 
-        return UserPrincipal.create(user);
+    private String idKey(Long id) {
+        return keyConvention.buildKey(CacheKeyConvention.RESOURCE_USER_PRINCIPAL, ID_PREFIX + id);
     }
 }
@@ -1,15 +1,24 @@
 package com.vsa.ecommerce.common.security;
 
+import com.vsa.ecommerce.common.util.RedisScriptUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service to track and manage failed login attempts in Redis.
  * Used for account lockout (brute-force protection).
+ * <p>
+ * Every operation is a single Redis round trip: recording a failure is one
+ * preloaded Lua script (EVALSHA), so concurrent failures can neither skip
+ * the lockout nor leave the counter without a TTL.
  */
 @Slf4j
 @Service
@@ -23,18 +32,34 @@ public class LoginAttemptService {
     private static final String ATTEMPT_PREFIX = "login_attempts:";
 
     /**
-     * Increment failed attempt count for an email.
+     * KEYS[1] attempts counter, KEYS[2] lockout flag; ARGV[1] max attempts,
+     * ARGV[2] window and lock time in seconds. Returns the attempt count.
      */
-    public void loginFailed(String email) {
-        String key = ATTEMPT_PREFIX + email;
-        Long count = redisTemplate.opsForValue().increment(key);
+    private static final RedisScript<Long> LOGIN_FAILED_SCRIPT = new DefaultRedisScript<>(
+            "local count = redis.call('INCR', KEYS[1]) "
+                    + "if count == 1 then redis.call('EXPIRE', KEYS[1], ARGV[2]) end "
+                    + "if count >= tonumber(ARGV[1]) then "
+                    + "redis.call('SET', KEYS[2], 'true', 'EX', ARGV[2]) end "
+                    + "return count",
+            Long.class);
 
-        if (count != null && count == 1) {
-            redisTemplate.expire(key, LOCK_TIME_MINUTES, TimeUnit.MINUTES);
-        }
+    @PostConstruct
+    public void preloadScripts() {
+        RedisScriptUtil.preload(redisTemplate, LOGIN_FAILED_SCRIPT);
+    }
+
+    /**
+     * Increment failed attempt count for an email, locking the account once
+     * the limit is reached.
+     */
+    public void loginFailed(String email) {
+        Long count = redisTemplate.execute(LOGIN_FAILED_SCRIPT,
+                List.of(ATTEMPT_PREFIX + email, LOCKOUT_PREFIX + email),
+                String.valueOf(MAX_ATTEMPTS), String.valueOf(TimeUnit.MINUTES.toSeconds(LOCK_TIME_MINUTES)));
 
         if (count != null && count >= MAX_ATTEMPTS) {
-            lockAccount(email);
+            log.error("Account locked for email: {} for {} minutes due to too many failed attempts", email,
+                    LOCK_TIME_MINUTES);
         }
 
         log.warn("Login failed for email: {} (Attempt {}/{})", email, count, MAX_ATTEMPTS);
@@ -42,10 +67,10 @@ public class LoginAttemptService {
 
     /**
      * Reset attempt count (called on successful login).
+     * One multi-key DEL, atomic on the server.
      */
     public void loginSucceeded(String email) {
-        redisTemplate.delete(ATTEMPT_PREFIX + email);
-        redisTemplate.delete(LOCKOUT_PREFIX + email);
+        redisTemplate.delete(List.of(ATTEMPT_PREFIX + email, LOCKOUT_PREFIX + email));
     }
 
     /**
@@ -54,10 +79,4 @@ public class LoginAttemptService {
     public boolean isBlocked(String email) {
         return Boolean.TRUE.equals(redisTemplate.hasKey(LOCKOUT_PREFIX + email));
     }
-
-    private void lockAccount(String email) {
-        redisTemplate.opsForValue().set(LOCKOUT_PREFIX + email, "true", LOCK_TIME_MINUTES, TimeUnit.MINUTES);
-        log.error("Account locked for email: {} for {} minutes due to too many failed attempts", email,
-                LOCK_TIME_MINUTES);
-    }
 }
@@ -63,7 +63,7 @@ public class SecurityUtils {
      */
     public static boolean hasRole(String role) {
         return getCurrentUserPrincipal()
-                .map(user -> user.getRoleNames().contains(role))
+                .map(user -> AuthorityBits.has(user.getAuthorityBits(), AuthorityBits.ofRole(role)))
                 .orElse(false);
     }
 
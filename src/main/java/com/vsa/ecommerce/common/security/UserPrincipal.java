@@ -1,21 +1,26 @@
 package com.vsa.ecommerce.common.security;
 
+import com.vsa.ecommerce.common.security.jwt.VerifiedToken;
+import com.vsa.ecommerce.domain.entity.Permission;
 import com.vsa.ecommerce.domain.entity.Role;
 import com.vsa.ecommerce.domain.entity.User;
+import com.vsa.ecommerce.domain.enums.AppPermission;
+import com.vsa.ecommerce.domain.enums.UserRole;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Custom UserDetails implementation for Spring Security.
  * Wraps our User entity and provides authentication information.
+ * <p>
+ * Roles and permissions are held as an {@link AuthorityBits} mask; the
+ * {@link GrantedAuthority} view is a shared set built once per mask.
  */
 @Getter
 @AllArgsConstructor
@@ -26,7 +31,7 @@ public class UserPrincipal implements UserDetails {
     private String password;
     private String firstName;
     private String lastName;
-    private Collection<? extends GrantedAuthority> authorities;
+    private long authorityBits;
     private boolean accountNonExpired;
     private boolean accountNonLocked;
     private boolean credentialsNonExpired;
@@ -36,15 +41,13 @@ public class UserPrincipal implements UserDetails {
      * Create UserPrincipal from User entity.
      */
     public static UserPrincipal create(User user) {
-        Collection<GrantedAuthority> authorities = buildAuthorities(user.getRoles());
-
         return new UserPrincipal(
                 user.getId(),
                 user.getEmail(),
                 user.getPassword(),
                 user.getFirstName(),
                 user.getLastName(),
-                authorities,
+                buildAuthorityBits(user.getRoles()),
                 user.getAccountNonExpired(),
                 user.getAccountNonLocked(),
                 user.getCredentialsNonExpired(),
@@ -52,30 +55,61 @@ public class UserPrincipal implements UserDetails {
     }
 
     /**
-     * Build authorities from roles.
-     * Format:
-     * - Roles: ROLE_ADMIN, ROLE_USER
+     * Create UserPrincipal from verified access token claims (stateless mode).
+     * No password or names are carried; account flags are true because a
+     * disabled or locked account bumps the security version, which already
+     * rejects its tokens.
+     */
+    public static UserPrincipal fromClaims(VerifiedToken token) {
+        return new UserPrincipal(
+                token.userId(),
+                token.email(),
+                null,
+                null,
+                null,
+                token.authorityBits(),
+                true,
+                true,
+                true,
+                true);
+    }
+
+    /**
+     * Build the authority mask from roles and their permissions.
+     * Permissions without a bit (not in {@link AppPermission}) are ignored.
      */
-    private static Collection<GrantedAuthority> buildAuthorities(Set<Role> roles) {
-        Set<GrantedAuthority> authorities = new HashSet<>();
+    private static long buildAuthorityBits(Set<Role> roles) {
+        long bits = 0L;
 
         for (Role role : roles) {
-            // Add role as authority (prefix with ROLE_)
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName().name()));
+            bits |= AuthorityBits.of(role.getName());
+            for (Permission permission : role.getPermissions()) {
+                bits |= AuthorityBits.of(permission.getName());
+            }
         }
 
-        return authorities;
+        return bits;
     }
 
     /**
      * Get role names (without ROLE_ prefix).
      */
     public Set<String> getRoleNames() {
-        return authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .filter(auth -> auth.startsWith("ROLE_"))
-                .map(auth -> auth.substring(5)) // Remove "ROLE_" prefix
-                .collect(Collectors.toSet());
+        Set<String> roleNames = new HashSet<>();
+        for (UserRole role : UserRole.values()) {
+            if (hasRole(role)) {
+                roleNames.add(role.name());
+            }
+        }
+        return roleNames;
+    }
+
+    public boolean hasRole(UserRole role) {
+        return AuthorityBits.has(authorityBits, AuthorityBits.of(role));
+    }
+
+    public boolean hasPermission(AppPermission permission) {
+        return AuthorityBits.has(authorityBits, AuthorityBits.of(permission));
     }
 
     @Override
@@ -90,7 +124,7 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return authorities;
+        return AuthorityBits.toAuthorities(authorityBits);
     }
 
     @Override
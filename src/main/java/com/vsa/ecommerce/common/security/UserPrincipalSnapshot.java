@@ -0,0 +1,49 @@
+package com.vsa.ecommerce.common.security;
+
+/**
+ * Immutable, cacheable form of {@link UserPrincipal}.
+ * <p>
+ * Authorities are kept as the {@link AuthorityBits} mask, so the snapshot
+ * serializes to plain JSON for the L2 cache and restores without allocating
+ * authority objects. The password hash is never part of it, so it is not
+ * copied into Redis; restored principals carry no password and cannot be used
+ * to check credentials.
+ */
+public record UserPrincipalSnapshot(
+        Long id,
+        String email,
+        String firstName,
+        String lastName,
+        long authorityBits,
+        boolean accountNonExpired,
+        boolean accountNonLocked,
+        boolean credentialsNonExpired,
+        boolean enabled) {
+
+    public static UserPrincipalSnapshot of(UserPrincipal principal) {
+        return new UserPrincipalSnapshot(
+                principal.getId(),
+                principal.getEmail(),
+                principal.getFirstName(),
+                principal.getLastName(),
+                principal.getAuthorityBits(),
+                principal.isAccountNonExpired(),
+                principal.isAccountNonLocked(),
+                principal.isCredentialsNonExpired(),
+                principal.isEnabled());
+    }
+
+    public UserPrincipal toPrincipal() {
+        return new UserPrincipal(
+                id,
+                email,
+                null,
+                firstName,
+                lastName,
+                authorityBits,
+                accountNonExpired,
+                accountNonLocked,
+                credentialsNonExpired,
+                enabled);
+    }
+}
@@ -0,0 +1,234 @@
+package com.vsa.ecommerce.common.security;
+
+import com.vsa.ecommerce.common.security.jwt.JwtProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user security version used to revoke issued JWTs without a database
+ * lookup per request.
+ * <p>
+ * The version is the time (epoch milliseconds) of the user's last
+ * security-relevant change: password change or reset, status change, logout.
+ * Tokens carry the version current at issue time in the "sv" claim and are
+ * rejected once the user's version moves past it.
+ * <p>
+ * Storage:
+ * - Redis hash {@code security:user-versions} (user id -> version) is the
+ * source of truth, bumped atomically by a Lua script
+ * - Every node mirrors the hash in memory, so the per-request check is a map
+ * lookup
+ * - Bumps are pushed to all nodes on {@code security.version.channel}; a
+ * periodic full sync covers missed messages
+ * <p>
+ * A version older than the longest token lifetime cannot reject any live
+ * token, so such entries are pruned during sync; the hash only holds users
+ * changed within that window.
+ * <p>
+ * Configuration:
+ * - security.version.channel: Pub/Sub channel (default security-version)
+ * - security.version.sync-interval-ms: Full resync period (0 disables)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserSecurityVersionService {
+
+    public static final String VERSIONS_KEY = "security:user-versions";
+
+    /**
+     * New version = max(now, previous + 1), so versions stay strictly
+     * increasing per user even under clock skew between nodes.
+     */
+    private static final RedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>(
+            "local previous = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') "
+                    + "local version = math.max(tonumber(ARGV[2]), previous + 1) "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], version) "
+                    + "return version",
+            Long.class);
+
+    /**
+     * Delete a pruned entry only if no bump replaced it since it was read.
+     */
+    private static final RedisScript<Long> PRUNE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then "
+                    + "return redis.call('HDEL', KEYS[1], ARGV[1]) end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final JwtProperties jwtProperties;
+
+    private final ConcurrentMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "security-version-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${security.version.channel:security-version}")
+    private String channel;
+
+    @Value("${security.version.sync-interval-ms:60000}")
+    private long syncIntervalMs;
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> handleMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+
+        sync();
+        if (syncIntervalMs > 0) {
+            syncScheduler.scheduleWithFixedDelay(this::sync, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncScheduler.shutdownNow();
+    }
+
+    /**
+     * Check a token's version against the user's current version (in memory).
+     *
+     * @param userId       User ID from the token
+     * @param tokenVersion "sv" claim of the token (0 if absent)
+     * @return false if the token was issued before the user's last change, or
+     *         names no user
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        Long current = versions.get(userId);
+        return current == null || tokenVersion >= current;
+    }
+
+    /**
+     * Read the user's version from Redis, for embedding in a new token.
+     * Falls back to the local copy if Redis is unavailable.
+     *
+     * @param userId User ID
+     * @return Current version (0 if the user never changed)
+     */
+    public long currentVersion(Long userId) {
+        try {
+            Object stored = redisTemplate.opsForHash().get(VERSIONS_KEY, userId.toString());
+            if (stored != null) {
+                long version = Long.parseLong(stored.toString());
+                apply(userId, version);
+                return version;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read security version for user {}, using local copy", userId, e);
+        }
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Advance the user's version, revoking every token issued before now, and
+     * push it to all nodes.
+     *
+     * @param userId User ID
+     * @return New version
+     */
+    public long bump(Long userId) {
+        Long version = redisTemplate.execute(BUMP_SCRIPT, List.of(VERSIONS_KEY),
+                userId.toString(), String.valueOf(System.currentTimeMillis()));
+        apply(userId, version);
+        redisTemplate.convertAndSend(channel, userId + ":" + version);
+
+        log.info("Security version of user {} bumped to {}", userId, version);
+        return version;
+    }
+
+    /**
+     * Bump the user's version once the current transaction commits, or
+     * immediately when no transaction is active.
+     *
+     * @param userId User ID
+     */
+    public void bumpAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(userId);
+            }
+        });
+    }
+
+    /**
+     * Reload all versions from Redis and prune entries that can no longer
+     * reject a live token.
+     */
+    public void sync() {
+        try {
+            long horizon = System.currentTimeMillis() - maxTokenLifetimeMs();
+            Map<Object, Object> stored = redisTemplate.opsForHash().entries(VERSIONS_KEY);
+            for (Map.Entry<Object, Object> entry : stored.entrySet()) {
+                Long userId = Long.valueOf(entry.getKey().toString());
+                long version = Long.parseLong(entry.getValue().toString());
+                if (version < horizon) {
+                    redisTemplate.execute(PRUNE_SCRIPT, List.of(VERSIONS_KEY),
+                            entry.getKey().toString(), entry.getValue().toString());
+                } else {
+                    apply(userId, version);
+                }
+            }
+            versions.values().removeIf(version -> version < horizon);
+            log.debug("Synced {} security versions", versions.size());
+        } catch (Exception e) {
+            log.warn("Security version sync failed, keeping local versions", e);
+        }
+    }
+
+    /**
+     * Pub/Sub payload: {@code userId:version}.
+     */
+    private void handleMessage(String payload) {
+        int separator = payload.indexOf(':');
+        try {
+            apply(Long.valueOf(payload.substring(0, separator)), Long.parseLong(payload.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            log.error("Invalid security version message: {}", payload, e);
+        }
+    }
+
+    /**
+     * Versions only move forward, whatever order updates arrive in.
+     */
+    private void apply(Long userId, long version) {
+        versions.merge(userId, version, Math::max);
+    }
+
+    private long maxTokenLifetimeMs() {
+        return Math.max(jwtProperties.getExpirationMs(), jwtProperties.getRefreshExpirationMs());
+    }
+}
@@ -1,6 +1,9 @@
 package com.vsa.ecommerce.common.security.jwt;
 
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
 import com.vsa.ecommerce.common.security.UserPrincipal;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
+import com.vsa.ecommerce.common.security.revocation.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,22 +13,26 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * JWT Authentication Filter.
  * 
  * Intercepts every HTTP request and:
  * 1. Extracts JWT token from Authorization header
- * 2. Validates the token
- * 3. Loads user details
- * 4. Sets authentication in SecurityContext
+ * 2. Verifies the token once (signature + expiry), reusing the result for
+ * repeat requests with the same token
+ * 3. Rejects revoked tokens and tokens older than the user's security version
+ * (in-memory checks)
+ * 4. Builds the principal from the claims (stateless mode) or loads user
+ * details
+ * 5. Sets authentication in SecurityContext
  */
 @Slf4j
 @Component
@@ -33,7 +40,10 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
+    private final UserSecurityVersionService securityVersionService;
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtProperties jwtProperties;
 
     @Override
     protected void doFilterInternal(
@@ -44,13 +54,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             // Extract JWT from request
             String jwt = extractJwtFromRequest(request);
-
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                // Get user email from token
-                String email = jwtTokenProvider.getEmailFromToken(jwt);
-
-                // Load user details from database (or cache)
-                UserPrincipal userPrincipal = (UserPrincipal) userDetailsService.loadUserByUsername(email);
+            Optional<VerifiedToken> verified = StringUtils.hasText(jwt)
+                    ? jwtTokenProvider.verify(jwt)
+                    : Optional.empty();
+
+            if (verified.isPresent()) {
+                VerifiedToken token = verified.get();
+                String email = token.email();
+
+                // Refresh tokens are signed with the same key but must not authenticate requests
+                if (!token.isAccessToken()) {
+                    log.debug("Rejected {} token as bearer token", token.type());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // Tokens logged out individually, or issued before the user's last
+                // password/status change, are revoked
+                if (tokenRevocationService.isRevoked(token.tokenId())
+                        || !securityVersionService.isCurrent(token.userId(), token.securityVersion())) {
+                    log.debug("Rejected revoked token for user: {}", email);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // Stateless: principal from the claims; otherwise load the principal
+                // from cache (or database)
+                UserPrincipal userPrincipal = jwtProperties.isStatelessAuthentication()
+                        ? UserPrincipal.fromClaims(token)
+                        : userDetailsService.loadPrincipalByEmail(email);
 
                 // Create authentication token
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
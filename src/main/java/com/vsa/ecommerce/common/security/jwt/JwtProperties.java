@@ -39,4 +39,19 @@ public class JwtProperties {
      * Default: vsa-ecommerce
      */
     private String issuer = "vsa-ecommerce";
+
+    /**
+     * Maximum number of verified tokens kept in memory (0 disables the cache).
+     * Entries expire at the token's exp.
+     * Default: 10000
+     */
+    private int verifiedCacheSize = 10000;
+
+    /**
+     * Build the authenticated principal from the access token claims instead of
+     * loading the user per request. Revocation then relies on the per-user
+     * security version.
+     * Default: false
+     */
+    private boolean statelessAuthentication = false;
 }
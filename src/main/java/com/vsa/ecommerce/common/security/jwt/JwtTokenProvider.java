@@ -1,94 +1,154 @@
 package com.vsa.ecommerce.common.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Token Provider for generating, validating, and parsing JWT tokens.
  * 
  * Token Structure:
  * - Header: Algorithm (HS512) and Type (JWT)
- * - Payload: Claims (sub, iat, exp, roles, permissions, etc.)
+ * - Payload: Claims (sub, jti, typ, iat, exp, roles, permissions, sv, etc.);
+ * typ is "access" or "refresh", and only access tokens authenticate requests
  * - Signature: HMAC SHA-512
+ * 
+ * Verification:
+ * - The signing key and the (thread-safe) parser are built once at startup
+ * - {@link #verify(String)} parses and verifies a token once and returns its
+ * claims
+ * - Verified tokens are kept in a bounded cache keyed by the SHA-256 of the
+ * token and evicted at the token's exp, so repeat requests with the same token
+ * skip parsing and HMAC verification (security.jwt.verified-cache-size)
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtTokenProvider {
 
     private final JwtProperties jwtProperties;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final MessageDigest sha256Prototype;
+
+    /**
+     * Verified tokens by token hash; null when the cache is disabled.
+     */
+    private final Cache<TokenHash, VerifiedToken> verifiedTokens;
+
+    public JwtTokenProvider(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecretKey()));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        try {
+            this.sha256Prototype = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        this.verifiedTokens = jwtProperties.getVerifiedCacheSize() > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(jwtProperties.getVerifiedCacheSize())
+                        .expireAfter(expireAtTokenExpiry())
+                        .build()
+                : null;
+    }
 
     /**
      * Generate access token for authenticated user.
      * 
      * @param userId      User ID (subject)
      * @param email       User email
-     * @param authorities User authorities (roles + permissions)
+     * @param authorityBits User authorities (roles + permissions) as an
+     *                      {@code AuthorityBits} mask ("ab" claim)
+     * @param securityVersion User security version ("sv" claim)
+     * @param sessionId     Refresh session the token was issued for ("sid"
+     *                      claim, used by logout)
      * @return JWT token string
      */
-    public String generateAccessToken(Long userId, String email,
-            java.util.Collection<? extends GrantedAuthority> authorities) {
+    public String generateAccessToken(Long userId, String email, long authorityBits, long securityVersion,
+            String sessionId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtProperties.getExpirationMs());
 
         Map<String, Object> claims = new HashMap<>();
+        claims.put("typ", VerifiedToken.TYPE_ACCESS);
         claims.put("userId", userId);
         claims.put("email", email);
-        claims.put("authorities", authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList()));
+        claims.put("ab", authorityBits);
+        claims.put("sv", securityVersion);
+        if (sessionId != null) {
+            claims.put("sid", sessionId);
+        }
 
         return Jwts.builder()
                 .subject(userId.toString())
+                .id(UUID.randomUUID().toString())
                 .claims(claims)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .issuer(jwtProperties.getIssuer())
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
+                .signWith(signingKey, Jwts.SIG.HS512)
                 .compact();
     }
 
     /**
      * Generate refresh token for token renewal.
      * Refresh tokens have minimal claims and longer expiration.
+     *
+     * @param userId          User ID (subject)
+     * @param securityVersion User security version ("sv" claim)
+     * @param sessionId       Refresh session id ("sid" claim)
+     * @param tokenId         Token id ("jti" claim), recorded by the session
+     * @param expiresAtMillis Token expiry
      */
-    public String generateRefreshToken(Long userId) {
+    public String generateRefreshToken(Long userId, long securityVersion, String sessionId, String tokenId,
+            long expiresAtMillis) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtProperties.getRefreshExpirationMs());
+        Date expiryDate = new Date(expiresAtMillis);
 
         return Jwts.builder()
                 .subject(userId.toString())
+                .id(tokenId)
+                .claim("typ", VerifiedToken.TYPE_REFRESH)
+                .claim("sv", securityVersion)
+                .claim("sid", sessionId)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .issuer(jwtProperties.getIssuer())
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
+                .signWith(signingKey, Jwts.SIG.HS512)
                 .compact();
     }
 
     /**
-     * Validate JWT token.
+     * Verify a token once and return its claims.
+     * Repeat calls with the same token within its lifetime are answered from
+     * the verified-token cache without parsing or HMAC verification.
      * 
      * @param token JWT token string
-     * @return true if valid, false otherwise
+     * @return Verified claims, or empty if the token is invalid or expired
      */
-    public boolean validateToken(String token) {
+    public Optional<VerifiedToken> verify(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return Optional.of(verifiedToken(token));
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -100,7 +160,17 @@ public class JwtTokenProvider {
         } catch (io.jsonwebtoken.security.SignatureException ex) {
             log.error("JWT signature validation failed: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Validate JWT token.
+     * 
+     * @param token JWT token string
+     * @return true if valid, false otherwise
+     */
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
     /**
@@ -123,11 +193,7 @@ public class JwtTokenProvider {
      * Get all claims from JWT token.
      */
     public Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verifiedToken(token).claims();
     }
 
     /**
@@ -153,10 +219,69 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Get signing key from Base64 encoded secret.
+     * Look up the verified-token cache, parsing and verifying on a miss.
+     *
+     * @throws JwtException             if the token is invalid or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    private VerifiedToken verifiedToken(String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        if (verifiedTokens == null) {
+            return VerifiedToken.of(jwtParser.parseSignedClaims(token).getPayload());
+        }
+
+        TokenHash hash = TokenHash.of(token, sha256Prototype);
+        VerifiedToken cached = verifiedTokens.getIfPresent(hash);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+
+        VerifiedToken verified = VerifiedToken.of(jwtParser.parseSignedClaims(token).getPayload());
+        if (verified.expiresAtMillis() != Long.MAX_VALUE) {
+            // Tokens without exp are never cached
+            verifiedTokens.put(hash, verified);
+        }
+        return verified;
+    }
+
+    private static Expiry<TokenHash, VerifiedToken> expireAtTokenExpiry() {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(TokenHash key, VerifiedToken value, long currentTime) {
+                long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+            }
+
+            @Override
+            public long expireAfterUpdate(TokenHash key, VerifiedToken value, long currentTime,
+                    long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(TokenHash key, VerifiedToken value, long currentTime,
+                    long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    /**
+     * SHA-256 of a token, so the cache does not retain usable bearer tokens.
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecretKey());
-        return Keys.hmacShaKeyFor(keyBytes);
+    private record TokenHash(long h0, long h1, long h2, long h3) {
+
+        static TokenHash of(String token, MessageDigest prototype) {
+            MessageDigest digest;
+            try {
+                digest = (MessageDigest) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("SHA-256 digest is not cloneable", e);
+            }
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenHash(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
     }
 }
@@ -0,0 +1,103 @@
+package com.vsa.ecommerce.common.security.jwt;
+
+import com.vsa.ecommerce.common.security.AuthorityBits;
+import io.jsonwebtoken.Claims;
+
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature and expiry have been verified. Produced once
+ * per token by {@link JwtTokenProvider#verify} and shared by repeat requests
+ * carrying the same token.
+ *
+ * @param claims          Verified claims (read-only)
+ * @param expiresAtMillis Token expiry (epoch milliseconds)
+ */
+public record VerifiedToken(Claims claims, long expiresAtMillis) {
+
+    /**
+     * Values of the "typ" claim.
+     */
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    public static VerifiedToken of(Claims claims) {
+        return new VerifiedToken(claims,
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE);
+    }
+
+    public String subject() {
+        return claims.getSubject();
+    }
+
+    /**
+     * Token id ("jti"); null for tokens issued before ids were added.
+     */
+    public String tokenId() {
+        return claims.getId();
+    }
+
+    /**
+     * Refresh session id ("sid" claim); null for tokens issued before
+     * sessions existed.
+     */
+    public String sessionId() {
+        return claims.get("sid", String.class);
+    }
+
+    /**
+     * Token type ("typ" claim). Tokens issued before the claim existed are
+     * told apart by the "userId" claim, which only access tokens carry.
+     */
+    public String type() {
+        String type = claims.get("typ", String.class);
+        if (type != null) {
+            return type;
+        }
+        return claims.get("userId") != null ? TYPE_ACCESS : TYPE_REFRESH;
+    }
+
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type());
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type());
+    }
+
+    public Long userId() {
+        return claims.get("userId", Long.class);
+    }
+
+    public String email() {
+        return claims.get("email", String.class);
+    }
+
+    /**
+     * Authority mask ("ab" claim, see {@link AuthorityBits}). Tokens issued
+     * before the claim existed carry an "authorities" name list instead, which
+     * is converted.
+     */
+    @SuppressWarnings("unchecked")
+    public long authorityBits() {
+        Long bits = claims.get("ab", Long.class);
+        if (bits != null) {
+            return bits;
+        }
+        List<String> authorities = claims.get("authorities", List.class);
+        return authorities != null ? AuthorityBits.of(authorities) : 0L;
+    }
+
+    /**
+     * User security version at issue time ("sv" claim); 0 for tokens issued
+     * before the claim existed.
+     */
+    public long securityVersion() {
+        Long version = claims.get("sv", Long.class);
+        return version != null ? version : 0L;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
@@ -0,0 +1,12 @@
+package com.vsa.ecommerce.common.security.revocation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a token_blacklist row.
+ *
+ * @param tokenId    Revoked token id (jti)
+ * @param expiryDate Token expiry; the row can be purged after it
+ */
+public record RevokedToken(String tokenId, LocalDateTime expiryDate) {
+}
@@ -0,0 +1,53 @@
+package com.vsa.ecommerce.common.security.revocation;
+
+import com.vsa.ecommerce.common.job.BaseQuartzJob;
+import com.vsa.ecommerce.common.job.QuartzJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired rows from token_blacklist.
+ * <p>
+ * Runs every hour at minute 15. Rows are deleted in chunks of
+ * {@code security.revocation.purge-batch-size}, each in its own transaction,
+ * until a chunk comes back short.
+ */
+@Slf4j
+@DisallowConcurrentExecution
+@RequiredArgsConstructor
+@QuartzJob(cron = "0 15 * * * ?", name = "TokenBlacklistPurgeJob", description = "Deletes expired token blacklist rows hourly")
+public class TokenBlacklistPurgeJob extends BaseQuartzJob {
+
+    private final TokenRevocationRepository repository;
+
+    @Value("${security.revocation.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public String getJobName() {
+        return "TokenBlacklistPurgeJob";
+    }
+
+    @Override
+    public String getJobDescription() {
+        return "Deletes expired token blacklist rows hourly";
+    }
+
+    @Override
+    public void executeJob(JobExecutionContext context) {
+        LocalDateTime cutoff = LocalDateTime.now();
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteExpiredBatch(cutoff, batchSize);
+            purged += deleted;
+        } while (deleted == batchSize);
+
+        log.info("Token blacklist purge completed. Deleted {} expired rows", purged);
+    }
+}
@@ -0,0 +1,47 @@
+package com.vsa.ecommerce.common.security.revocation;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and purges the token_blacklist table.
+ */
+@Repository
+public class TokenRevocationRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Revoked tokens that have not expired yet.
+     */
+    public List<RevokedToken> findActive(LocalDateTime now) {
+        return entityManager.createQuery(
+                "SELECT new com.vsa.ecommerce.common.security.revocation.RevokedToken(t.token, t.expiryDate) "
+                        + "FROM TokenBlacklist t WHERE t.expiryDate > :now",
+                RevokedToken.class)
+                .setParameter("now", now)
+                .getResultList();
+    }
+
+    /**
+     * Delete up to {@code limit} expired rows in one transaction, so a large
+     * backlog never holds long locks or a long transaction.
+     *
+     * @return Number of rows deleted
+     */
+    @Transactional
+    public int deleteExpiredBatch(LocalDateTime now, int limit) {
+        return entityManager.createNativeQuery(
+                "DELETE FROM token_blacklist WHERE id IN "
+                        + "(SELECT id FROM token_blacklist WHERE expiry_date <= :now LIMIT :limit)")
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,212 @@
+package com.vsa.ecommerce.common.security.revocation;
+
+import com.vsa.ecommerce.common.cache.bloom.LongBloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory view of revoked token ids (jti), checked on every authenticated
+ * request without touching the database.
+ * <p>
+ * Lookups go through a {@link LongBloomFilter} first; almost every token is
+ * not revoked and is answered by the filter alone. Filter positives are
+ * confirmed against an exact map (token id -> expiry), so a false positive
+ * never rejects a valid token.
+ * <p>
+ * Replication:
+ * - token_blacklist is the source of truth; both structures are rebuilt from
+ * its unexpired rows at startup and every
+ * {@code security.revocation.rebuild-interval-minutes}, which also sheds
+ * expired ids
+ * - Revocations are pushed to all nodes over Redis Pub/Sub
+ * ({@code security.revocation.channel}) once the row is committed
+ * <p>
+ * Configuration:
+ * - security.revocation.expected-revocations: Minimum filter capacity
+ * - security.revocation.false-positive-rate: Target false-positive rate
+ * - security.revocation.rebuild-interval-minutes: Periodic rebuild (0 disables)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final TokenRevocationRepository repository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * Revoked token id -> token expiry (epoch milliseconds).
+     */
+    private final ConcurrentMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile LongBloomFilter filter;
+
+    private final ScheduledExecutorService rebuildScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-revocation-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${security.revocation.channel:token-revocation}")
+    private String channel;
+
+    @Value("${security.revocation.expected-revocations:100000}")
+    private long expectedRevocations;
+
+    @Value("${security.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${security.revocation.rebuild-interval-minutes:60}")
+    private long rebuildIntervalMinutes;
+
+    @PostConstruct
+    public void start() {
+        filter = new LongBloomFilter(expectedRevocations, falsePositiveRate);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> handleMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocations() {
+        rebuild();
+        if (rebuildIntervalMinutes > 0) {
+            rebuildScheduler.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMinutes,
+                    rebuildIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildScheduler.shutdownNow();
+    }
+
+    /**
+     * Check whether a token id has been revoked.
+     *
+     * @param tokenId Token id (jti); null for tokens issued without one
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(hash(tokenId))) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revoke a token on all nodes once the current transaction (which persists
+     * the token_blacklist row) commits, or immediately without a transaction.
+     *
+     * @param tokenId         Token id (jti)
+     * @param expiresAtMillis Token expiry (epoch milliseconds)
+     */
+    public void revokeAfterCommit(String tokenId, long expiresAtMillis) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            revoke(tokenId, expiresAtMillis);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revoke(tokenId, expiresAtMillis);
+            }
+        });
+    }
+
+    /**
+     * Revoke a token on this node and publish it to the others.
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        addLocal(tokenId, expiresAtMillis);
+        try {
+            redisTemplate.convertAndSend(channel, expiresAtMillis + ":" + tokenId);
+        } catch (Exception e) {
+            // Other nodes pick the row up on their next rebuild
+            log.warn("Failed to publish revocation of token {}", tokenId, e);
+        }
+    }
+
+    /**
+     * Rebuild the filter and the exact set from token_blacklist, dropping
+     * expired ids. Ids revoked while the query runs are kept and replayed into
+     * the new filter.
+     */
+    public synchronized void rebuild() {
+        try {
+            long started = System.currentTimeMillis();
+            List<RevokedToken> active = repository.findActive(LocalDateTime.now());
+            for (RevokedToken token : active) {
+                revoked.putIfAbsent(token.tokenId(),
+                        token.expiryDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            revoked.values().removeIf(expiresAt -> expiresAt <= started);
+
+            LongBloomFilter rebuilt = new LongBloomFilter(Math.max(expectedRevocations, 2L * revoked.size()),
+                    falsePositiveRate);
+            revoked.keySet().forEach(tokenId -> rebuilt.add(hash(tokenId)));
+            filter = rebuilt;
+            // Replay ids added to the old filter between the pass above and the swap
+            revoked.keySet().forEach(tokenId -> rebuilt.add(hash(tokenId)));
+
+            log.info("Token revocation set rebuilt: {} revoked tokens in {}ms", revoked.size(),
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to rebuild token revocation set, keeping current one", e);
+        }
+    }
+
+    /**
+     * Exact set first, so a reader that sees the filter bit also finds the id.
+     */
+    private void addLocal(String tokenId, long expiresAtMillis) {
+        revoked.put(tokenId, expiresAtMillis);
+        filter.add(hash(tokenId));
+    }
+
+    /**
+     * Pub/Sub payload: {@code expiresAtMillis:tokenId}.
+     */
+    private void handleMessage(String payload) {
+        int separator = payload.indexOf(':');
+        try {
+            addLocal(payload.substring(separator + 1), Long.parseLong(payload.substring(0, separator)));
+        } catch (RuntimeException e) {
+            log.error("Invalid token revocation message: {}", payload, e);
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the token id; the filter mixes it further.
+     */
+    private static long hash(String tokenId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < tokenId.length(); i++) {
+            hash ^= tokenId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
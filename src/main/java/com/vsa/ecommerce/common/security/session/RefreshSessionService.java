@@ -0,0 +1,253 @@
+package com.vsa.ecommerce.common.security.session;
+
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
+import com.vsa.ecommerce.common.util.RedisScriptUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Registry of a user's refresh-token sessions, one per device.
+ * <p>
+ * Storage: Redis hash {@code refresh_sessions:{userId}}
+ * - {sessionId} -> {refreshTokenId}:{expiresAtMillis}; the session id is the
+ * token's "sid" claim and stays the same across rotations, the token id (jti)
+ * changes on every rotation. Tokens themselves are never stored.
+ * - {@value #PRINCIPAL_FIELD} -> {authorityBits}:{email}, the claims needed to
+ * issue an access token, so a refresh does not load the user
+ * - The key expires with the newest session; expired sessions are pruned and
+ * the oldest dropped beyond {@code security.refresh-session.max-sessions} on
+ * every login
+ * <p>
+ * Rotation is one Lua script: it checks the presented token id, the session
+ * expiry and the user's security version, stores the new token id and returns
+ * the version and principal. Presenting an already rotated token id (reuse of
+ * a stolen token) deletes the session.
+ * <p>
+ * Revoking all sessions is one UNLINK of the hash.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshSessionService {
+
+    private static final String KEY_PREFIX = "refresh_sessions:";
+    private static final String PRINCIPAL_FIELD = "_principal";
+
+    /**
+     * KEYS[1] sessions hash; ARGV[1] session id, ARGV[2] token id, ARGV[3]
+     * expiry, ARGV[4] now, ARGV[5] key TTL in ms, ARGV[6] max sessions,
+     * ARGV[7] principal. Returns the number of live sessions.
+     */
+    private static final RedisScript<Long> CREATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[3], '" + PRINCIPAL_FIELD + "', ARGV[7]) "
+                    + "local fields = redis.call('HGETALL', KEYS[1]) "
+                    + "local now = tonumber(ARGV[4]) "
+                    + "local live = {} "
+                    + "for i = 1, #fields, 2 do "
+                    + "if fields[i] ~= '" + PRINCIPAL_FIELD + "' then "
+                    + "local value = fields[i + 1] "
+                    + "local expires = tonumber(string.sub(value, string.find(value, ':', 1, true) + 1)) "
+                    + "if expires <= now then redis.call('HDEL', KEYS[1], fields[i]) "
+                    + "else live[#live + 1] = { fields[i], expires } end "
+                    + "end end "
+                    + "local excess = #live - tonumber(ARGV[6]) "
+                    + "if excess > 0 then "
+                    + "table.sort(live, function(a, b) return a[2] < b[2] end) "
+                    + "for i = 1, excess do redis.call('HDEL', KEYS[1], live[i][1]) end "
+                    + "else excess = 0 end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[5]) "
+                    + "return #live - excess",
+            Long.class);
+
+    /**
+     * KEYS[1] sessions hash, KEYS[2] security versions hash; ARGV[1] session
+     * id, ARGV[2] presented token id, ARGV[3] new token id, ARGV[4] new expiry,
+     * ARGV[5] now, ARGV[6] key TTL in ms, ARGV[7] user id, ARGV[8] presented
+     * token's security version. Returns {1, version, principal or nil} when
+     * rotated, {0} when the session is gone, expired or revoked, {-1} on token
+     * reuse.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE_SCRIPT = new DefaultRedisScript<>(
+            "local entry = redis.call('HGET', KEYS[1], ARGV[1]) "
+                    + "if not entry then return { 0 } end "
+                    + "local separator = string.find(entry, ':', 1, true) "
+                    + "if string.sub(entry, 1, separator - 1) ~= ARGV[2] then "
+                    + "redis.call('HDEL', KEYS[1], ARGV[1]) return { -1 } end "
+                    + "local version = redis.call('HGET', KEYS[2], ARGV[7]) or '0' "
+                    + "if tonumber(string.sub(entry, separator + 1)) <= tonumber(ARGV[5]) "
+                    + "or tonumber(version) > tonumber(ARGV[8]) then "
+                    + "redis.call('HDEL', KEYS[1], ARGV[1]) return { 0 } end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3] .. ':' .. ARGV[4]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[6]) "
+                    + "return { 1, version, redis.call('HGET', KEYS[1], '" + PRINCIPAL_FIELD + "') or false }",
+            List.class);
+
+    /**
+     * Store the principal only while the user still has sessions, so a
+     * concurrent revoke-all does not leave a key without TTL.
+     */
+    private static final RedisScript<Long> STORE_PRINCIPAL_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then "
+                    + "return redis.call('HSET', KEYS[1], '" + PRINCIPAL_FIELD + "', ARGV[1]) end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${security.refresh-session.max-sessions:10}")
+    private int maxSessions;
+
+    @PostConstruct
+    public void preloadScripts() {
+        RedisScriptUtil.preload(redisTemplate, CREATE_SCRIPT, ROTATE_SCRIPT, STORE_PRINCIPAL_SCRIPT);
+    }
+
+    /**
+     * Id for a new session. A client-supplied device id is reused, so logging
+     * in again on the same device replaces its session instead of adding one.
+     *
+     * @param deviceId Client device id (optional)
+     */
+    public String newSessionId(String deviceId) {
+        if (deviceId != null && deviceId.matches("[A-Za-z0-9_-]{1,64}")) {
+            return deviceId;
+        }
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Id for the next refresh token of a session (its jti).
+     */
+    public String newTokenId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Register a session at login.
+     *
+     * @param userId          User ID
+     * @param sessionId       Session id ("sid" claim)
+     * @param tokenId         Refresh token id ("jti" claim)
+     * @param expiresAtMillis Refresh token expiry
+     * @param principal       Claims for access tokens issued on refresh
+     */
+    public void create(Long userId, String sessionId, String tokenId, long expiresAtMillis,
+            SessionPrincipal principal) {
+        long now = System.currentTimeMillis();
+        Long live = redisTemplate.execute(CREATE_SCRIPT, List.of(key(userId)),
+                sessionId, tokenId, String.valueOf(expiresAtMillis), String.valueOf(now),
+                String.valueOf(Math.max(1, expiresAtMillis - now)), String.valueOf(maxSessions),
+                principal.encode());
+        log.debug("Refresh session {} created for user {} ({} live)", sessionId, userId, live);
+    }
+
+    /**
+     * Rotate a session to a new refresh token id in one round trip.
+     *
+     * @param userId               User ID
+     * @param sessionId            Session id of the presented token
+     * @param presentedTokenId     Token id of the presented token
+     * @param presentedTokenVersion Security version of the presented token
+     * @param newTokenId           Token id of the replacement token
+     * @param newExpiresAtMillis   Expiry of the replacement token
+     * @return the rotation outcome
+     */
+    public Rotation rotate(Long userId, String sessionId, String presentedTokenId, long presentedTokenVersion,
+            String newTokenId, long newExpiresAtMillis) {
+        long now = System.currentTimeMillis();
+        List<?> result = redisTemplate.execute(ROTATE_SCRIPT,
+                List.of(key(userId), UserSecurityVersionService.VERSIONS_KEY),
+                sessionId, presentedTokenId, newTokenId, String.valueOf(newExpiresAtMillis), String.valueOf(now),
+                String.valueOf(Math.max(1, newExpiresAtMillis - now)), userId.toString(),
+                String.valueOf(presentedTokenVersion));
+
+        long status = result != null && !result.isEmpty() ? ((Number) result.get(0)).longValue() : 0L;
+        if (status < 0) {
+            log.warn("Refresh token reuse detected for user {} session {}, session revoked", userId, sessionId);
+        }
+        if (status <= 0) {
+            return Rotation.REJECTED;
+        }
+
+        long securityVersion = Long.parseLong(result.get(1).toString());
+        Object principal = result.size() > 2 ? result.get(2) : null;
+        return new Rotation(true, securityVersion,
+                principal != null ? SessionPrincipal.decode(principal.toString()) : null);
+    }
+
+    /**
+     * Store the principal used on refresh (after a miss in {@link #rotate}).
+     */
+    public void storePrincipal(Long userId, SessionPrincipal principal) {
+        redisTemplate.execute(STORE_PRINCIPAL_SCRIPT, List.of(key(userId)), principal.encode());
+    }
+
+    /**
+     * Drop the stored principal once the current transaction commits (or
+     * immediately without one), so the next refresh reloads the user.
+     */
+    public void evictPrincipalAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictPrincipal(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictPrincipal(userId);
+            }
+        });
+    }
+
+    /**
+     * End one session (logout on one device).
+     */
+    public void revoke(Long userId, String sessionId) {
+        redisTemplate.opsForHash().delete(key(userId), sessionId);
+    }
+
+    /**
+     * End every session of the user in O(1): the hash is unlinked and freed
+     * by Redis in the background.
+     */
+    public void revokeAll(Long userId) {
+        redisTemplate.unlink(key(userId));
+        log.info("All refresh sessions of user {} revoked", userId);
+    }
+
+    private void evictPrincipal(Long userId) {
+        try {
+            redisTemplate.opsForHash().delete(key(userId), PRINCIPAL_FIELD);
+        } catch (Exception e) {
+            log.error("Failed to evict session principal of user {}", userId, e);
+        }
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    /**
+     * Outcome of {@link #rotate}.
+     *
+     * @param rotated         Whether the session accepted the presented token
+     * @param securityVersion User security version to embed in the new tokens
+     * @param principal       Stored principal, null if not stored
+     */
+    public record Rotation(boolean rotated, long securityVersion, SessionPrincipal principal) {
+
+        static final Rotation REJECTED = new Rotation(false, 0L, null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.vsa.ecommerce.common.security.session;
+
+import com.vsa.ecommerce.common.security.UserPrincipal;
+
+/**
+ * Claims stored with a user's refresh sessions for issuing access tokens
+ * without loading the user.
+ *
+ * @param email         User email
+ * @param authorityBits Authority mask (see AuthorityBits)
+ */
+public record SessionPrincipal(String email, long authorityBits) {
+
+    public static SessionPrincipal of(UserPrincipal principal) {
+        return new SessionPrincipal(principal.getEmail(), principal.getAuthorityBits());
+    }
+
+    /**
+     * Decode {authorityBits}:{email}; the email may itself contain ':'.
+     */
+    static SessionPrincipal decode(String value) {
+        int separator = value.indexOf(':');
+        return new SessionPrincipal(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+    }
+
+    String encode() {
+        return authorityBits + ":" + email;
+    }
+}
@@ -0,0 +1,36 @@
+package com.vsa.ecommerce.common.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helpers for Lua scripts run through {@link RedisTemplate#execute(RedisScript, java.util.List, Object...)}.
+ * <p>
+ * The template sends EVALSHA and falls back to EVAL when the server answers
+ * NOSCRIPT. Loading scripts at startup makes the first call a single EVALSHA
+ * as well.
+ */
+@Slf4j
+public class RedisScriptUtil {
+
+    private RedisScriptUtil() {}
+
+    /**
+     * SCRIPT LOAD the given scripts. Failures are logged only; calls still
+     * succeed through the EVAL fallback.
+     */
+    public static void preload(RedisTemplate<?, ?> redisTemplate, RedisScript<?>... scripts) {
+        for (RedisScript<?> script : scripts) {
+            try {
+                redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands()
+                        .scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+            } catch (Exception e) {
+                log.warn("Failed to preload Redis script {}, it will be loaded on first use", script.getSha1(), e);
+            }
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.vsa.ecommerce.config.id;
 
+import com.vsa.ecommerce.common.id.SnowflakeHibernateGenerator;
 import com.vsa.ecommerce.common.id.SnowflakeIdGenerator;
+import com.vsa.ecommerce.common.id.WorkerIdLeaseService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 /**
  * Snowflake ID Generator configuration.
+ * The same generator assigns entity ids (see SnowflakeHibernateGenerator).
+ * <p>
+ * The worker id is leased from Redis at startup (snowflake.lease.enabled,
+ * default true), so any number of replicas can run the same configuration;
+ * only the datacenter id is fixed per deployment.
  */
 @Configuration
 @RequiredArgsConstructor
@@ -14,10 +24,28 @@ public class SnowflakeConfig {
 
     private final SnowflakeProperties snowflakeProperties;
 
-    @Bean
-    public SnowflakeIdGenerator snowflakeIdGenerator() {
-        return new SnowflakeIdGenerator(
+    @Bean(destroyMethod = "release")
+    @ConditionalOnProperty(prefix = "snowflake.lease", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public WorkerIdLeaseService workerIdLeaseService(StringRedisTemplate redisTemplate) {
+        SnowflakeProperties.Lease lease = snowflakeProperties.getLease();
+        WorkerIdLeaseService service = new WorkerIdLeaseService(
+                redisTemplate,
                 snowflakeProperties.getDatacenterId(),
-                snowflakeProperties.getWorkerId());
+                snowflakeProperties.getWorkerId(),
+                lease.getTtlMs(),
+                lease.getRenewIntervalMs(),
+                lease.getSafetyMarginMs());
+        service.start();
+        return service;
+    }
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(ObjectProvider<WorkerIdLeaseService> workerIdLeaseService) {
+        WorkerIdLeaseService lease = workerIdLeaseService.getIfAvailable();
+        SnowflakeIdGenerator generator = lease != null
+                ? new SnowflakeIdGenerator(snowflakeProperties.getDatacenterId(), lease)
+                : new SnowflakeIdGenerator(snowflakeProperties.getDatacenterId(), snowflakeProperties.getWorkerId());
+        SnowflakeHibernateGenerator.setSnowflakeIdGenerator(generator);
+        return generator;
     }
 }
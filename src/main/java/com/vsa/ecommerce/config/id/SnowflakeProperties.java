@@ -22,7 +22,40 @@ public class SnowflakeProperties {
 
     /**
      * Worker/Machine ID (0-31).
-     * Should be unique per machine within a datacenter.
+     * With the lease enabled this is only the id tried first; the node uses
+     * whichever free worker id it leases.
      */
     private Long workerId = 0L;
+
+    /**
+     * Worker ID lease (see WorkerIdLeaseService).
+     */
+    private Lease lease = new Lease();
+
+    @Getter
+    @Setter
+    public static class Lease {
+
+        /**
+         * Lease the worker id from Redis; false uses worker-id as configured.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Lease TTL in Redis. Another node may take the worker id once it
+         * expires.
+         */
+        private long ttlMs = 30000;
+
+        /**
+         * Heartbeat interval renewing the lease.
+         */
+        private long renewIntervalMs = 10000;
+
+        /**
+         * The node stops issuing ids this long before its lease could
+         * expire in Redis (covers clock skew between nodes).
+         */
+        private long safetyMarginMs = 5000;
+    }
 }
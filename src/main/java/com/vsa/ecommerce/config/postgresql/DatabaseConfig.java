@@ -6,6 +6,7 @@ import com.zaxxer.hikari.HikariDataSource;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.orm.jpa.JpaTransactionManager;
@@ -54,12 +55,19 @@ public class DatabaseConfig {
         hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
         hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
         hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        // Send a JDBC insert batch as multi-row INSERTs (PostgreSQL driver)
+        hikariConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
 
         return new HikariDataSource(hikariConfig);
     }
 
+    /**
+     * Entity ids are assigned by the Snowflake generator, so it must be set
+     * up before the first persist.
+     */
     @Bean
     @Primary
+    @DependsOn("snowflakeIdGenerator")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
@@ -78,7 +86,8 @@ public class DatabaseConfig {
                 "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
         jpaProperties.put("hibernate.hbm2ddl.auto", jpa.getDdlAuto());
 
-        // Performance & Batching
+        // Performance & Batching (effective because ids are assigned before
+        // the INSERT, see SnowflakeId; IDENTITY ids would disable insert batching)
         jpaProperties.put("hibernate.jdbc.batch_size", "20");
         jpaProperties.put("hibernate.order_inserts", "true");
         jpaProperties.put("hibernate.order_updates", "true");
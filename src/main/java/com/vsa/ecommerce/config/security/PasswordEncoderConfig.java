@@ -1,5 +1,8 @@
 package com.vsa.ecommerce.config.security;
 
+import com.vsa.ecommerce.common.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,13 +10,26 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Password encoder configuration.
- * Uses BCrypt with strength 12 for password hashing.
+ * Uses BCrypt with strength 12 for password hashing, run on a bounded pool
+ * off the request threads (see {@link BoundedPasswordEncoder}).
+ * <p>
+ * Configuration:
+ * - security.password-hashing.pool-size: Hashing threads (0 = available
+ * processors)
+ * - security.password-hashing.queue-capacity: Calls allowed to wait before
+ * requests are rejected with TOO_MANY_REQUESTS
  */
 @Configuration
 public class PasswordEncoderConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    @Value("${security.password-hashing.pool-size:0}")
+    private int poolSize;
+
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(12), poolSize, queueCapacity, meterRegistry);
     }
 }
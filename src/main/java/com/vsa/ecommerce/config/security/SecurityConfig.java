@@ -1,10 +1,12 @@
 package com.vsa.ecommerce.config.security;
 
 import com.vsa.ecommerce.common.security.jwt.JwtAuthenticationFilter;
+import com.vsa.ecommerce.common.security.AuthorityBitsMethodSecurityExpressionHandler;
 import com.vsa.ecommerce.common.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -28,7 +30,8 @@ import java.util.List;
  * Features:
  * - JWT-based stateless authentication
  * - Role and permission-based authorization
- * - Method-level security (@PreAuthorize, @PostAuthorize)
+ * - Method-level security (@PreAuthorize, @PostAuthorize), with role and
+ * permission checks as bit tests on the principal's authority mask
  * - CORS configuration
  */
 @Configuration
@@ -76,6 +79,16 @@ public class SecurityConfig {
                 return http.build();
         }
 
+        /**
+         * Expression handler for @PreAuthorize/@PostAuthorize: hasRole,
+         * hasAuthority and hasPermission are bit tests on UserPrincipal.
+         * Static so method security can be set up before this configuration.
+         */
+        @Bean
+        static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+                return new AuthorityBitsMethodSecurityExpressionHandler();
+        }
+
         /**
          * Authentication Manager bean.
          * Required for AuthenticationService to authenticate users.
@@ -1,6 +1,7 @@
 package com.vsa.ecommerce.domain.entity;
 
 import com.vsa.ecommerce.common.domain.BaseEntity;
+import com.vsa.ecommerce.common.id.SnowflakeId;
 import com.vsa.ecommerce.domain.enums.CartStatus;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -19,7 +20,7 @@ import java.util.List;
 public class Cart extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -1,6 +1,7 @@
 package com.vsa.ecommerce.domain.entity;
 
 import com.vsa.ecommerce.common.domain.BaseEntity;
+import com.vsa.ecommerce.common.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,7 +17,7 @@ import java.math.BigDecimal;
 public class CartItem extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
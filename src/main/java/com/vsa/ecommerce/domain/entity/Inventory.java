@@ -1,10 +1,12 @@
 package com.vsa.ecommerce.domain.entity;
 
 import com.vsa.ecommerce.common.domain.BaseEntity;
+import com.vsa.ecommerce.common.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Tracks stock for a specific product.
@@ -19,7 +21,7 @@ import lombok.Setter;
 public class Inventory extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     /**
@@ -49,6 +51,15 @@ public class Inventory extends BaseEntity {
     @Version
     private Long version;
 
+    /**
+     * Hot stock mode (flash sales): available stock is held in Redis and
+     * reserved there; this row is updated by the write-behind writer.
+     * See HotStockService.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean hotStock;
+
     // --- Business Logic ---
 
     public void reserve(int quantity) {
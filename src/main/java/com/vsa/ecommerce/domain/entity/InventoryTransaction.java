@@ -2,6 +2,7 @@ package com.vsa.ecommerce.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.vsa.ecommerce.common.domain.BaseEntity;
+import com.vsa.ecommerce.common.id.SnowflakeId;
 import com.vsa.ecommerce.domain.enums.InventoryTransactionType;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -14,14 +15,14 @@ import lombok.Setter;
  * (Sales).
  */
 @Entity
-@Table(name = "inventory_transactions")
+@Table(name = "inventory_transactions", indexes = @Index(name = "idx_inventory_transactions_reference_id", columnList = "reference_id"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class InventoryTransaction extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @JsonIgnore
@@ -48,7 +49,7 @@ public class InventoryTransaction extends BaseEntity {
     @Column(length = 255)
     private String reason;
 
-    @Column(length = 255)
+    @Column(name = "reference_id", length = 255)
     private String referenceId;
 
     @JsonIgnore
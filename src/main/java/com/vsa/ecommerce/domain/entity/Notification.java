@@ -2,6 +2,7 @@ package com.vsa.ecommerce.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.vsa.ecommerce.common.domain.BaseEntity;
+import com.vsa.ecommerce.common.id.SnowflakeId;
 import com.vsa.ecommerce.domain.enums.NotificationStatus;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -22,7 +23,7 @@ import java.time.LocalDateTime;
 public class Notification extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @JsonIgnore
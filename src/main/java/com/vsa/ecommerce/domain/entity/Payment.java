@@ -2,6 +2,7 @@ package com.vsa.ecommerce.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.vsa.ecommerce.common.domain.BaseEntity;
+import com.vsa.ecommerce.common.id.SnowflakeId;
 import com.vsa.ecommerce.domain.enums.PaymentStatus;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -21,7 +22,7 @@ import java.math.BigDecimal;
 public class Payment extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @JsonIgnore
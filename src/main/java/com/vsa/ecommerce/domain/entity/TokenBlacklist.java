@@ -1,11 +1,11 @@
 package com.vsa.ecommerce.domain.entity;
 
 import com.vsa.ecommerce.common.domain.BaseEntity;
+import com.vsa.ecommerce.common.id.SnowflakeId;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,19 +14,25 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "token_blacklist")
+@Table(name = "token_blacklist", indexes = @Index(name = "idx_token_blacklist_expiry_date", columnList = "expiry_date"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class TokenBlacklist extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
+    /**
+     * Revoked token id (jti).
+     */
     @Column(nullable = false, unique = true)
     private String token;
 
-    @Column(nullable = false)
+    /**
+     * Expiry of the revoked token; the row is purged after it.
+     */
+    @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
 }
@@ -6,26 +6,31 @@ import lombok.RequiredArgsConstructor;
 /**
  * System-wide Permission Definitions.
  * Format: {resource}:{action}
+ * <p>
+ * Each permission owns a fixed bit of the principal's authority mask (see
+ * AuthorityBits). Bits are part of issued tokens and cached principals:
+ * never reuse or renumber one, only add new ones (16-62).
  */
 @Getter
 @RequiredArgsConstructor
 public enum AppPermission {
     // Order Permissions
-    ORDER_READ("order", "read", "View order details"),
-    ORDER_WRITE("order", "write", "Create or edit orders"),
-    ORDER_DELETE("order", "delete", "Remove orders"),
+    ORDER_READ(16, "order", "read", "View order details"),
+    ORDER_WRITE(17, "order", "write", "Create or edit orders"),
+    ORDER_DELETE(18, "order", "delete", "Remove orders"),
 
     // Product Permissions
-    PRODUCT_READ("product", "read", "View product catalog"),
-    PRODUCT_WRITE("product", "write", "Manage products"),
+    PRODUCT_READ(19, "product", "read", "View product catalog"),
+    PRODUCT_WRITE(20, "product", "write", "Manage products"),
 
     // Inventory Permissions
-    INVENTORY_READ("inventory", "read", "View stock levels"),
-    INVENTORY_WRITE("inventory", "write", "Adjust stock levels"),
+    INVENTORY_READ(21, "inventory", "read", "View stock levels"),
+    INVENTORY_WRITE(22, "inventory", "write", "Adjust stock levels"),
 
     // User Management
-    USER_ADMIN("user", "admin", "Full user management");
+    USER_ADMIN(23, "user", "admin", "Full user management");
 
+    private final int bit;
     private final String resource;
     private final String action;
     private final String description;
@@ -5,13 +5,17 @@ import lombok.RequiredArgsConstructor;
 
 /**
  * Standard User Roles in the system.
+ * <p>
+ * Each role owns a fixed bit of the principal's authority mask (see
+ * AuthorityBits). Never reuse or renumber one, only add new ones (0-15).
  */
 @Getter
 @RequiredArgsConstructor
 public enum UserRole {
-    ADMIN("Administrative access"),
-    USER("Standard user access"),
-    GUEST("Read-only access");
+    ADMIN(0, "Administrative access"),
+    USER(1, "Standard user access"),
+    GUEST(2, "Read-only access");
 
+    private final int bit;
     private final String description;
 }
@@ -0,0 +1,16 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.domain.enums.InventoryTransactionType;
+
+/**
+ * One hot stock journal entry, not yet written to the inventory tables.
+ *
+ * @param id        Redis stream entry id
+ * @param type      RESERVE or RELEASE
+ * @param productId Product ID
+ * @param quantity  Quantity reserved or released
+ * @param orderId   Order the stock was reserved or released for (null for
+ *                  entries journalled before orders were recorded)
+ */
+public record HotStockEntry(String id, InventoryTransactionType type, Long productId, int quantity, Long orderId) {
+}
@@ -0,0 +1,155 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.domain.entity.Inventory;
+import com.vsa.ecommerce.domain.entity.InventoryTransaction;
+import com.vsa.ecommerce.domain.enums.InventoryTransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * PostgreSQL side of hot stock mode: the hot_stock flag and the write-behind
+ * of journal entries into inventory and inventory_transactions.
+ */
+@Slf4j
+@Repository
+public class HotStockRepository {
+
+    /**
+     * Prefix of inventory_transactions.reference_id for journal entries,
+     * followed by the stream entry id.
+     */
+    static final String REFERENCE_PREFIX = "hot-stock:";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Available quantity of every product in hot stock mode.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> findHotStock() {
+        List<Object[]> rows = entityManager.createQuery(
+                "SELECT i.product.id, i.availableQuantity FROM Inventory i WHERE i.hotStock = true",
+                Object[].class)
+                .getResultList();
+
+        Map<Long, Integer> available = new HashMap<>();
+        for (Object[] row : rows) {
+            available.put((Long) row[0], (Integer) row[1]);
+        }
+        return available;
+    }
+
+    /**
+     * Orders among the given ids that exist, i.e. whose creating transaction
+     * committed.
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findExistingOrderIds(Collection<Long> orderIds) {
+        return new HashSet<>(entityManager.createQuery(
+                "SELECT o.id FROM Order o WHERE o.id IN :orderIds", Long.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList());
+    }
+
+    /**
+     * Switch a product in or out of hot stock mode. The row is locked, so
+     * cold reservations in flight finish first and later ones see the flag.
+     *
+     * @return the row's available quantity, empty if the product has no
+     *         inventory row
+     */
+    @Transactional
+    public Optional<Integer> setHotStock(Long productId, boolean hotStock) {
+        List<Inventory> inventories = entityManager.createQuery(
+                "SELECT i FROM Inventory i WHERE i.product.id = :productId", Inventory.class)
+                .setParameter("productId", productId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (inventories.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Inventory inventory = inventories.get(0);
+        inventory.setHotStock(hotStock);
+        return Optional.of(inventory.getAvailableQuantity());
+    }
+
+    /**
+     * Apply journal entries to inventory and record one inventory transaction
+     * each, in one transaction. Entries already recorded (a previous run
+     * committed but failed to delete them from the journal) are skipped.
+     *
+     * @return Number of entries applied
+     */
+    @Transactional
+    public int apply(List<HotStockEntry> entries) {
+        Set<String> referenceIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (HotStockEntry entry : entries) {
+            referenceIds.add(REFERENCE_PREFIX + entry.id());
+            productIds.add(entry.productId());
+        }
+
+        Set<String> recorded = new HashSet<>(entityManager.createQuery(
+                "SELECT t.referenceId FROM InventoryTransaction t WHERE t.referenceId IN :referenceIds",
+                String.class)
+                .setParameter("referenceIds", referenceIds)
+                .getResultList());
+
+        // Product id order, like InventoryReservationService, so row locks never deadlock
+        Map<Long, Inventory> inventories = new HashMap<>();
+        entityManager.createQuery(
+                "SELECT i FROM Inventory i WHERE i.product.id IN :productIds ORDER BY i.product.id",
+                Inventory.class)
+                .setParameter("productIds", productIds)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList()
+                .forEach(inventory -> inventories.put(inventory.getProduct().getId(), inventory));
+
+        int applied = 0;
+        for (HotStockEntry entry : entries) {
+            String referenceId = REFERENCE_PREFIX + entry.id();
+            Inventory inventory = inventories.get(entry.productId());
+            if (recorded.contains(referenceId)) {
+                continue;
+            }
+            if (inventory == null) {
+                log.warn("Hot stock journal entry {} for product {} has no inventory row, skipped", entry.id(),
+                        entry.productId());
+                continue;
+            }
+
+            int before = inventory.getAvailableQuantity();
+            int change = entry.type() == InventoryTransactionType.RESERVE ? -entry.quantity() : entry.quantity();
+            inventory.setAvailableQuantity(before + change);
+            inventory.setReservedQuantity(Math.max(inventory.getReservedQuantity() - change, 0));
+
+            InventoryTransaction transaction = new InventoryTransaction();
+            transaction.setInventory(inventory);
+            transaction.setType(entry.type());
+            transaction.setQuantityChange(change);
+            transaction.setQuantityBefore(before);
+            transaction.setQuantityAfter(before + change);
+            transaction.setReason(entry.orderId() != null
+                    ? "Hot stock write-behind, order " + entry.orderId()
+                    : "Hot stock write-behind");
+            transaction.setReferenceId(referenceId);
+            entityManager.persist(transaction);
+            applied++;
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,326 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.common.exception.BusinessException;
+import com.vsa.ecommerce.common.exception.BusinessStatus;
+import com.vsa.ecommerce.common.lock.DistributedLockService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot stock mode for flash sales: a product's available stock is held in
+ * Redis ({@link HotStockStore}) and reserved there by one Lua script per
+ * checkout, so thousands of concurrent checkouts of one product no longer
+ * contend for its inventory row.
+ * <p>
+ * Write-behind: every {@code inventory.hot-stock.flush-interval-ms} the journal
+ * is written to inventory and inventory_transactions in transactions of
+ * {@code inventory.hot-stock.batch-size} entries, then deleted from Redis. An
+ * entry's transaction row carries its stream id as reference, so an entry
+ * written but not deleted (crash in between) is skipped on the next run.
+ * <p>
+ * The writer, reconciliation and switching all run under one distributed lock,
+ * so on several nodes one writes at a time:
+ * - switch in: flag the row (locked, so cold reservations in flight finish
+ * first), then seed the Redis counter from it after writing the journal
+ * - switch out: remove the Redis counter (reservations fail from then on),
+ * write the journal, clear the flag; later checkouts use the row again
+ * - reconcile at startup and every {@code inventory.hot-stock.reconcile-interval-ms}:
+ * release reservations still pending after {@code inventory.hot-stock.orphan-grace-ms}
+ * whose order does not exist (the node died before commit or rollback), write
+ * the journal, seed missing counters of flagged products (e.g. after a Redis
+ * restart) and drop counters of products that are not flagged
+ * <p>
+ * A journal entry the database refuses (not a connection or lock problem) is
+ * retried on its own, so it does not hold up the entries behind it, and moved
+ * to the dead-letter stream after {@code inventory.hot-stock.max-attempts}
+ * failed runs.
+ * <p>
+ * While a product is hot its inventory row lags behind Redis by the unwritten
+ * journal.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HotStockService {
+
+    private static final String WRITER_LOCK_KEY = "hot_stock:writer";
+
+    /**
+     * Lease time of the writer lock: -1 lets Redisson renew it while the
+     * holder is alive, so a long journal backlog does not outlive the lock.
+     */
+    private static final long WRITER_LOCK_LEASE_MS = -1;
+
+    private final HotStockStore store;
+    private final HotStockRepository repository;
+    private final DistributedLockService lockService;
+
+    private final ScheduledExecutorService writerScheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "hot-stock-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @Value("${inventory.hot-stock.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${inventory.hot-stock.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.hot-stock.reconcile-interval-ms:60000}")
+    private long reconcileIntervalMs;
+
+    @Value("${inventory.hot-stock.switch-lock-wait-ms:5000}")
+    private long switchLockWaitMs;
+
+    @Value("${inventory.hot-stock.orphan-grace-ms:300000}")
+    private long orphanGraceMs;
+
+    @Value("${inventory.hot-stock.max-attempts:5}")
+    private int maxAttempts;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        runQuietly("reconciliation", this::reconcile);
+        writerScheduler.scheduleWithFixedDelay(() -> runQuietly("write-behind", this::flush), flushIntervalMs,
+                flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (reconcileIntervalMs > 0) {
+            writerScheduler.scheduleWithFixedDelay(() -> runQuietly("reconciliation", this::reconcile),
+                    reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writerScheduler.shutdown();
+        try {
+            writerScheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Leave the inventory rows as current as possible
+        runQuietly("write-behind", this::flush);
+    }
+
+    /**
+     * Serve a product's available stock from Redis.
+     *
+     * @return the available quantity in Redis
+     * @throws BusinessException NOT_FOUND if the product has no inventory row,
+     *                           LOCK_FAILURE if the writer lock is busy
+     */
+    public int enable(Long productId) {
+        lockWriter();
+        try {
+            // The row must include every journalled reservation before it seeds the counter
+            drainJournal();
+            int available = repository.setHotStock(productId, true)
+                    .orElseThrow(() -> new BusinessException(BusinessStatus.NOT_FOUND));
+            if (!store.seed(productId, available)) {
+                log.info("Product {} already in hot stock mode", productId);
+                return store.available(productId);
+            }
+            log.info("Product {} switched to hot stock mode, {} available", productId, available);
+            return available;
+        } finally {
+            lockService.unlock(WRITER_LOCK_KEY);
+        }
+    }
+
+    /**
+     * Serve a product's available stock from its inventory row again.
+     *
+     * @return the available quantity of the inventory row
+     * @throws BusinessException NOT_FOUND if the product has no inventory row,
+     *                           LOCK_FAILURE if the writer lock is busy
+     */
+    public int disable(Long productId) {
+        lockWriter();
+        try {
+            Integer remaining = store.retire(productId);
+            drainJournal();
+            int available = repository.setHotStock(productId, false)
+                    .orElseThrow(() -> new BusinessException(BusinessStatus.NOT_FOUND));
+            log.info("Product {} switched out of hot stock mode, {} available (Redis had {})", productId,
+                    available, remaining);
+            return available;
+        } finally {
+            lockService.unlock(WRITER_LOCK_KEY);
+        }
+    }
+
+    /**
+     * Write the journal to the inventory tables, unless another node is
+     * doing so.
+     *
+     * @return Number of journal entries applied
+     */
+    public int flush() {
+        if (!lockService.tryLock(WRITER_LOCK_KEY, 0, WRITER_LOCK_LEASE_MS)) {
+            return 0;
+        }
+        try {
+            return drainJournal();
+        } finally {
+            lockService.unlock(WRITER_LOCK_KEY);
+        }
+    }
+
+    /**
+     * Bring the Redis counters in line with the hot_stock flags.
+     */
+    public void reconcile() {
+        if (!lockService.tryLock(WRITER_LOCK_KEY, switchLockWaitMs, WRITER_LOCK_LEASE_MS)) {
+            log.warn("Hot stock reconciliation skipped, writer lock busy");
+            return;
+        }
+        try {
+            releaseOrphans();
+            drainJournal();
+            Map<Long, Integer> hotStock = repository.findHotStock();
+            Set<Long> counted = store.hotProductIds();
+            hotStock.forEach((productId, available) -> {
+                if (!counted.contains(productId) && store.seed(productId, available)) {
+                    log.warn("Hot stock counter of product {} missing in Redis, seeded with {}", productId,
+                            available);
+                }
+            });
+            for (Long productId : counted) {
+                if (!hotStock.containsKey(productId)) {
+                    store.retire(productId);
+                    log.warn("Hot stock counter of product {} dropped, product is not in hot stock mode", productId);
+                }
+            }
+        } finally {
+            lockService.unlock(WRITER_LOCK_KEY);
+        }
+    }
+
+    /**
+     * Settle reservations pending for longer than the grace period: release
+     * those whose order does not exist, confirm the others. Called under the
+     * writer lock.
+     *
+     * @return Number of orders whose reservation was released
+     */
+    int releaseOrphans() {
+        Set<Long> pending = store.pendingOrderIds(orphanGraceMs);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> committed = repository.findExistingOrderIds(pending);
+        int released = 0;
+        for (Long orderId : pending) {
+            if (committed.contains(orderId)) {
+                store.confirm(orderId);
+            } else if (store.releasePending(orderId) > 0) {
+                log.warn("Hot stock reserved for order {} released, the order was never committed", orderId);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    private int drainJournal() {
+        int applied = 0;
+        List<HotStockEntry> entries;
+        do {
+            entries = store.readJournal(batchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+            int batchApplied;
+            try {
+                batchApplied = repository.apply(entries);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                log.warn("Hot stock journal batch refused, writing its entries one by one", e);
+                applied += applyEach(entries);
+                // A refused entry is still at the head: retry it on the next run,
+                // so each run counts at most one failed attempt per entry
+                break;
+            }
+            store.deleteJournal(entries);
+            applied += batchApplied;
+        } while (entries.size() == batchSize);
+
+        if (applied > 0) {
+            log.debug("Hot stock write-behind applied {} journal entries", applied);
+        }
+        return applied;
+    }
+
+    /**
+     * Write entries in a transaction each, counting a failed attempt for each
+     * entry the database refuses.
+     */
+    private int applyEach(List<HotStockEntry> entries) {
+        int applied = 0;
+        for (HotStockEntry entry : entries) {
+            List<HotStockEntry> single = List.of(entry);
+            try {
+                applied += repository.apply(single);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                long attempts = store.recordFailure(entry.id());
+                if (attempts >= maxAttempts) {
+                    store.deadLetter(entry.id(), e.toString());
+                    log.error("Hot stock journal entry {} failed {} times, moved to the dead-letter stream", entry,
+                            attempts, e);
+                } else {
+                    log.warn("Hot stock journal entry {} failed (attempt {} of {})", entry, attempts, maxAttempts, e);
+                }
+                continue;
+            }
+            store.deleteJournal(single);
+        }
+        return applied;
+    }
+
+    /**
+     * Failures that say nothing about the entry (database unreachable, lock
+     * timeout): the journal is kept as is and retried on the next run.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    private void lockWriter() {
+        if (!lockService.tryLock(WRITER_LOCK_KEY, switchLockWaitMs, WRITER_LOCK_LEASE_MS)) {
+            throw new BusinessException(BusinessStatus.LOCK_FAILURE);
+        }
+    }
+
+    private void runQuietly(String task, Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (Exception e) {
+            log.warn("Hot stock {} failed, retried on the next run", task, e);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.common.util.RedisScriptUtil;
+import com.vsa.ecommerce.domain.enums.InventoryTransactionType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * Redis side of hot stock mode: available quantities and the journal of
+ * reservations not yet written to PostgreSQL.
+ * <p>
+ * Storage (one hash tag, so a checkout spanning several hot products is one
+ * script in one cluster slot):
+ * - {@code hot_stock:{stock}:available} hash: productId -> available quantity;
+ * a product is served from Redis exactly while it has a field here
+ * - {@code hot_stock:{stock}:journal} stream: one entry per reserved or
+ * released line (type, product, quantity, order), deleted once written to the
+ * inventory tables by {@link HotStockService}
+ * - {@code hot_stock:{stock}:pending} sorted set (order id by reservation
+ * time) and {@code hot_stock:{stock}:pending_lines} hash (order id ->
+ * "product:quantity,..."): reservations whose transaction has not been seen
+ * to commit; confirmed after commit, released after rollback, and released
+ * by reconciliation if the node died in between
+ * - {@code hot_stock:{stock}:attempts} hash: failed write attempts per journal
+ * entry
+ * - {@code hot_stock:{stock}:dead_letter} stream: journal entries that kept
+ * failing, with the entry id and the last error; kept for manual repair
+ * <p>
+ * The journal is only as durable as Redis persistence; run Redis with AOF
+ * when hot stock mode is used.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotStockStore {
+
+    private static final String AVAILABLE_KEY = "hot_stock:{stock}:available";
+    private static final String JOURNAL_KEY = "hot_stock:{stock}:journal";
+    private static final String PENDING_KEY = "hot_stock:{stock}:pending";
+    private static final String PENDING_LINES_KEY = "hot_stock:{stock}:pending_lines";
+    private static final String ATTEMPTS_KEY = "hot_stock:{stock}:attempts";
+    private static final String DEAD_LETTER_KEY = "hot_stock:{stock}:dead_letter";
+
+    /**
+     * Approximate cap of the dead-letter stream.
+     */
+    private static final int DEAD_LETTER_MAX_LENGTH = 10_000;
+
+    /**
+     * KEYS[1] available hash, KEYS[2] journal, KEYS[3] pending set, KEYS[4]
+     * pending lines; ARGV[1] order id, then pairs of product id and quantity.
+     * Reserves all lines or none and records them as pending for the order,
+     * stamped with the server time. Returns pairs of product id and available
+     * quantity for the lines that cannot be served; empty when reserved. A
+     * product without a field (not or no longer hot) has nothing available.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local order = ARGV[1] "
+                    + "local shortfalls = {} "
+                    + "for i = 2, #ARGV, 2 do "
+                    + "local available = tonumber(redis.call('HGET', KEYS[1], ARGV[i]) or '0') "
+                    + "if available < tonumber(ARGV[i + 1]) then "
+                    + "shortfalls[#shortfalls + 1] = ARGV[i] "
+                    + "shortfalls[#shortfalls + 1] = tostring(math.max(available, 0)) end "
+                    + "end "
+                    + "if #shortfalls > 0 then return shortfalls end "
+                    + "local lines = {} "
+                    + "for i = 2, #ARGV, 2 do "
+                    + "redis.call('HINCRBY', KEYS[1], ARGV[i], '-' .. ARGV[i + 1]) "
+                    + "redis.call('XADD', KEYS[2], '*', 'type', 'RESERVE', 'product', ARGV[i], "
+                    + "'quantity', ARGV[i + 1], 'order', order) "
+                    + "lines[#lines + 1] = ARGV[i] .. ':' .. ARGV[i + 1] "
+                    + "end "
+                    + "local pending = table.concat(lines, ',') "
+                    + "local previous = redis.call('HGET', KEYS[4], order) "
+                    + "if previous then pending = previous .. ',' .. pending end "
+                    + "redis.call('HSET', KEYS[4], order, pending) "
+                    + "local time = redis.call('TIME') "
+                    + "redis.call('ZADD', KEYS[3], 'NX', time[1] .. string.format('%03d', math.floor(time[2] / 1000)), order) "
+                    + "return shortfalls",
+            List.class);
+
+    /**
+     * KEYS[1] available hash, KEYS[2] journal; ARGV[1] order id, then pairs of
+     * product id and quantity. The counter is only raised while the product is
+     * hot; the journal entry is always written, so a release racing a switch
+     * out of hot mode still reaches the inventory row.
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV, 2 do "
+                    + "if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 1 then "
+                    + "redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "redis.call('XADD', KEYS[2], '*', 'type', 'RELEASE', 'product', ARGV[i], "
+                    + "'quantity', ARGV[i + 1], 'order', ARGV[1]) "
+                    + "end "
+                    + "return (#ARGV - 1) / 2",
+            Long.class);
+
+    /**
+     * KEYS[1] available hash, KEYS[2] journal, KEYS[3] pending set, KEYS[4]
+     * pending lines; ARGV[1] order id. Releases the order's pending lines like
+     * RELEASE_SCRIPT and forgets them, so a second call releases nothing.
+     * Returns the number of lines released.
+     */
+    private static final RedisScript<Long> RELEASE_PENDING_SCRIPT = new DefaultRedisScript<>(
+            "local pending = redis.call('HGET', KEYS[4], ARGV[1]) "
+                    + "redis.call('ZREM', KEYS[3], ARGV[1]) "
+                    + "if not pending then return 0 end "
+                    + "redis.call('HDEL', KEYS[4], ARGV[1]) "
+                    + "local count = 0 "
+                    + "for product, quantity in string.gmatch(pending, '(%d+):(%d+)') do "
+                    + "if redis.call('HEXISTS', KEYS[1], product) == 1 then "
+                    + "redis.call('HINCRBY', KEYS[1], product, quantity) end "
+                    + "redis.call('XADD', KEYS[2], '*', 'type', 'RELEASE', 'product', product, "
+                    + "'quantity', quantity, 'order', ARGV[1]) "
+                    + "count = count + 1 "
+                    + "end "
+                    + "return count",
+            Long.class);
+
+    /**
+     * KEYS[1] pending set, KEYS[2] pending lines; ARGV[1] order id. Forgets
+     * an order's pending lines once its transaction committed.
+     */
+    private static final RedisScript<Long> CONFIRM_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREM', KEYS[1], ARGV[1]) "
+                    + "return redis.call('HDEL', KEYS[2], ARGV[1])",
+            Long.class);
+
+    /**
+     * KEYS[1] journal, KEYS[2] attempts; ARGV journal entry ids. Deletes the
+     * entries and their failure counts.
+     */
+    private static final RedisScript<Long> DELETE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HDEL', KEYS[2], unpack(ARGV)) "
+                    + "return redis.call('XDEL', KEYS[1], unpack(ARGV))",
+            Long.class);
+
+    /**
+     * KEYS[1] journal, KEYS[2] attempts, KEYS[3] dead letter; ARGV[1] entry id,
+     * ARGV[2] error, ARGV[3] dead-letter max length. Copies the entry's fields
+     * to the dead-letter stream (with "entry" and "error") and deletes it from
+     * the journal. Returns 0 if the entry no longer exists.
+     */
+    private static final RedisScript<Long> DEAD_LETTER_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HDEL', KEYS[2], ARGV[1]) "
+                    + "local entries = redis.call('XRANGE', KEYS[1], ARGV[1], ARGV[1]) "
+                    + "if #entries == 0 then return 0 end "
+                    + "local fields = entries[1][2] "
+                    + "fields[#fields + 1] = 'entry' "
+                    + "fields[#fields + 1] = ARGV[1] "
+                    + "fields[#fields + 1] = 'error' "
+                    + "fields[#fields + 1] = ARGV[2] "
+                    + "redis.call('XADD', KEYS[3], 'MAXLEN', '~', ARGV[3], '*', unpack(fields)) "
+                    + "redis.call('XDEL', KEYS[1], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] available hash; ARGV[1] product id. Removes the product's
+     * counter and returns its last value (nil if it had none).
+     */
+    private static final RedisScript<String> RETIRE_SCRIPT = new DefaultRedisScript<>(
+            "local available = redis.call('HGET', KEYS[1], ARGV[1]) "
+                    + "redis.call('HDEL', KEYS[1], ARGV[1]) "
+                    + "return available",
+            String.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @PostConstruct
+    public void preloadScripts() {
+        RedisScriptUtil.preload(redisTemplate, RESERVE_SCRIPT, RELEASE_SCRIPT, RELEASE_PENDING_SCRIPT,
+                CONFIRM_SCRIPT, RETIRE_SCRIPT, DELETE_SCRIPT, DEAD_LETTER_SCRIPT);
+    }
+
+    /**
+     * Reserve hot stock for all lines or none, journalling every line. The
+     * lines stay pending for the order until {@link #confirm} or
+     * {@link #releasePending}.
+     *
+     * @param lines   Quantity per product ID
+     * @param orderId Order the stock is reserved for
+     * @return the lines that cannot be served; empty if everything was
+     *         reserved
+     */
+    public List<StockShortfall> reserve(SortedMap<Long, Integer> lines, Long orderId) {
+        @SuppressWarnings("unchecked")
+        List<Object> result = redisTemplate.execute(RESERVE_SCRIPT,
+                List.of(AVAILABLE_KEY, JOURNAL_KEY, PENDING_KEY, PENDING_LINES_KEY), arguments(orderId, lines));
+
+        List<StockShortfall> shortfalls = new ArrayList<>();
+        if (result != null) {
+            for (int i = 0; i + 1 < result.size(); i += 2) {
+                Long productId = Long.valueOf(result.get(i).toString());
+                shortfalls.add(new StockShortfall(productId, lines.get(productId),
+                        Integer.parseInt(result.get(i + 1).toString())));
+            }
+        }
+        return shortfalls;
+    }
+
+    /**
+     * Return hot stock and journal the release of every line.
+     *
+     * @param lines   Quantity per product ID
+     * @param orderId Order the stock is released for
+     */
+    public void release(SortedMap<Long, Integer> lines, Long orderId) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(AVAILABLE_KEY, JOURNAL_KEY), arguments(orderId, lines));
+    }
+
+    /**
+     * Release an order's pending reservation, if it still has one.
+     *
+     * @return Number of lines released (0 if nothing was pending)
+     */
+    public int releasePending(Long orderId) {
+        Long released = redisTemplate.execute(RELEASE_PENDING_SCRIPT,
+                List.of(AVAILABLE_KEY, JOURNAL_KEY, PENDING_KEY, PENDING_LINES_KEY), orderId.toString());
+        return released != null ? released.intValue() : 0;
+    }
+
+    /**
+     * Keep an order's pending reservation; its transaction committed.
+     */
+    public void confirm(Long orderId) {
+        redisTemplate.execute(CONFIRM_SCRIPT, List.of(PENDING_KEY, PENDING_LINES_KEY), orderId.toString());
+    }
+
+    /**
+     * Orders whose reservation has been pending for at least the given time,
+     * by the Redis server clock.
+     */
+    public Set<Long> pendingOrderIds(long olderThanMillis) {
+        Long now = redisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().time());
+        if (now == null) {
+            return Set.of();
+        }
+        Set<String> orderIds = redisTemplate.opsForZSet().rangeByScore(PENDING_KEY, 0, now - olderThanMillis);
+        return orderIds == null ? Set.of()
+                : orderIds.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    /**
+     * Start serving a product from Redis with the given available quantity.
+     * A counter already present is kept.
+     *
+     * @return true if the counter was created
+     */
+    public boolean seed(Long productId, int available) {
+        return Boolean.TRUE.equals(redisTemplate.opsForHash()
+                .putIfAbsent(AVAILABLE_KEY, productId.toString(), Integer.toString(available)));
+    }
+
+    /**
+     * Stop serving a product from Redis; its reservations fail from now on.
+     *
+     * @return the last available quantity, or null if the product was not hot
+     */
+    public Integer retire(Long productId) {
+        String available = redisTemplate.execute(RETIRE_SCRIPT, List.of(AVAILABLE_KEY), productId.toString());
+        return available != null ? Integer.valueOf(available) : null;
+    }
+
+    /**
+     * Available hot stock of a product, or null if it is not served from
+     * Redis.
+     */
+    public Integer available(Long productId) {
+        Object available = redisTemplate.opsForHash().get(AVAILABLE_KEY, productId.toString());
+        return available != null ? Integer.valueOf(available.toString()) : null;
+    }
+
+    /**
+     * Products currently served from Redis.
+     */
+    public Set<Long> hotProductIds() {
+        return redisTemplate.opsForHash().keys(AVAILABLE_KEY).stream()
+                .map(field -> Long.valueOf(field.toString()))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Oldest journal entries, in journal order. Entries that cannot be parsed
+     * are moved to the dead-letter stream instead of being returned.
+     *
+     * @param count Maximum number of entries
+     */
+    public List<HotStockEntry> readJournal(int count) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(JOURNAL_KEY, Range.unbounded(), Limit.limit().count(count));
+        if (records == null) {
+            return List.of();
+        }
+
+        List<HotStockEntry> entries = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            String id = record.getId().getValue();
+            Map<Object, Object> fields = record.getValue();
+            try {
+                Object orderId = fields.get("order");
+                entries.add(new HotStockEntry(id,
+                        InventoryTransactionType.valueOf(fields.get("type").toString()),
+                        Long.valueOf(fields.get("product").toString()),
+                        Integer.parseInt(fields.get("quantity").toString()),
+                        orderId != null ? Long.valueOf(orderId.toString()) : null));
+            } catch (RuntimeException e) {
+                log.error("Hot stock journal entry {} cannot be parsed, moved to the dead-letter stream: {}", id,
+                        fields, e);
+                deadLetter(id, "Malformed journal entry: " + e);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Delete journal entries written to the inventory tables.
+     */
+    public void deleteJournal(List<HotStockEntry> entries) {
+        if (!entries.isEmpty()) {
+            redisTemplate.execute(DELETE_SCRIPT, List.of(JOURNAL_KEY, ATTEMPTS_KEY),
+                    entries.stream().map(HotStockEntry::id).toArray());
+        }
+    }
+
+    /**
+     * Count a failed attempt to write a journal entry.
+     *
+     * @return Number of failed attempts so far
+     */
+    public long recordFailure(String entryId) {
+        return redisTemplate.opsForHash().increment(ATTEMPTS_KEY, entryId, 1);
+    }
+
+    /**
+     * Move a journal entry to the dead-letter stream, so the entries behind
+     * it can be written.
+     *
+     * @param entryId Journal entry id
+     * @param error   Last error, kept with the entry
+     */
+    public void deadLetter(String entryId, String error) {
+        redisTemplate.execute(DEAD_LETTER_SCRIPT, List.of(JOURNAL_KEY, ATTEMPTS_KEY, DEAD_LETTER_KEY), entryId,
+                error, Integer.toString(DEAD_LETTER_MAX_LENGTH));
+    }
+
+    /**
+     * Oldest dead-lettered entries: the journal fields plus "entry" (the
+     * journal entry id) and "error".
+     *
+     * @param count Maximum number of entries
+     */
+    public List<Map<String, String>> readDeadLetters(int count) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(DEAD_LETTER_KEY, Range.unbounded(), Limit.limit().count(count));
+        if (records == null) {
+            return List.of();
+        }
+
+        List<Map<String, String>> deadLetters = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            record.getValue().forEach((field, value) -> fields.put(field.toString(), value.toString()));
+            deadLetters.add(fields);
+        }
+        return deadLetters;
+    }
+
+    private static Object[] arguments(Long orderId, SortedMap<Long, Integer> lines) {
+        Object[] arguments = new Object[lines.size() * 2 + 1];
+        arguments[0] = orderId.toString();
+        int index = 1;
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            arguments[index++] = line.getKey().toString();
+            arguments[index++] = line.getValue().toString();
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,282 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.common.exception.BusinessException;
+import com.vsa.ecommerce.common.exception.BusinessStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based stock reservation shared by checkout, create-order and cancel.
+ * <p>
+ * A reservation costs two round trips whatever the number of lines:
+ * - one {@code product_id IN (...)} query for the available quantities, so all
+ * shortfalls are reported together
+ * - one JDBC batch of conditional UPDATEs
+ * ({@code available_quantity >= :quantity}); the database guards against
+ * overselling, so concurrent orders do not fail on {@code @Version}
+ * <p>
+ * Lines are merged per product and updated in product id order, so concurrent
+ * reservations lock rows in the same order and cannot deadlock. An UPDATE that
+ * matches no row (stock taken concurrently after the check) is reported as a
+ * shortfall and the lines already applied are released again.
+ * <p>
+ * Products in hot stock mode are reserved in Redis instead ({@link HotStockService}):
+ * after the other lines, in one script that also records them as pending for
+ * the order. After commit the pending record is dropped; after rollback the
+ * lines are released. If the node dies before either, reconciliation releases
+ * pending lines of orders that never committed. Releases are sent to Redis
+ * after commit. The cold UPDATEs skip hot rows, so a product switched to hot
+ * stock concurrently is never changed in both places.
+ * <p>
+ * Rows are changed in SQL: Inventory entities already loaded in the
+ * persistence context are not refreshed. Must run inside the caller's
+ * transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class InventoryReservationService {
+
+    private static final String RESERVE_SQL = "UPDATE inventory"
+            + " SET available_quantity = available_quantity - ?, reserved_quantity = reserved_quantity + ?,"
+            + " version = COALESCE(version, 0) + 1, updated_at = ?"
+            + " WHERE product_id = ? AND available_quantity >= ? AND hot_stock = false";
+
+    private static final String RELEASE_SQL = "UPDATE inventory"
+            + " SET available_quantity = available_quantity + ?,"
+            + " reserved_quantity = GREATEST(reserved_quantity - ?, 0),"
+            + " version = COALESCE(version, 0) + 1, updated_at = ?"
+            + " WHERE product_id = ? AND hot_stock = false";
+
+    private final HotStockStore hotStockStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Reserve stock for all lines or none.
+     *
+     * @param quantities Quantity per product ID
+     * @param orderId    Order the stock is reserved for; must be persisted in
+     *                   the same transaction
+     * @throws BusinessException STOCK_SHORTFALL listing every line that
+     *                           cannot be served
+     */
+    public void reserve(Map<Long, Integer> quantities, Long orderId) {
+        List<StockShortfall> shortfalls = tryReserve(quantities, orderId);
+        if (!shortfalls.isEmpty()) {
+            throw new BusinessException(BusinessStatus.STOCK_SHORTFALL,
+                    shortfalls.stream().map(StockShortfall::toString).collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * Reserve stock for all lines or none.
+     *
+     * @param quantities Quantity per product ID
+     * @param orderId    Order the stock is reserved for; must be persisted in
+     *                   the same transaction
+     * @return the lines that cannot be served; empty if everything was
+     *         reserved, nothing is reserved otherwise
+     */
+    public List<StockShortfall> tryReserve(Map<Long, Integer> quantities, Long orderId) {
+        Objects.requireNonNull(orderId, "orderId");
+        SortedMap<Long, Integer> lines = sorted(quantities);
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+
+        // 1. Check every line against one read of the affected rows; hot stock is checked in Redis
+        Map<Long, StockRow> rows = findStockRows(lines);
+        SortedMap<Long, Integer> coldLines = new TreeMap<>();
+        SortedMap<Long, Integer> hotLines = new TreeMap<>();
+        List<StockShortfall> shortfalls = new ArrayList<>();
+        lines.forEach((productId, quantity) -> {
+            StockRow row = rows.get(productId);
+            if (row != null && row.hotStock()) {
+                hotLines.put(productId, quantity);
+                return;
+            }
+            int inStock = row != null ? row.available() : 0;
+            if (inStock < quantity) {
+                shortfalls.add(new StockShortfall(productId, quantity, inStock));
+            }
+            coldLines.put(productId, quantity);
+        });
+        if (!shortfalls.isEmpty()) {
+            return shortfalls;
+        }
+
+        // 2. Conditional updates in one batch; a line matching no row lost a race
+        SortedMap<Long, Integer> applied = new TreeMap<>();
+        if (!coldLines.isEmpty()) {
+            int[] updateCounts = executeBatch(RESERVE_SQL, coldLines, true);
+            int index = 0;
+            for (Map.Entry<Long, Integer> line : coldLines.entrySet()) {
+                if (updateCounts[index++] == 0) {
+                    shortfalls.add(new StockShortfall(line.getKey(), line.getValue(),
+                            rows.get(line.getKey()).available()));
+                } else {
+                    applied.put(line.getKey(), line.getValue());
+                }
+            }
+            if (!shortfalls.isEmpty()) {
+                log.warn("Stock taken concurrently, reservation undone: {}", shortfalls);
+            }
+        }
+
+        // 3. Hot stock lines in one Redis script, all or none
+        if (shortfalls.isEmpty() && !hotLines.isEmpty()) {
+            shortfalls.addAll(hotStockStore.reserve(hotLines, orderId));
+        }
+
+        if (!shortfalls.isEmpty()) {
+            if (!applied.isEmpty()) {
+                executeBatch(RELEASE_SQL, applied, false);
+            }
+        } else if (!hotLines.isEmpty()) {
+            settleHotStockOnCompletion(orderId);
+        }
+        return shortfalls;
+    }
+
+    /**
+     * Return reserved stock to available stock. Products without an inventory
+     * row are skipped.
+     *
+     * @param quantities Quantity per product ID
+     * @param orderId    Order the stock was reserved for
+     */
+    public void release(Map<Long, Integer> quantities, Long orderId) {
+        SortedMap<Long, Integer> lines = sorted(quantities);
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        Map<Long, StockRow> rows = findStockRows(lines);
+        SortedMap<Long, Integer> coldLines = new TreeMap<>();
+        SortedMap<Long, Integer> hotLines = new TreeMap<>();
+        lines.forEach((productId, quantity) -> {
+            StockRow row = rows.get(productId);
+            if (row != null) {
+                (row.hotStock() ? hotLines : coldLines).put(productId, quantity);
+            }
+        });
+
+        if (!coldLines.isEmpty()) {
+            // A line matching no row was switched to hot stock concurrently
+            int[] updateCounts = executeBatch(RELEASE_SQL, coldLines, false);
+            int index = 0;
+            for (Map.Entry<Long, Integer> line : coldLines.entrySet()) {
+                if (updateCounts[index++] == 0) {
+                    hotLines.put(line.getKey(), line.getValue());
+                }
+            }
+        }
+        if (!hotLines.isEmpty()) {
+            releaseHotStockAfterCommit(hotLines, orderId);
+        }
+    }
+
+    private static SortedMap<Long, Integer> sorted(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new BusinessException(BusinessStatus.INVALID_QUANTITY, quantity);
+            }
+            lines.put(productId, quantity);
+        });
+        return lines;
+    }
+
+    private Map<Long, StockRow> findStockRows(SortedMap<Long, Integer> lines) {
+        List<Object[]> rows = entityManager.createQuery(
+                "SELECT i.product.id, i.availableQuantity, i.hotStock FROM Inventory i"
+                        + " WHERE i.product.id IN :productIds ORDER BY i.product.id",
+                Object[].class)
+                .setParameter("productIds", lines.keySet())
+                .getResultList();
+
+        Map<Long, StockRow> stockRows = new HashMap<>();
+        for (Object[] row : rows) {
+            stockRows.put((Long) row[0], new StockRow((Integer) row[1], (Boolean) row[2]));
+        }
+        return stockRows;
+    }
+
+    private void settleHotStockOnCompletion(Long orderId) {
+        // An unknown outcome stays pending; reconciliation checks whether the order exists
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        hotStockStore.confirm(orderId);
+                    } else if (status == STATUS_ROLLED_BACK) {
+                        hotStockStore.releasePending(orderId);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to settle hot stock of order {}, left to reconciliation", orderId, e);
+                }
+            }
+        });
+    }
+
+    private void releaseHotStockAfterCommit(SortedMap<Long, Integer> lines, Long orderId) {
+        // Releasing before commit would return stock that a rollback keeps reserved
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    hotStockStore.release(lines, orderId);
+                } catch (Exception e) {
+                    log.error("Failed to release hot stock {} of order {}, it stays reserved until adjusted",
+                            lines, orderId, e);
+                }
+            }
+        });
+    }
+
+    private int[] executeBatch(String sql, SortedMap<Long, Integer> lines, boolean reserve) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+                    statement.setInt(1, line.getValue());
+                    statement.setInt(2, line.getValue());
+                    statement.setTimestamp(3, now);
+                    statement.setLong(4, line.getKey());
+                    if (reserve) {
+                        statement.setInt(5, line.getValue());
+                    }
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+
+    private record StockRow(int available, boolean hotStock) {
+    }
+}
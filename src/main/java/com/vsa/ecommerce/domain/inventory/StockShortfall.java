@@ -0,0 +1,17 @@
+package com.vsa.ecommerce.domain.inventory;
+
+/**
+ * A reservation line that could not be served.
+ *
+ * @param productId Product ID
+ * @param requested Quantity requested
+ * @param available Quantity available when checked (0 if the product has no
+ *                  inventory row)
+ */
+public record StockShortfall(Long productId, int requested, int available) {
+
+    @Override
+    public String toString() {
+        return "product " + productId + " (requested " + requested + ", available " + available + ")";
+    }
+}
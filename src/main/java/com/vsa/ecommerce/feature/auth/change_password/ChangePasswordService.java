@@ -3,7 +3,9 @@ package com.vsa.ecommerce.feature.auth.change_password;
 import com.vsa.ecommerce.common.abstraction.IService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
 import com.vsa.ecommerce.common.security.SecurityUtils;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
 import com.vsa.ecommerce.domain.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +22,8 @@ public class ChangePasswordService implements IService<ChangePasswordRequest, Ch
 
     private final ChangePasswordRepository changePasswordRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserSecurityVersionService securityVersionService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     @Transactional
@@ -42,6 +46,8 @@ public class ChangePasswordService implements IService<ChangePasswordRequest, Ch
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         changePasswordRepository.save(user);
+        securityVersionService.bumpAfterCommit(currentUserId);
+        userDetailsService.evictAfterCommit(currentUserId, user.getEmail());
 
         log.info("Password changed successfully for user: {} (ID: {})", user.getEmail(), currentUserId);
 
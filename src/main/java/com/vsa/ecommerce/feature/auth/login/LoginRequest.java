@@ -19,4 +19,11 @@ public class LoginRequest implements Request {
 
     @NotBlank(message = "Password is required")
     private String password;
+
+    /**
+     * Optional stable id of the client device ([A-Za-z0-9_-], up to 64
+     * chars). Logging in again with the same id replaces that device's
+     * session; without it every login opens a new session.
+     */
+    private String deviceId;
 }
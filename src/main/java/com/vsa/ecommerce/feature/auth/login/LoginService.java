@@ -5,8 +5,11 @@ import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.common.security.LoginAttemptService;
 import com.vsa.ecommerce.common.security.UserPrincipal;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
 import com.vsa.ecommerce.common.security.jwt.JwtProperties;
 import com.vsa.ecommerce.common.security.jwt.JwtTokenProvider;
+import com.vsa.ecommerce.common.security.session.RefreshSessionService;
+import com.vsa.ecommerce.common.security.session.SessionPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,8 +29,9 @@ public class LoginService implements IService<LoginRequest, LoginResponse> {
         private final JwtTokenProvider jwtTokenProvider;
         private final JwtProperties jwtProperties;
         private final AuthMapper authMapper;
-        private final org.springframework.data.redis.core.RedisTemplate<String, String> redisTemplate;
+        private final RefreshSessionService refreshSessionService;
         private final LoginAttemptService loginAttemptService;
+        private final UserSecurityVersionService securityVersionService;
 
         @Override
         public LoginResponse execute(LoginRequest request) {
@@ -54,22 +58,25 @@ public class LoginService implements IService<LoginRequest, LoginResponse> {
                         // Get authenticated user
                         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
-                        // Generate JWT access token
+                        // Generate JWT access token (one refresh session per device)
+                        long securityVersion = securityVersionService.currentVersion(userPrincipal.getId());
+                        String sessionId = refreshSessionService.newSessionId(request.getDeviceId());
                         String accessToken = jwtTokenProvider.generateAccessToken(
                                         userPrincipal.getId(),
                                         userPrincipal.getEmail(),
-                                        userPrincipal.getAuthorities());
+                                        userPrincipal.getAuthorityBits(),
+                                        securityVersion,
+                                        sessionId);
 
                         // Generate JWT refresh token
-                        String refreshToken = jwtTokenProvider.generateRefreshToken(userPrincipal.getId());
-
-                        // Store refresh token in Redis
-                        String redisKey = "refresh_token:" + userPrincipal.getId();
-                        redisTemplate.opsForValue().set(
-                                        redisKey,
-                                        refreshToken,
-                                        jwtProperties.getRefreshExpirationMs(),
-                                        java.util.concurrent.TimeUnit.MILLISECONDS);
+                        String refreshTokenId = refreshSessionService.newTokenId();
+                        long refreshExpiresAt = System.currentTimeMillis() + jwtProperties.getRefreshExpirationMs();
+                        String refreshToken = jwtTokenProvider.generateRefreshToken(userPrincipal.getId(),
+                                        securityVersion, sessionId, refreshTokenId, refreshExpiresAt);
+
+                        // Register the session in Redis (token id only, never the token)
+                        refreshSessionService.create(userPrincipal.getId(), sessionId, refreshTokenId,
+                                        refreshExpiresAt, SessionPrincipal.of(userPrincipal));
 
                         // Calculate token expirations
                         Long expiresIn = jwtProperties.getExpirationMs() / 1000;
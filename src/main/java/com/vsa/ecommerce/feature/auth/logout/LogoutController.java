@@ -30,4 +30,14 @@ public class LogoutController extends BaseController {
         }
         return ResponseEntity.ok(new EmptyResponse());
     }
+
+    @PostMapping("/logout/all")
+    public ResponseEntity<EmptyResponse> logoutAll(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            service.execute(LogoutRequest.builder().token(token).allSessions(true).build());
+        }
+        return ResponseEntity.ok(new EmptyResponse());
+    }
 }
@@ -11,4 +11,9 @@ public class LogoutRequest implements Request {
                           // access token short lived.
                           // But for security, we assume blacklisting the token passed (which might be
                           // access token extracted from header by controller).
+
+    /**
+     * End every session of the user (all devices), not only the token's.
+     */
+    private boolean allSessions;
 }
@@ -2,28 +2,80 @@ package com.vsa.ecommerce.feature.auth.logout;
 
 import com.vsa.ecommerce.common.abstraction.EmptyResponse;
 import com.vsa.ecommerce.common.abstraction.IService;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
+import com.vsa.ecommerce.common.security.jwt.JwtTokenProvider;
+import com.vsa.ecommerce.common.security.jwt.VerifiedToken;
+import com.vsa.ecommerce.common.security.revocation.TokenRevocationService;
+import com.vsa.ecommerce.common.security.session.RefreshSessionService;
 import com.vsa.ecommerce.domain.entity.TokenBlacklist;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
 
+/**
+ * Revokes the presented token until its expiry and ends its refresh session
+ * (the device's session only). With {@code allSessions}, ends every session
+ * and revokes every token of the user instead.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class LogoutService implements IService<LogoutRequest, EmptyResponse> {
 
     private final LogoutRepository repository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserSecurityVersionService securityVersionService;
+    private final RefreshSessionService refreshSessionService;
 
     @Override
     @Transactional
     public EmptyResponse execute(LogoutRequest request) {
+        Optional<VerifiedToken> verified = jwtTokenProvider.verify(request.getToken());
+        if (verified.isEmpty()) {
+            // Invalid or already expired: nothing left to revoke
+            return new EmptyResponse();
+        }
+
+        VerifiedToken token = verified.get();
+        Long userId = Long.valueOf(token.subject());
+
+        if (request.isAllSessions()) {
+            refreshSessionService.revokeAll(userId);
+            securityVersionService.bumpAfterCommit(userId);
+            return new EmptyResponse();
+        }
+        if (token.sessionId() != null) {
+            refreshSessionService.revoke(userId, token.sessionId());
+        } else {
+            // Issued before refresh sessions: the device cannot be told apart
+            refreshSessionService.revokeAll(userId);
+        }
+
+        if (token.tokenId() == null) {
+            // Issued before tokens carried an id: revoke all of the user's tokens
+            securityVersionService.bumpAfterCommit(userId);
+            return new EmptyResponse();
+        }
+        if (tokenRevocationService.isRevoked(token.tokenId())) {
+            return new EmptyResponse();
+        }
+
         TokenBlacklist blacklist = new TokenBlacklist();
-        blacklist.setToken(request.getToken());
-        // Expiry should ideally be parsed from token, but for now we set it to tomorrow
-        blacklist.setExpiryDate(LocalDateTime.now().plusDays(1));
+        blacklist.setToken(token.tokenId());
+        blacklist.setExpiryDate(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(token.expiresAtMillis()), ZoneId.systemDefault()));
 
         repository.save(blacklist);
+        tokenRevocationService.revokeAfterCommit(token.tokenId(), token.expiresAtMillis());
+
+        log.info("Token {} of user ID {} revoked", token.tokenId(), userId);
         return new EmptyResponse();
     }
 }
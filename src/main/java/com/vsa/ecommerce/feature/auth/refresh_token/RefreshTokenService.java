@@ -3,18 +3,23 @@ package com.vsa.ecommerce.feature.auth.refresh_token;
 import com.vsa.ecommerce.common.abstraction.IService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
 import com.vsa.ecommerce.common.security.UserPrincipal;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
 import com.vsa.ecommerce.common.security.jwt.JwtProperties;
 import com.vsa.ecommerce.common.security.jwt.JwtTokenProvider;
+import com.vsa.ecommerce.common.security.jwt.VerifiedToken;
+import com.vsa.ecommerce.common.security.session.RefreshSessionService;
+import com.vsa.ecommerce.common.security.session.SessionPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.security.core.userdetails.UserDetailsService;
-
-import java.util.concurrent.TimeUnit;
 
 /**
  * Service to refresh access token using a valid refresh token.
+ * <p>
+ * The refresh session is rotated in one Redis round trip, which also returns
+ * the user's security version and the stored principal claims; the user is
+ * only loaded when the session has no principal stored (after a user change).
  */
 @Slf4j
 @org.springframework.stereotype.Service
@@ -23,47 +28,64 @@ public class RefreshTokenService implements IService<RefreshTokenRequest, Refres
 
     private final JwtTokenProvider jwtTokenProvider;
     private final JwtProperties jwtProperties;
-    private final RedisTemplate<String, String> redisTemplate;
-    private final UserDetailsService userDetailsService;
+    private final RefreshSessionService refreshSessionService;
+    private final CustomUserDetailsService userDetailsService;
+    private final UserSecurityVersionService securityVersionService;
 
     @Override
     public RefreshTokenResponse execute(RefreshTokenRequest request) {
         String refreshToken = request.getRefreshToken();
 
         // 1. Validate JWT structure and signature
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
-            throw new BusinessException(BusinessStatus.UNAUTHORIZED, "Invalid refresh token");
+        VerifiedToken verified = jwtTokenProvider.verify(refreshToken)
+                .filter(VerifiedToken::isRefreshToken)
+                .orElseThrow(() -> new BusinessException(BusinessStatus.UNAUTHORIZED, "Invalid refresh token"));
+
+        // 2. Extract User ID and reject tokens issued before the user's last
+        // password change or status change (local check, no round trip)
+        Long userId = Long.valueOf(verified.subject());
+        if (!securityVersionService.isCurrent(userId, verified.securityVersion())) {
+            log.warn("Refresh token revoked by security version for user ID: {}", userId);
+            throw new BusinessException(BusinessStatus.UNAUTHORIZED, "Refresh token is invalid or expired");
         }
 
-        // 2. Extract User ID
-        Long userId = Long.valueOf(jwtTokenProvider.getSubject(refreshToken));
+        // Tokens issued before refresh sessions have no session to rotate
+        String sessionId = verified.sessionId();
+        if (sessionId == null || verified.tokenId() == null) {
+            log.warn("Refresh token without session for user ID: {}", userId);
+            throw new BusinessException(BusinessStatus.UNAUTHORIZED, "Refresh token is invalid or expired");
+        }
 
-        // 3. Check Redis for token existence and match
-        String redisKey = "refresh_token:" + userId;
-        String storedToken = redisTemplate.opsForValue().get(redisKey);
+        // 3. Rotate the session to a new token id (atomic, one round trip)
+        String newRefreshTokenId = refreshSessionService.newTokenId();
+        long refreshExpiresAt = System.currentTimeMillis() + jwtProperties.getRefreshExpirationMs();
+        RefreshSessionService.Rotation rotation = refreshSessionService.rotate(userId, sessionId,
+                verified.tokenId(), verified.securityVersion(), newRefreshTokenId, refreshExpiresAt);
 
-        if (storedToken == null || !storedToken.equals(refreshToken)) {
-            log.warn("Refresh token mismatch or expired in Redis for user ID: {}", userId);
+        if (!rotation.rotated()) {
+            log.warn("Refresh session rejected for user ID: {}", userId);
             throw new BusinessException(BusinessStatus.UNAUTHORIZED, "Refresh token is invalid or expired");
         }
 
-        // 4. Load user details
-        UserPrincipal userPrincipal = (UserPrincipal) userDetailsService.loadUserByUsername(
-                jwtTokenProvider.getEmailFromToken(refreshToken));
+        // 4. Principal claims from the session; load the user only if missing
+        SessionPrincipal principal = rotation.principal();
+        if (principal == null) {
+            principal = SessionPrincipal.of((UserPrincipal) userDetailsService.loadUserById(userId));
+            refreshSessionService.storePrincipal(userId, principal);
+        }
 
         // Re-generate access token
+        long securityVersion = rotation.securityVersion();
         String newAccessToken = jwtTokenProvider.generateAccessToken(
-                userPrincipal.getId(),
-                userPrincipal.getEmail(),
-                userPrincipal.getAuthorities());
+                userId,
+                principal.email(),
+                principal.authorityBits(),
+                securityVersion,
+                sessionId);
 
-        // Optional: Rotate refresh token
-        String newRefreshToken = jwtTokenProvider.generateRefreshToken(userId);
-        redisTemplate.opsForValue().set(
-                redisKey,
-                newRefreshToken,
-                jwtProperties.getRefreshExpirationMs(),
-                TimeUnit.MILLISECONDS);
+        // Rotated refresh token (the previous one is no longer accepted)
+        String newRefreshToken = jwtTokenProvider.generateRefreshToken(userId, securityVersion, sessionId,
+                newRefreshTokenId, refreshExpiresAt);
 
         Long expiresIn = jwtProperties.getExpirationMs() / 1000;
         Long refreshExpiresIn = jwtProperties.getRefreshExpirationMs() / 1000;
@@ -5,6 +5,7 @@ import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.common.mail.MailService;
 import com.vsa.ecommerce.common.otp.OtpService;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
 import com.vsa.ecommerce.domain.entity.Role;
 import com.vsa.ecommerce.domain.entity.User;
 import com.vsa.ecommerce.domain.enums.UserRole;
@@ -32,6 +33,7 @@ public class RegisterService implements IService<RegisterRequest, RegisterRespon
     private final AuthMapper authMapper;
     private final OtpService otpService;
     private final MailService mailService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     @Transactional
@@ -67,6 +69,8 @@ public class RegisterService implements IService<RegisterRequest, RegisterRespon
         // 4. Save user
         User savedUser = userRepository.save(user);
         log.info("User registered successfully with ID: {}. Status set to PENDING.", savedUser.getId());
+        // Drop a cached "not found" for the email
+        userDetailsService.evictAfterCommit(savedUser.getId(), savedUser.getEmail());
 
         // 5. Send verification OTP
         String otp = otpService.generateOtp(savedUser.getEmail());
@@ -4,6 +4,8 @@ import com.vsa.ecommerce.common.abstraction.IService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.common.otp.OtpService;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
 import com.vsa.ecommerce.domain.entity.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +23,8 @@ public class ResetPasswordService implements IService<ResetPasswordRequest, Rese
     private final ResetPasswordRepository repository;
     private final OtpService otpService;
     private final PasswordEncoder passwordEncoder;
+    private final UserSecurityVersionService securityVersionService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     @Transactional
@@ -42,6 +46,8 @@ public class ResetPasswordService implements IService<ResetPasswordRequest, Rese
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         repository.save(user);
+        securityVersionService.bumpAfterCommit(user.getId());
+        userDetailsService.evictAfterCommit(user.getId(), user.getEmail());
 
         log.info("Password reset successfully for email: {}", request.getEmail());
 
@@ -4,6 +4,7 @@ import com.vsa.ecommerce.common.abstraction.IService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.common.otp.OtpService;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
 import com.vsa.ecommerce.domain.entity.User;
 import com.vsa.ecommerce.domain.enums.UserStatus;
 import com.vsa.ecommerce.feature.auth.register.RegisterRepository;
@@ -21,6 +22,7 @@ public class VerifyEmailService implements IService<VerifyEmailRequest, VerifyEm
 
     private final RegisterRepository userRepository;
     private final OtpService otpService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     @Transactional
@@ -46,6 +48,7 @@ public class VerifyEmailService implements IService<VerifyEmailRequest, VerifyEm
         user.setStatus(UserStatus.ACTIVE);
         user.setEnabled(true); // Should enable the user here
         userRepository.save(user);
+        userDetailsService.evictAfterCommit(user.getId(), user.getEmail());
 
         log.info("Email verified successfully for: {}", request.getEmail());
 
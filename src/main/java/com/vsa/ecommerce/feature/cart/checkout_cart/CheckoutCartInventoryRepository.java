@@ -1,14 +0,0 @@
-package com.vsa.ecommerce.feature.cart.checkout_cart;
-
-import com.vsa.ecommerce.domain.entity.Inventory;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
-import java.util.Optional;
-
-@Repository
-public interface CheckoutCartInventoryRepository extends JpaRepository<Inventory, Long> {
-    @Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
-    Optional<Inventory> findByProductId(@Param("productId") Long productId);
-}
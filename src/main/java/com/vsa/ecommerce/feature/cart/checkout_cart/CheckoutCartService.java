@@ -5,18 +5,22 @@ import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.common.security.SecurityUtils;
 import com.vsa.ecommerce.domain.entity.*;
+import com.vsa.ecommerce.domain.inventory.InventoryReservationService;
 import com.vsa.ecommerce.domain.enums.CartStatus;
 import com.vsa.ecommerce.domain.enums.OrderStatus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 public class CheckoutCartService implements IService<CheckoutCartRequest, CheckoutCartResponse> {
 
     private final CheckoutCartRepository cartRepository;
     private final CheckoutCartOrderRepository orderRepository;
-    private final CheckoutCartInventoryRepository inventoryRepository;
+    private final InventoryReservationService inventoryReservationService;
 
     @Override
     @Transactional
@@ -37,21 +41,10 @@ public class CheckoutCartService implements IService<CheckoutCartRequest, Checko
         order.setStatus(OrderStatus.PENDING_PAYMENT);
 
         // Process Items
+        Map<Long, Integer> quantities = new HashMap<>();
         for (CartItem cartItem : cart.getItems()) {
             Product product = cartItem.getProduct();
-
-            // Check Inventory
-            Inventory inventory = inventoryRepository.findByProductId(product.getId())
-                    .orElseThrow(() -> new BusinessException(BusinessStatus.INSUFFICIENT_STOCK));
-
-            if (inventory.getAvailableQuantity() < cartItem.getQuantity()) {
-                throw new BusinessException(BusinessStatus.INSUFFICIENT_STOCK);
-            }
-
-            // Reserve Inventory
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() - cartItem.getQuantity());
-            inventory.setReservedQuantity(inventory.getReservedQuantity() + cartItem.getQuantity());
-            inventoryRepository.save(inventory);
+            quantities.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
 
             // Create Order Item
             OrderItem orderItem = new OrderItem();
@@ -63,10 +56,13 @@ public class CheckoutCartService implements IService<CheckoutCartRequest, Checko
             order.addItem(orderItem);
         }
 
-        // Save Order
+        // Save Order (assigns its id)
         order.recalculateTotal();
         Order savedOrder = orderRepository.save(order);
 
+        // Reserve Inventory (all lines or none)
+        inventoryReservationService.reserve(quantities, savedOrder.getId());
+
         // Update Cart Status
         cart.setStatus(CartStatus.CHECKED_OUT);
         cartRepository.save(cart);
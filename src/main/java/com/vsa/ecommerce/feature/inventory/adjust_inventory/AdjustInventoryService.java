@@ -23,6 +23,11 @@ public class AdjustInventoryService implements IService<AdjustInventoryRequest,
         Inventory inventory = repository.findById(request.getInventoryId())
                 .orElseThrow(() -> new BusinessException(BusinessStatus.NOT_FOUND));
 
+        // Available stock of a hot product is held in Redis, an adjustment of the row would not reach it
+        if (inventory.isHotStock()) {
+            throw new BusinessException(BusinessStatus.HOT_STOCK_ACTIVE, inventory.getProduct().getId());
+        }
+
         int oldQuantity = inventory.getAvailableQuantity();
         int newQuantity = oldQuantity + request.getQuantityChange();
 
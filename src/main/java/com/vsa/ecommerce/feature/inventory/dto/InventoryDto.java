@@ -15,4 +15,5 @@ public class InventoryDto implements Response {
     private Integer reservedQuantity;
     private Integer totalQuantity;
     private Long version;
+    private boolean hotStock; // Available stock served from Redis; the quantities here lag behind
 }
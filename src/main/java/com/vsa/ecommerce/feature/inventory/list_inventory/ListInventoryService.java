@@ -36,6 +36,7 @@ public class ListInventoryService implements IService<ListInventoryRequest, List
                 .reservedQuantity(inventory.getReservedQuantity())
                 .totalQuantity(inventory.getAvailableQuantity() + inventory.getReservedQuantity())
                 .version(inventory.getVersion())
+                .hotStock(inventory.isHotStock())
                 .build();
     }
 }
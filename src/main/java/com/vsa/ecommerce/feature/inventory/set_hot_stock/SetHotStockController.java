@@ -0,0 +1,29 @@
+package com.vsa.ecommerce.feature.inventory.set_hot_stock;
+
+import com.vsa.ecommerce.common.abstraction.BaseController;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/inventory")
+@RequiredArgsConstructor
+@Tag(name = "Inventory")
+public class SetHotStockController extends BaseController {
+
+    private final SetHotStockService service;
+
+    @PutMapping("/products/{productId}/hot-stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SetHotStockResponse> setHotStock(@PathVariable Long productId,
+            @RequestBody SetHotStockRequest request) {
+        request.setProductId(productId);
+        return ResponseEntity.ok(service.execute(request));
+    }
+}
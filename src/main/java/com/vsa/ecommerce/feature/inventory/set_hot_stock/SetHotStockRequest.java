@@ -0,0 +1,16 @@
+package com.vsa.ecommerce.feature.inventory.set_hot_stock;
+
+import com.vsa.ecommerce.common.abstraction.Request;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetHotStockRequest implements Request {
+    private Long productId;
+    private boolean enabled; // true: serve stock from Redis (flash sale), false: from the inventory row
+}
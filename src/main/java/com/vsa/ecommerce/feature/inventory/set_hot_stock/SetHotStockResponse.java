@@ -0,0 +1,13 @@
+package com.vsa.ecommerce.feature.inventory.set_hot_stock;
+
+import com.vsa.ecommerce.common.abstraction.Response;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SetHotStockResponse implements Response {
+    private Long productId;
+    private boolean hotStock;
+    private int availableQuantity;
+}
@@ -0,0 +1,30 @@
+package com.vsa.ecommerce.feature.inventory.set_hot_stock;
+
+import com.vsa.ecommerce.common.abstraction.IService;
+import com.vsa.ecommerce.domain.inventory.HotStockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Switch a product in or out of hot stock mode without downtime. Not
+ * transactional: HotStockService commits the flag before touching Redis.
+ */
+@Component
+@RequiredArgsConstructor
+public class SetHotStockService implements IService<SetHotStockRequest, SetHotStockResponse> {
+
+    private final HotStockService hotStockService;
+
+    @Override
+    public SetHotStockResponse execute(SetHotStockRequest request) {
+        int available = request.isEnabled()
+                ? hotStockService.enable(request.getProductId())
+                : hotStockService.disable(request.getProductId());
+
+        return SetHotStockResponse.builder()
+                .productId(request.getProductId())
+                .hotStock(request.isEnabled())
+                .availableQuantity(available)
+                .build();
+    }
+}
@@ -7,15 +7,20 @@ import com.vsa.ecommerce.common.security.SecurityUtils;
 import com.vsa.ecommerce.domain.entity.Order;
 import com.vsa.ecommerce.domain.entity.OrderItem;
 import com.vsa.ecommerce.domain.enums.UserRole;
+import com.vsa.ecommerce.domain.inventory.InventoryReservationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Component
 @RequiredArgsConstructor
 public class CancelOrderService implements IService<CancelOrderRequest, CancelOrderResponse> {
 
     private final CancelOrderRepository cancelOrderRepository;
+    private final InventoryReservationService inventoryReservationService;
 
     @Override
     @Transactional
@@ -39,12 +44,11 @@ public class CancelOrderService implements IService<CancelOrderRequest, CancelOr
         order.cancel(request.getReason());
 
         // 4. Release Inventory
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem item : order.getItems()) {
-            cancelOrderRepository.findInventoryByProductId(item.getProduct().getId()).ifPresent(inventory -> {
-                inventory.release(item.getQuantity());
-                cancelOrderRepository.saveInventory(inventory);
-            });
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        inventoryReservationService.release(quantities, order.getId());
 
         // 5. Save Order
         cancelOrderRepository.saveOrder(order);
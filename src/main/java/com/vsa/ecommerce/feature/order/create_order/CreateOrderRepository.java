@@ -1,6 +1,5 @@
 package com.vsa.ecommerce.feature.order.create_order;
 
-import com.vsa.ecommerce.domain.entity.Inventory;
 import com.vsa.ecommerce.domain.entity.Order;
 import com.vsa.ecommerce.domain.entity.Product;
 import com.vsa.ecommerce.domain.entity.User;
@@ -29,26 +28,6 @@ public class CreateOrderRepository {
         return Optional.ofNullable(entityManager.find(Product.class, id));
     }
 
-    public Optional<Inventory> findInventoryByProductId(Long productId) {
-        try {
-            Inventory inventory = entityManager.createQuery(
-                            "SELECT i FROM Inventory i WHERE i.productId = :productId", Inventory.class)
-                    .setParameter("productId", productId)
-                    .getSingleResult();
-            return Optional.of(inventory);
-        } catch (jakarta.persistence.NoResultException e) {
-            return Optional.empty();
-        }
-    }
-
-    public void saveInventory(Inventory inventory) {
-        if (inventory.getId() == null) {
-            entityManager.persist(inventory);
-        } else {
-            entityManager.merge(inventory);
-        }
-    }
-
     public Order saveOrder(Order order) {
         if (order.getId() == null) {
             entityManager.persist(order);
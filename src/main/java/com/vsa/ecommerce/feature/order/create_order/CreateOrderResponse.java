@@ -3,8 +3,10 @@ package com.vsa.ecommerce.feature.order.create_order;
 import com.vsa.ecommerce.common.abstraction.Response;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 
 @Getter
+@NoArgsConstructor
 @AllArgsConstructor
 public class CreateOrderResponse implements Response {
     private String orderId;
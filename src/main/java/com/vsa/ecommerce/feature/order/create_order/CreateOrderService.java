@@ -3,14 +3,19 @@ package com.vsa.ecommerce.feature.order.create_order;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.common.abstraction.IService;
+import com.vsa.ecommerce.domain.inventory.InventoryReservationService;
 import lombok.RequiredArgsConstructor;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 @org.springframework.transaction.annotation.Transactional
 public class CreateOrderService implements IService<CreateOrderRequest, CreateOrderResponse> {
 
     private final CreateOrderRepository createOrderRepository;
+    private final InventoryReservationService inventoryReservationService;
 
     @Override
     public CreateOrderResponse execute(CreateOrderRequest request) {
@@ -27,25 +32,14 @@ public class CreateOrderService implements IService<CreateOrderRequest, CreateOr
         order.setStatus(com.vsa.ecommerce.domain.enums.OrderStatus.PENDING_PAYMENT);
 
         // 3. Process Items
+        Map<Long, Integer> quantities = new HashMap<>();
         for (CreateOrderRequest.OrderItemDto itemDto : request.getItems()) {
             // Validate Product
             com.vsa.ecommerce.domain.entity.Product product = createOrderRepository
                     .findProductById(itemDto.getProductId())
                     .orElseThrow(() -> new BusinessException(BusinessStatus.PRODUCT_NOT_FOUND));
 
-            // Check Inventory (Optimistic Locking via Version)
-            com.vsa.ecommerce.domain.entity.Inventory inventory = createOrderRepository
-                    .findInventoryByProductId(product.getId())
-                    .orElseThrow(() -> new BusinessException(BusinessStatus.INSUFFICIENT_STOCK));
-
-            if (inventory.getAvailableQuantity() < itemDto.getQuantity()) {
-                throw new BusinessException(BusinessStatus.INSUFFICIENT_STOCK);
-            }
-
-            // Reserve Inventory
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() - itemDto.getQuantity());
-            inventory.setReservedQuantity(inventory.getReservedQuantity() + itemDto.getQuantity());
-            createOrderRepository.saveInventory(inventory); // Optimistic lock check happens here on flush/commit
+            quantities.merge(product.getId(), itemDto.getQuantity(), Integer::sum);
 
             // Create Order Item
             com.vsa.ecommerce.domain.entity.OrderItem orderItem = new com.vsa.ecommerce.domain.entity.OrderItem();
@@ -57,10 +51,13 @@ public class CreateOrderService implements IService<CreateOrderRequest, CreateOr
             order.addItem(orderItem);
         }
 
-        // 4. Save Order
+        // 4. Save Order (assigns its id)
         order.recalculateTotal();
         com.vsa.ecommerce.domain.entity.Order savedOrder = createOrderRepository.saveOrder(order);
 
+        // 5. Reserve Inventory (all lines or none, conditional updates guard against overselling)
+        inventoryReservationService.reserve(quantities, savedOrder.getId());
+
         return new CreateOrderResponse(savedOrder.getId().toString());
     }
 }
@@ -1,6 +1,9 @@
 package com.vsa.ecommerce.feature.product.create_product;
 
 import com.vsa.ecommerce.common.abstraction.IService;
+import com.vsa.ecommerce.common.cache.CacheKeyConvention;
+import com.vsa.ecommerce.common.cache.bloom.CacheBloomFilterService;
+import com.vsa.ecommerce.common.cache.hybrid.HybridCacheService;
 import com.vsa.ecommerce.domain.entity.Product;
 import com.vsa.ecommerce.feature.product.dto.ProductDto;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class CreateProductService implements IService<CreateProductRequest, ProductDto> {
 
     private final CreateProductRepository repository;
+    private final HybridCacheService hybridCache;
+    private final CacheKeyConvention keyConvention;
+    private final CacheBloomFilterService bloomFilters;
 
     @Override
     @Transactional
@@ -24,6 +30,11 @@ public class CreateProductService implements IService<CreateProductRequest, Prod
 
         repository.save(product);
 
+        // Once committed, let lookups of the new id through and drop an absent marker cached for it
+        bloomFilters.add(CacheKeyConvention.RESOURCE_PRODUCT, product.getId());
+        hybridCache.evictAfterCommit(
+                keyConvention.buildKey(CacheKeyConvention.RESOURCE_PRODUCT, product.getId().toString()));
+
         return ProductDto.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -5,6 +5,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository("FeatureGetProductRepository")
@@ -16,4 +17,9 @@ public class GetProductRepository {
     public Optional<Product> findById(Long id) {
         return Optional.ofNullable(entityManager.find(Product.class, id));
     }
+
+    public List<Long> findAllIds() {
+        return entityManager.createQuery("SELECT p.id FROM Product p", Long.class)
+                .getResultList();
+    }
 }
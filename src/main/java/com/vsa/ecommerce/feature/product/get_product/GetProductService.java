@@ -1,26 +1,55 @@
 package com.vsa.ecommerce.feature.product.get_product;
 
 import com.vsa.ecommerce.common.abstraction.IService;
+import com.vsa.ecommerce.common.cache.CacheKeyConvention;
+import com.vsa.ecommerce.common.cache.bloom.CacheBloomFilterService;
+import com.vsa.ecommerce.common.cache.hybrid.HybridCacheService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.domain.entity.Product;
 import com.vsa.ecommerce.feature.product.dto.ProductDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Product lookup by id, cached in the hybrid cache.
+ * <p>
+ * Ids rejected by the product Bloom filter and ids recently found missing
+ * (negative cache) are answered with PRODUCT_NOT_FOUND without a database
+ * query, so scans over random ids do not reach Postgres. The filter fails open
+ * while it is being built or rebuilt and for just-created ids, so those go to
+ * the database instead.
+ */
 @Component
 @RequiredArgsConstructor
 public class GetProductService implements IService<GetProductRequest, ProductDto> {
 
     private final GetProductRepository repository;
+    private final HybridCacheService hybridCache;
+    private final CacheKeyConvention keyConvention;
+    private final CacheBloomFilterService bloomFilters;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerBloomFilter() {
+        bloomFilters.register(CacheKeyConvention.RESOURCE_PRODUCT, repository::findAllIds);
+    }
 
     @Override
-    @Transactional(readOnly = true)
     public ProductDto execute(GetProductRequest request) {
-        Product product = repository.findById(request.getProductId())
+        Long productId = request.getProductId();
+        if (productId == null || !bloomFilters.mightContain(CacheKeyConvention.RESOURCE_PRODUCT, productId)) {
+            throw new BusinessException(BusinessStatus.PRODUCT_NOT_FOUND);
+        }
+
+        String key = keyConvention.buildKey(CacheKeyConvention.RESOURCE_PRODUCT, productId.toString());
+        return hybridCache.getOrComputeIfPresent(key, ProductDto.class,
+                () -> repository.findById(productId).map(this::toDto))
                 .orElseThrow(() -> new BusinessException(BusinessStatus.PRODUCT_NOT_FOUND));
+    }
 
+    private ProductDto toDto(Product product) {
         return ProductDto.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -1,6 +1,8 @@
 package com.vsa.ecommerce.feature.product.update_product;
 
 import com.vsa.ecommerce.common.abstraction.IService;
+import com.vsa.ecommerce.common.cache.CacheKeyConvention;
+import com.vsa.ecommerce.common.cache.hybrid.HybridCacheService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
 import com.vsa.ecommerce.domain.entity.Product;
@@ -14,6 +16,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class UpdateProductService implements IService<UpdateProductRequest, ProductDto> {
 
     private final UpdateProductRepository repository;
+    private final HybridCacheService hybridCache;
+    private final CacheKeyConvention keyConvention;
 
     @Override
     @Transactional
@@ -31,6 +35,8 @@ public class UpdateProductService implements IService<UpdateProductRequest, Prod
             product.setSku(request.getSku());
 
         repository.save(product);
+        hybridCache.evictAfterCommit(
+                keyConvention.buildKey(CacheKeyConvention.RESOURCE_PRODUCT, product.getId().toString()));
 
         return ProductDto.builder()
                 .id(product.getId())
@@ -3,6 +3,7 @@ package com.vsa.ecommerce.feature.user.update_user;
 import com.vsa.ecommerce.common.abstraction.IService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
 import com.vsa.ecommerce.domain.entity.User;
 import com.vsa.ecommerce.feature.user.dto.UserDto;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UpdateUserService implements IService<UpdateUserService.Request, UserDto> {
 
     private final UpdateUserRepository updateUserRepository;
+    private final CustomUserDetailsService userDetailsService;
 
     @lombok.Data
     @lombok.Builder
@@ -37,6 +39,7 @@ public class UpdateUserService implements IService<UpdateUserService.Request, Us
             user.setPhoneNumber(updateRequest.getPhoneNumber());
 
         updateUserRepository.save(user);
+        userDetailsService.evictAfterCommit(user.getId(), user.getEmail());
         return mapToDto(user);
     }
 
@@ -3,6 +3,8 @@ package com.vsa.ecommerce.feature.user.update_user_status;
 import com.vsa.ecommerce.common.abstraction.IService;
 import com.vsa.ecommerce.common.exception.BusinessException;
 import com.vsa.ecommerce.common.exception.BusinessStatus;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
 import com.vsa.ecommerce.domain.entity.User;
 import com.vsa.ecommerce.feature.user.dto.UserDto;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class UpdateUserStatusService implements IService<UpdateUserStatusService.Request, UserDto> {
 
     private final UpdateUserStatusRepository updateUserStatusRepository;
+    private final UserSecurityVersionService securityVersionService;
+    private final CustomUserDetailsService userDetailsService;
 
     @lombok.Data
     @lombok.Builder
@@ -30,6 +34,8 @@ public class UpdateUserStatusService implements IService<UpdateUserStatusService
 
         user.setEnabled(request.getStatusRequest().getActive());
         updateUserStatusRepository.save(user);
+        securityVersionService.bumpAfterCommit(user.getId());
+        userDetailsService.evictAfterCommit(user.getId(), user.getEmail());
         return mapToDto(user);
     }
 
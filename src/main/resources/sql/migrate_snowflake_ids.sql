@@ -0,0 +1,61 @@
+-- ===============================================================================================
+-- MIGRATION: IDENTITY -> APPLICATION-ASSIGNED SNOWFLAKE IDS (PostgreSQL)
+-- ===============================================================================================
+-- Entities now get their id from the Snowflake generator (@SnowflakeId) and always send it in
+-- the INSERT. Existing rows keep their ids: identity values are small, Snowflake ids start at
+-- (ms since 2024-01-01) << 22, so the two ranges cannot meet.
+--
+-- Run once per database, before or right after deploying the new version. Safe to re-run.
+--   psql -d commerce_core -f migrate_snowflake_ids.sql
+--
+-- Per table:
+-- 1. Refuse to continue if an existing id already reaches the Snowflake range
+-- 2. GENERATED ALWAYS identity -> GENERATED BY DEFAULT (ALWAYS rejects explicit ids)
+-- 3. Tables created by the new version (plain bigint id) get a BY DEFAULT identity, so SQL
+--    scripts without ids (seed_big_data.sql) keep working
+-- ===============================================================================================
+
+BEGIN;
+
+DO $$
+DECLARE
+    t TEXT;
+    max_id BIGINT;
+    id_is_identity TEXT;
+    id_generation TEXT;
+    id_default TEXT;
+    -- Smallest id the generator can hand out from now on (see SnowflakeIdGenerator)
+    snowflake_floor BIGINT := (floor(extract(epoch FROM now()) * 1000)::BIGINT - 1704067200000) << 22;
+BEGIN
+    FOREACH t IN ARRAY ARRAY[
+        'users', 'roles', 'permissions', 'products', 'inventory', 'inventory_transactions',
+        'carts', 'cart_items', 'orders', 'order_items', 'payments', 'notifications', 'token_blacklist'
+    ] LOOP
+        IF to_regclass(t) IS NULL THEN
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('SELECT max(id) FROM %I', t) INTO max_id;
+        IF max_id IS NOT NULL AND max_id >= snowflake_floor THEN
+            RAISE EXCEPTION 'Table % has id % in the Snowflake range (>= %)', t, max_id, snowflake_floor;
+        END IF;
+
+        SELECT is_identity, identity_generation, column_default
+        INTO id_is_identity, id_generation, id_default
+        FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = t AND column_name = 'id';
+
+        IF id_generation = 'ALWAYS' THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET GENERATED BY DEFAULT', t);
+            RAISE NOTICE '%: identity ALWAYS -> BY DEFAULT', t;
+        ELSIF id_is_identity = 'NO' AND id_default IS NULL THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY', t);
+            RAISE NOTICE '%: BY DEFAULT identity added for SQL scripts', t;
+        END IF;
+    END LOOP;
+END $$;
+
+COMMIT;
+
+-- Optional, once no SQL script relies on database-generated ids:
+-- ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;  -- repeat per table
@@ -8,7 +8,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -20,6 +23,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  * - L1 warm-up on L2 hit
  * - Cache eviction
  * - getOrCompute functionality
+ * - Bulk getAll / getOrComputeAll
+ * - Negative caching (getOrComputeIfPresent)
  * <p>
  * Requirements:
  * - Redis instance running on localhost:6379
@@ -114,6 +119,65 @@ class HybridCacheIntegrationTest {
         assertThat(callCount[0]).isEqualTo(1); // Supplier not called again
     }
 
+    @Test
+    void testGetOrComputeAll_LoadsOnlyMisses() {
+        // Given - one key in L1+L2, one only in L2, two nowhere
+        String l1Key = "test:hybrid:user:bulk-1";
+        String l2Key = "test:hybrid:user:bulk-2";
+        String missKey1 = "test:hybrid:user:bulk-3";
+        String missKey2 = "test:hybrid:user:bulk-4";
+        hybridCacheManager.put(l1Key, new TestDto("L1", "Hit"));
+        l2Cache.put(l2Key, new TestDto("L2", "Hit"));
+        hybridCacheManager.evict(missKey1);
+        hybridCacheManager.evict(missKey2);
+        int[] loaderCalls = { 0 };
+
+        // When
+        Map<String, TestDto> result = hybridCacheManager.getOrComputeAll(
+                List.of(l1Key, l2Key, missKey1, missKey2),
+                TestDto.class,
+                misses -> {
+                    loaderCalls[0]++;
+                    assertThat(misses).containsExactlyInAnyOrder(missKey1, missKey2);
+                    return misses.stream().collect(Collectors.toMap(k -> k, k -> new TestDto("Loaded", k)));
+                });
+
+        // Then - single loader call, results in key order, L1 warmed from L2
+        assertThat(loaderCalls[0]).isEqualTo(1);
+        assertThat(result.keySet()).containsExactly(l1Key, l2Key, missKey1, missKey2);
+        assertThat(result.get(l2Key).firstName()).isEqualTo("L2");
+        assertThat(l1Cache.get(l2Key, TestDto.class)).isPresent();
+        assertThat(l2Cache.get(missKey1, TestDto.class)).isPresent();
+    }
+
+    @Test
+    void testGetOrComputeIfPresent_CachesAbsence() {
+        // Given
+        String key = "test:hybrid:user:404";
+        hybridCacheManager.evict(key);
+        int[] loaderCalls = { 0 };
+
+        // When - two lookups of a value that does not exist
+        Optional<TestDto> first = hybridCacheManager.getOrComputeIfPresent(key, TestDto.class, () -> {
+            loaderCalls[0]++;
+            return Optional.empty();
+        });
+        Optional<TestDto> second = hybridCacheManager.getOrComputeIfPresent(key, TestDto.class, () -> {
+            loaderCalls[0]++;
+            return Optional.empty();
+        });
+
+        // Then - loader ran once, absence is cached in both tiers but reads as a miss
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        assertThat(loaderCalls[0]).isEqualTo(1);
+        assertThat(l1Cache.isAbsent(key)).isTrue();
+        assertThat(l2Cache.getEntry(key, TestDto.class)).hasValueSatisfying(entry -> assertThat(entry.absent()).isTrue());
+        assertThat(hybridCacheManager.get(key, TestDto.class)).isEmpty();
+
+        hybridCacheManager.evict(key);
+    }
+
     @Test
     void testEviction() {
         // Given
@@ -0,0 +1,160 @@
+package com.vsa.ecommerce.common.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vsa.ecommerce.domain.enums.OrderStatus;
+import com.vsa.ecommerce.feature.order.dto.OrderDto;
+import com.vsa.ecommerce.feature.order.dto.OrderItemDto;
+import com.vsa.ecommerce.feature.product.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of L2 cache payload formats on realistic DTO graphs.
+ * <p>
+ * Measures encode/decode cost per codec, with and without LZ4, and prints the
+ * payload size of each combination once per trial.
+ * <p>
+ * Payloads:
+ * - order: a single OrderDto with 30 line items
+ * - orderPage: 20 OrderDto with 5 items each (order list screen)
+ * - productPage: 50 ProductDto with descriptions (product list screen)
+ * <p>
+ * Run: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.vsa.ecommerce.common.cache.codec.CacheCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({ "json", "smile" })
+    private String format;
+
+    @Param({ "false", "true" })
+    private boolean compression;
+
+    @Param({ "order", "orderPage", "productPage" })
+    private String payload;
+
+    private CachePayloadSerializer serializer;
+    private Object value;
+    private Class<?> type;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        List<CacheCodec> codecs = List.of(new JsonCacheCodec(objectMapper), new SmileCacheCodec(objectMapper));
+        // Threshold 0 so that compression=true always compresses when it saves space
+        serializer = new CachePayloadSerializer(codecs, format, compression, 0, Integer.MAX_VALUE);
+
+        switch (payload) {
+            case "order" -> {
+                value = order(1, 30);
+                type = OrderDto.class;
+            }
+            case "orderPage" -> {
+                OrderDto[] orders = new OrderDto[20];
+                for (int i = 0; i < orders.length; i++) {
+                    orders[i] = order(i, 5);
+                }
+                value = orders;
+                type = OrderDto[].class;
+            }
+            default -> {
+                ProductDto[] products = new ProductDto[50];
+                for (int i = 0; i < products.length; i++) {
+                    products[i] = product(i);
+                }
+                value = products;
+                type = ProductDto[].class;
+            }
+        }
+
+        encoded = serializer.serialize(value);
+        System.out.printf("%n[payload-size] format=%s compression=%s payload=%s bytes=%d%n",
+                format, compression, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return serializer.deserialize(encoded, type);
+    }
+
+    private static OrderDto order(long id, int itemCount) {
+        List<OrderItemDto> items = new ArrayList<>(itemCount);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            BigDecimal price = BigDecimal.valueOf(1999 + i * 137L, 2);
+            int quantity = 1 + i % 4;
+            BigDecimal lineTotal = price.multiply(BigDecimal.valueOf(quantity));
+            total = total.add(lineTotal);
+            items.add(OrderItemDto.builder()
+                    .id(id * 1000 + i)
+                    .productId(7_100_000_000_000_000L + i)
+                    .productName("Wireless Noise Cancelling Headphones " + i)
+                    .pricePerUnit(price)
+                    .quantity(quantity)
+                    .totalPrice(lineTotal)
+                    .build());
+        }
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 15, 10, 30).plusMinutes(id);
+        return OrderDto.builder()
+                .id(7_200_000_000_000_000L + id)
+                .userId(7_300_000_000_000_000L + id % 7)
+                .status(OrderStatus.CONFIRMED)
+                .totalAmount(total)
+                .items(items)
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusMinutes(5))
+                .build();
+    }
+
+    private static ProductDto product(long id) {
+        return ProductDto.builder()
+                .id(7_100_000_000_000_000L + id)
+                .name("Wireless Noise Cancelling Headphones " + id)
+                .description("Over-ear Bluetooth headphones with active noise cancellation, "
+                        + "30-hour battery life, fast charging and a foldable design. Variant " + id)
+                .price(BigDecimal.valueOf(19999 + id * 100, 2))
+                .sku("SKU-HP-" + (100000 + id))
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.vsa.ecommerce.common.cache.l1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pattern evictions of the L1 cache match the keys Redis SCAN MATCH matches,
+ * so L1 drops what an L2 pattern invalidation drops.
+ * <p>
+ * Tests:
+ * - Indexed prefix patterns evict only the matching resource
+ * - Character classes ([ab], [^ab], [a-c]) select keys like in Redis
+ * - Backslash escapes match glob characters literally
+ */
+class CaffeineLocalCacheServiceTest {
+
+    private CaffeineLocalCacheService cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CaffeineLocalCacheService(new ObjectMapper(), new SimpleMeterRegistry(), 30, 1000, 60);
+    }
+
+    @Test
+    void testEvictPattern_PrefixUsesIndex() {
+        put("vsa:v1:product::1", "vsa:v1:product::2", "vsa:v1:user::1");
+
+        assertThat(cache.evictPattern("vsa:v1:product:*")).isEqualTo(2);
+
+        assertThat(cached("vsa:v1:product::1", "vsa:v1:product::2", "vsa:v1:user::1"))
+                .containsExactly("vsa:v1:user::1");
+    }
+
+    @Test
+    void testEvictPattern_BracketClass() {
+        put("vsa:v1:product:a:1", "vsa:v1:product:b:1", "vsa:v1:product:c:1");
+
+        assertThat(cache.evictPattern("vsa:v1:product:[ab]*")).isEqualTo(2);
+
+        assertThat(cached("vsa:v1:product:a:1", "vsa:v1:product:b:1", "vsa:v1:product:c:1"))
+                .containsExactly("vsa:v1:product:c:1");
+    }
+
+    @Test
+    void testEvictPattern_NegatedClassAndRange() {
+        put("vsa:v1:order:a", "vsa:v1:order:b", "vsa:v1:order:x");
+
+        assertThat(cache.evictPattern("vsa:v1:order:[^a-b]")).isEqualTo(1);
+        assertThat(cache.evictPattern("vsa:v1:order:[b-a]")).isEqualTo(2);
+
+        assertThat(cached("vsa:v1:order:a", "vsa:v1:order:b", "vsa:v1:order:x")).isEmpty();
+    }
+
+    @Test
+    void testEvictPattern_EscapedGlobCharacters() {
+        put("vsa:v1:config:a*b", "vsa:v1:config:axb", "vsa:v1:config:[x]");
+
+        assertThat(cache.evictPattern("vsa:v1:config:a\\*b")).isEqualTo(1);
+        assertThat(cache.evictPattern("vsa:v1:config:\\[x\\]")).isEqualTo(1);
+
+        assertThat(cached("vsa:v1:config:a*b", "vsa:v1:config:axb", "vsa:v1:config:[x]"))
+                .containsExactly("vsa:v1:config:axb");
+    }
+
+    private void put(String... keys) {
+        for (String key : keys) {
+            cache.put(key, "value");
+        }
+    }
+
+    private List<String> cached(String... keys) {
+        return List.of(keys).stream()
+                .filter(key -> cache.get(key, String.class).isPresent())
+                .toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.vsa.ecommerce.common.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of Snowflake id throughput (ids per microsecond, all
+ * threads together).
+ * <p>
+ * Implementations:
+ * - synchronized: previous generator, one monitor around every id
+ * ({@link SynchronizedSnowflakeIdGenerator})
+ * - cas: {@link SnowflakeIdGenerator}, packed state advanced by CAS, blocks
+ * reserved in one CAS
+ * <p>
+ * Any implementation is capped at 4096 ids per millisecond (4.1 ids/us); the
+ * interesting numbers are how close each gets to the cap and what contention
+ * costs at 32 threads.
+ * <p>
+ * Run: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.vsa.ecommerce.common.id.SnowflakeIdGeneratorBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private static final int BLOCK_SIZE = 64;
+
+    @Param({ "synchronized", "cas" })
+    private String impl;
+
+    private IdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = "cas".equals(impl)
+                ? new SnowflakeIdGenerator(1, 1)
+                : new SynchronizedSnowflakeIdGenerator(1, 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextId1Thread() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long nextId32Threads() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(32)
+    @OperationsPerInvocation(BLOCK_SIZE)
+    public long[] nextIdsBlock32Threads() {
+        return generator.nextIds(BLOCK_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SnowflakeIdGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
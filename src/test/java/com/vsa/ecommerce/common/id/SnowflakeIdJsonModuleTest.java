@@ -0,0 +1,71 @@
+package com.vsa.ecommerce.common.id;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vsa.ecommerce.common.pagination.PageResponse;
+import com.vsa.ecommerce.feature.order.dto.OrderItemDto;
+import com.vsa.ecommerce.feature.user.dto.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JSON shape of ids with the application ObjectMapper.
+ * <p>
+ * Tests:
+ * - Id properties are written as strings that keep every digit
+ * - Other numbers stay numbers
+ * - Ids are read back from strings and from numbers
+ */
+@JsonTest
+class SnowflakeIdJsonModuleTest {
+
+    private static final long SNOWFLAKE_ID = new SnowflakeIdGenerator(1, 1).nextId();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testSnowflakeIdAboveJavaScriptRange() {
+        assertThat(SNOWFLAKE_ID).isGreaterThan(1L << 53);
+    }
+
+    @Test
+    void testIdProperties_WrittenAsStrings() throws Exception {
+        OrderItemDto item = OrderItemDto.builder().id(SNOWFLAKE_ID).productId(SNOWFLAKE_ID + 1).quantity(3).build();
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(item));
+
+        assertThat(json.get("id").isTextual()).isTrue();
+        assertThat(json.get("id").asText()).isEqualTo(Long.toString(SNOWFLAKE_ID));
+        assertThat(json.get("productId").asText()).isEqualTo(Long.toString(SNOWFLAKE_ID + 1));
+        assertThat(json.get("quantity").isInt()).isTrue();
+    }
+
+    @Test
+    void testNestedIdsAndOtherLongs() throws Exception {
+        UserDto user = UserDto.builder().id(SNOWFLAKE_ID).email("user@example.com").build();
+        PageResponse<UserDto> page = PageResponse.of(List.of(user), 0, 20, 1L, 1, true);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(page));
+
+        assertThat(json.get("data").get(0).get("id").isTextual()).isTrue();
+        assertThat(json.get("totalElements").isNumber()).isTrue();
+    }
+
+    @Test
+    void testIdsRead_FromStringsAndNumbers() throws Exception {
+        OrderItemDto fromString = objectMapper.readValue(
+                "{\"id\":\"" + SNOWFLAKE_ID + "\",\"productId\":\"7\"}", OrderItemDto.class);
+        OrderItemDto fromNumber = objectMapper.readValue(
+                "{\"id\":" + SNOWFLAKE_ID + ",\"productId\":7}", OrderItemDto.class);
+
+        assertThat(fromString.getId()).isEqualTo(SNOWFLAKE_ID);
+        assertThat(fromString.getProductId()).isEqualTo(7L);
+        assertThat(fromNumber).isEqualTo(fromString);
+    }
+}
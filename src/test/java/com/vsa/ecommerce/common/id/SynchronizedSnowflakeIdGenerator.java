@@ -0,0 +1,136 @@
+package com.vsa.ecommerce.common.id;
+
+/**
+ * Previous {@link SnowflakeIdGenerator}: {@code synchronized nextId()} that
+ * waits on the monitor for small clock drift. Baseline for
+ * {@link SnowflakeIdGeneratorBenchmark}.
+ */
+class SynchronizedSnowflakeIdGenerator implements IdGenerator {
+
+    // ==================== Constants ====================
+
+    /**
+     * Start epoch: 2024-01-01 00:00:00 UTC
+     * This gives us 69 years from 2024 (until 2093)
+     */
+    private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    /**
+     * Bit lengths
+     */
+    private static final long DATACENTER_ID_BITS = 5L;
+    private static final long WORKER_ID_BITS = 5L;
+    private static final long SEQUENCE_BITS = 12L;
+
+    /**
+     * Max values
+     */
+    private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS); // 31
+    private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS); // 31
+    private static final long MAX_SEQUENCE = ~(-1L << SEQUENCE_BITS); // 4095
+
+    /**
+     * Bit shifts
+     */
+    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+    private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
+
+    // ==================== Instance Fields ====================
+
+    private final long datacenterId;
+    private final long workerId;
+    private long sequence = 0L;
+    private long lastTimestamp = -1L;
+
+    // ==================== Constructor ====================
+
+    /**
+     * Create a new Snowflake ID generator.
+     * 
+     * @param datacenterId Datacenter ID (0-31)
+     * @param workerId     Worker ID (0-31)
+     */
+    SynchronizedSnowflakeIdGenerator(long datacenterId, long workerId) {
+        if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Datacenter ID must be between 0 and %d", MAX_DATACENTER_ID));
+        }
+        if (workerId > MAX_WORKER_ID || workerId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Worker ID must be between 0 and %d", MAX_WORKER_ID));
+        }
+
+        this.datacenterId = datacenterId;
+        this.workerId = workerId;
+    }
+
+    // ==================== Public Methods ====================
+
+    /**
+     * Generate next unique ID.
+     * Thread-safe.
+     * 
+     * @return 64-bit unique ID
+     */
+    public synchronized long nextId() {
+        long timestamp = currentTimestamp();
+
+        // Check clock moving backwards
+        if (timestamp < lastTimestamp) {
+            long offset = lastTimestamp - timestamp;
+            if (offset <= 5) {
+                // Small clock drift, wait it out
+                try {
+                    wait(offset << 1);
+                    timestamp = currentTimestamp();
+                    if (timestamp < lastTimestamp) {
+                        throw new RuntimeException(
+                                String.format("Clock moved backwards. Refusing to generate ID for %d ms", offset));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for clock", e);
+                }
+            } else {
+                throw new RuntimeException(
+                        String.format("Clock moved backwards. Refusing to generate ID for %d ms", offset));
+            }
+        }
+
+        // Same millisecond: increment sequence
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+
+            // Sequence overflow: wait for next millisecond
+            if (sequence == 0) {
+                timestamp = waitNextMillis(lastTimestamp);
+            }
+        } else {
+            // New millisecond: reset sequence
+            sequence = 0L;
+        }
+
+        lastTimestamp = timestamp;
+
+        // Generate ID
+        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
+                | (datacenterId << DATACENTER_ID_SHIFT)
+                | (workerId << WORKER_ID_SHIFT)
+                | sequence;
+    }
+
+    // ==================== Private Methods ====================
+
+    private long currentTimestamp() {
+        return System.currentTimeMillis();
+    }
+
+    private long waitNextMillis(long lastTimestamp) {
+        long timestamp = currentTimestamp();
+        while (timestamp <= lastTimestamp) {
+            timestamp = currentTimestamp();
+        }
+        return timestamp;
+    }
+}
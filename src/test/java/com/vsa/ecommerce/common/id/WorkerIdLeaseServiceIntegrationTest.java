@@ -0,0 +1,99 @@
+package com.vsa.ecommerce.common.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration test for Snowflake worker id leasing.
+ * <p>
+ * Tests:
+ * - Nodes with the same configuration lease different worker ids
+ * - Startup fails when every worker id is leased
+ * - A lost lease refuses ids; a released worker id can be leased again
+ * <p>
+ * Uses datacenter 30 so the application's own lease is not affected.
+ * <p>
+ * Requirements:
+ * - Redis instance running on localhost:6379
+ */
+@SpringBootTest
+class WorkerIdLeaseServiceIntegrationTest {
+
+    private static final long DATACENTER_ID = 30;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private final List<WorkerIdLeaseService> leases = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        leases.forEach(WorkerIdLeaseService::release);
+    }
+
+    @Test
+    void testSameConfiguration_LeasesDistinctWorkerIds() {
+        WorkerIdLeaseService first = start(5);
+        WorkerIdLeaseService second = start(5);
+
+        long now = System.currentTimeMillis();
+        assertThat(first.workerId(now)).isEqualTo(5);
+        assertThat(second.workerId(now)).isEqualTo(6);
+
+        long firstId = new SnowflakeIdGenerator(DATACENTER_ID, first).nextId();
+        long secondId = new SnowflakeIdGenerator(DATACENTER_ID, second).nextId();
+        assertThat(SnowflakeIdGenerator.parse(firstId).workerId()).isEqualTo(5);
+        assertThat(SnowflakeIdGenerator.parse(secondId).workerId()).isEqualTo(6);
+    }
+
+    @Test
+    void testAllWorkerIdsLeased_StartFails() {
+        for (int i = 0; i < 32; i++) {
+            start(0);
+        }
+
+        WorkerIdLeaseService extra = lease(0);
+        assertThatThrownBy(extra::start).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testReleasedLease_RefusesIdsAndFreesWorkerId() {
+        WorkerIdLeaseService first = start(9);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(DATACENTER_ID, first);
+        first.release();
+
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+        assertThat(start(9).workerId(System.currentTimeMillis())).isEqualTo(9);
+    }
+
+    @Test
+    void testLeaseDoesNotCoverTimestampsBeyondItsValidity() {
+        WorkerIdLeaseService lease = start(12);
+
+        // TTL 30s minus 5s safety margin
+        assertThatThrownBy(() -> lease.workerId(System.currentTimeMillis() + 26_000))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private WorkerIdLeaseService start(long preferredWorkerId) {
+        WorkerIdLeaseService lease = lease(preferredWorkerId);
+        lease.start();
+        return lease;
+    }
+
+    private WorkerIdLeaseService lease(long preferredWorkerId) {
+        WorkerIdLeaseService lease = new WorkerIdLeaseService(redisTemplate, DATACENTER_ID, preferredWorkerId,
+                30_000, 10_000, 5_000);
+        leases.add(lease);
+        return lease;
+    }
+}
@@ -0,0 +1,169 @@
+package com.vsa.ecommerce.common.idempotent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration test for {@link IdempotentAspect}.
+ * <p>
+ * Tests:
+ * - Concurrent duplicates run the endpoint once and all get its status and
+ * body
+ * - A failed attempt frees the key, so a retry runs the endpoint
+ * - A request that outlived its processing marker neither deletes nor
+ * overwrites the key of the retry that took it over
+ * <p>
+ * Requirements:
+ * - Redis instance running on localhost:6379
+ */
+@SpringBootTest(properties = "idempotency.processing-ttl-ms=1000")
+class IdempotentAspectIntegrationTest {
+
+    private static final String KEY_PREFIX = "idempotent:";
+
+    @Autowired
+    private IdempotentEndpoint endpoint;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private final String idempotencyKey = "test-" + UUID.randomUUID();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(KEY_PREFIX + idempotencyKey);
+    }
+
+    @Test
+    void testConcurrentDuplicates_RunOnceAndReplay() throws Exception {
+        List<ResponseEntity<Map<String, Object>>> responses = runConcurrently(10, () -> call(() -> {
+            Thread.sleep(200);
+            return Map.of("run", runs.incrementAndGet());
+        }));
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(response.getBody()).containsEntry("run", 1);
+        });
+    }
+
+    @Test
+    void testFailedAttempt_FreesKey() throws Exception {
+        assertThatThrownBy(() -> call(() -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("first attempt fails");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(redisTemplate.hasKey(KEY_PREFIX + idempotencyKey)).isFalse();
+
+        ResponseEntity<Map<String, Object>> retry = call(() -> Map.of("run", runs.incrementAndGet()));
+
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody()).containsEntry("run", 2);
+    }
+
+    @Test
+    void testExpiredOwnerFailure_KeepsRetryResponse() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The first attempt outlives its 1 s marker, then fails
+            Future<?> slow = executor.submit(() -> call(() -> {
+                runs.incrementAndGet();
+                Thread.sleep(1_500);
+                throw new IllegalStateException("slow attempt fails");
+            }));
+            Thread.sleep(1_200);
+
+            ResponseEntity<Map<String, Object>> retry = call(() -> Map.of("run", runs.incrementAndGet()));
+            assertThat(retry.getBody()).containsEntry("run", 2);
+            assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            executor.shutdown();
+        }
+
+        // The failed first attempt left the retry's response in place
+        ResponseEntity<Map<String, Object>> replay = call(() -> Map.of("run", runs.incrementAndGet()));
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(replay.getBody()).containsEntry("run", 2);
+    }
+
+    /**
+     * Call the endpoint as an HTTP request carrying the test's idempotency key.
+     */
+    private ResponseEntity<Map<String, Object>> call(Callable<Map<String, Object>> work) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/test");
+        request.addHeader("X-Idempotency-Key", idempotencyKey);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return endpoint.handle(work);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @TestConfiguration
+    static class IdempotentEndpointConfig {
+
+        @Bean
+        IdempotentEndpoint idempotentEndpoint() {
+            return new IdempotentEndpoint();
+        }
+    }
+
+    static class IdempotentEndpoint {
+
+        @Idempotent
+        public ResponseEntity<Map<String, Object>> handle(Callable<Map<String, Object>> work) throws Exception {
+            return ResponseEntity.status(HttpStatus.CREATED).body(work.call());
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.vsa.ecommerce.common.repository;
+
+import com.vsa.ecommerce.common.id.SnowflakeHibernateGenerator;
+import com.vsa.ecommerce.common.id.SnowflakeId;
+import com.vsa.ecommerce.common.id.SnowflakeIdGenerator;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * JMH comparison of database round trips for inserts with IDENTITY ids versus
+ * application-assigned Snowflake ids.
+ * <p>
+ * Every statement execution and commit on the connection counts as one round
+ * trip; the averages per operation are printed once per trial. Hibernate runs
+ * with the DatabaseConfig batch settings (batch_size 20, order_inserts) and
+ * the driver with reWriteBatchedInserts.
+ * <p>
+ * Scenarios:
+ * - checkout: one order with 5 items persisted by cascade, as in
+ * CheckoutCartService (inventory updates are batched in both modes and left
+ * out)
+ * - batchSave: 200 rows through {@link BaseRepositoryImpl#batchSave}
+ * <p>
+ * Expected: IDENTITY executes one INSERT per row (checkout 7, batchSave 201
+ * round trips), Snowflake ids one batch per 20 rows and table (checkout 3,
+ * batchSave 11).
+ * <p>
+ * Requirements:
+ * - PostgreSQL at -Dbench.jdbc.url (default the application database); the
+ * benchmark creates and drops its own bench_* tables
+ * <p>
+ * Run: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.vsa.ecommerce.common.repository.InsertRoundTripBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertRoundTripBenchmark {
+
+    private static final int CHECKOUT_ITEMS = 5;
+    private static final int BATCH_SAVE_ROWS = 200;
+
+    @Param({ "identity", "snowflake" })
+    private String ids;
+
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+
+    // Single benchmark thread, plain counters are enough
+    private long roundTrips;
+    private long checkoutOps;
+    private long checkoutRoundTrips;
+    private long batchSaveOps;
+    private long batchSaveRoundTrips;
+
+    @Setup
+    public void setUp() {
+        SnowflakeHibernateGenerator.setSnowflakeIdGenerator(new SnowflakeIdGenerator(0, 0));
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5000/commerce_core"));
+        hikariConfig.setUsername(System.getProperty("bench.jdbc.username", "commerce_core"));
+        hikariConfig.setPassword(System.getProperty("bench.jdbc.password", "zxcl123123"));
+        hikariConfig.setMaximumPoolSize(2);
+        hikariConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
+        dataSource = new HikariDataSource(hikariConfig);
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, countingDataSource(dataSource))
+                .applySetting(AvailableSettings.DIALECT, "org.hibernate.dialect.PostgreSQLDialect")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, "20")
+                .applySetting(AvailableSettings.ORDER_INSERTS, "true")
+                .applySetting(AvailableSettings.ORDER_UPDATES, "true")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(IdentityOrder.class)
+                .addAnnotatedClass(IdentityOrderItem.class)
+                .addAnnotatedClass(SnowflakeOrder.class)
+                .addAnnotatedClass(SnowflakeOrderItem.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        roundTrips = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (checkoutOps > 0) {
+            System.out.printf("%n%s ids, checkout: %.1f round trips/op%n", ids,
+                    (double) checkoutRoundTrips / checkoutOps);
+        }
+        if (batchSaveOps > 0) {
+            System.out.printf("%n%s ids, batchSave: %.1f round trips/op%n", ids,
+                    (double) batchSaveRoundTrips / batchSaveOps);
+        }
+        sessionFactory.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Object checkout() {
+        long before = roundTrips;
+        Object order = "identity".equals(ids) ? identityOrder() : snowflakeOrder();
+        inTransaction(session -> session.persist(order));
+        checkoutRoundTrips += roundTrips - before;
+        checkoutOps++;
+        return order;
+    }
+
+    @Benchmark
+    public int batchSave() {
+        long before = roundTrips;
+        List<?> saved = "identity".equals(ids)
+                ? batchSave(IdentityOrderItem.class, items(IdentityOrderItem::new, BATCH_SAVE_ROWS))
+                : batchSave(SnowflakeOrderItem.class, items(SnowflakeOrderItem::new, BATCH_SAVE_ROWS));
+        batchSaveRoundTrips += roundTrips - before;
+        batchSaveOps++;
+        return saved.size();
+    }
+
+    private <T> List<T> batchSave(Class<T> type, List<T> rows) {
+        List<T> saved = new ArrayList<>();
+        inTransaction(session -> saved.addAll(
+                new BaseRepositoryImpl<T, Long>(JpaEntityInformationSupport.getEntityInformation(type, session),
+                        session).batchSave(rows)));
+        return saved;
+    }
+
+    private void inTransaction(Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.getTransaction().begin();
+            work.accept(session);
+            session.getTransaction().commit();
+        }
+    }
+
+    private IdentityOrder identityOrder() {
+        IdentityOrder order = new IdentityOrder();
+        for (IdentityOrderItem item : items(IdentityOrderItem::new, CHECKOUT_ITEMS)) {
+            item.order = order;
+            order.items.add(item);
+        }
+        order.totalAmount = BigDecimal.valueOf(CHECKOUT_ITEMS * 10L);
+        return order;
+    }
+
+    private SnowflakeOrder snowflakeOrder() {
+        SnowflakeOrder order = new SnowflakeOrder();
+        for (SnowflakeOrderItem item : items(SnowflakeOrderItem::new, CHECKOUT_ITEMS)) {
+            item.order = order;
+            order.items.add(item);
+        }
+        order.totalAmount = BigDecimal.valueOf(CHECKOUT_ITEMS * 10L);
+        return order;
+    }
+
+    private static <T extends BenchLine> List<T> items(Supplier<T> factory, int count) {
+        List<T> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            T item = factory.get();
+            item.productNameSnapshot = "Product " + i;
+            item.pricePerUnitSnapshot = BigDecimal.TEN;
+            item.quantity = 1;
+            items.add(item);
+        }
+        return items;
+    }
+
+    // ==================== Round trip counting ====================
+
+    private DataSource countingDataSource(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Connection connection ? countingConnection(connection) : result;
+                });
+    }
+
+    private Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("commit") || name.equals("rollback")) {
+                        roundTrips++;
+                    }
+                    Object result = invoke(target, method, args);
+                    if (name.equals("createStatement") || name.startsWith("prepare")) {
+                        return countingStatement(result, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private Object countingStatement(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        roundTrips++;
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ==================== Bench entities ====================
+
+    @MappedSuperclass
+    public abstract static class BenchLine {
+        String productNameSnapshot;
+        BigDecimal pricePerUnitSnapshot;
+        Integer quantity;
+    }
+
+    @Entity
+    @Table(name = "bench_identity_orders")
+    public static class IdentityOrder {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        BigDecimal totalAmount;
+        @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+        List<IdentityOrderItem> items = new ArrayList<>();
+    }
+
+    @Entity
+    @Table(name = "bench_identity_order_items")
+    public static class IdentityOrderItem extends BenchLine {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "order_id")
+        IdentityOrder order;
+    }
+
+    @Entity
+    @Table(name = "bench_snowflake_orders")
+    public static class SnowflakeOrder {
+        @Id
+        @SnowflakeId
+        Long id;
+        BigDecimal totalAmount;
+        @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+        List<SnowflakeOrderItem> items = new ArrayList<>();
+    }
+
+    @Entity
+    @Table(name = "bench_snowflake_order_items")
+    public static class SnowflakeOrderItem extends BenchLine {
+        @Id
+        @SnowflakeId
+        Long id;
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "order_id")
+        SnowflakeOrder order;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InsertRoundTripBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
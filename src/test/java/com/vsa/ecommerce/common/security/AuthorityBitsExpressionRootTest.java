@@ -0,0 +1,80 @@
+package com.vsa.ecommerce.common.security;
+
+import com.vsa.ecommerce.domain.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expressions written against the standard method security root evaluate the
+ * same against {@link AuthorityBitsExpressionRoot}.
+ * <p>
+ * Tests:
+ * - principal and authentication resolve to the current authentication
+ * - Role checks are answered from the authority mask
+ * - Permission names (read, write, ...) resolve like on the standard root
+ * - An anonymous user has no principal object of ours and falls back to the
+ * standard root
+ */
+class AuthorityBitsExpressionRootTest {
+
+    private final AuthorityBitsMethodSecurityExpressionHandler handler =
+            new AuthorityBitsMethodSecurityExpressionHandler();
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    @Test
+    void testPrincipal_ResolvesUserPrincipal() {
+        Authentication authentication = authenticated(42L, AuthorityBits.of(UserRole.USER));
+
+        assertThat(evaluate("principal.id == 42", authentication)).isEqualTo(true);
+        assertThat(evaluate("principal.username", authentication)).isEqualTo("user@example.com");
+        assertThat(evaluate("authentication.name", authentication)).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void testHasRole_UsesAuthorityBits() {
+        Authentication authentication = authenticated(42L, AuthorityBits.of(UserRole.ADMIN));
+
+        assertThat(evaluate("hasRole('ADMIN') and principal.id == 42", authentication)).isEqualTo(true);
+        assertThat(evaluate("hasRole('USER')", authentication)).isEqualTo(false);
+    }
+
+    @Test
+    void testPermissionNames_MatchStandardRoot() {
+        Authentication authentication = authenticated(42L, 0L);
+
+        assertThat(evaluate("{read, write, create, delete, admin}", authentication))
+                .isEqualTo(List.of("read", "write", "create", "delete", "administration"));
+    }
+
+    @Test
+    void testAnonymous_FallsBackToStandardRoot() {
+        Authentication authentication = new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThat(evaluate("principal", authentication)).isEqualTo("anonymousUser");
+        assertThat(evaluate("isAnonymous() and hasRole('ANONYMOUS')", authentication)).isEqualTo(true);
+    }
+
+    private Object evaluate(String expression, Authentication authentication) {
+        EvaluationContext context = handler.createEvaluationContext(() -> authentication,
+                new SimpleMethodInvocation(this, ReflectionUtils.findMethod(Object.class, "toString")));
+        return parser.parseExpression(expression).getValue(context);
+    }
+
+    private static Authentication authenticated(Long id, long authorityBits) {
+        UserPrincipal principal = new UserPrincipal(id, "user@example.com", null, "Test", "User",
+                authorityBits, true, true, true, true);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,118 @@
+package com.vsa.ecommerce.common.security;
+
+import com.vsa.ecommerce.domain.enums.AppPermission;
+import com.vsa.ecommerce.domain.enums.UserRole;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JMH comparison of the authorization work per request: building the
+ * principal's authorities from token claims, then evaluating a
+ * {@code @PreAuthorize} expression.
+ * <p>
+ * Modes:
+ * - strings: previous behaviour, an "authorities" name list mapped to a set of
+ * {@link SimpleGrantedAuthority} per request, checked by the default
+ * expression handler (authority set rebuilt and scanned per evaluation)
+ * - bits: the "ab" claim mask on a {@link UserPrincipal}, checked by
+ * {@link AuthorityBitsMethodSecurityExpressionHandler} (bit tests)
+ * <p>
+ * The user holds 2 roles and 3 permissions in both modes.
+ * <p>
+ * Run: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.vsa.ecommerce.common.security.AuthorizationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    private static final List<String> AUTHORITY_NAMES = List.of(
+            "ROLE_USER", "ROLE_ADMIN", "order:read", "order:write", "product:read");
+
+    @Param({ "strings", "bits" })
+    private String mode;
+
+    @Param({ "hasRole('USER') or hasRole('ADMIN')", "hasAuthority('order:write')" })
+    private String expression;
+
+    private MethodSecurityExpressionHandler handler;
+    private Expression parsedExpression;
+    private MethodInvocation invocation;
+    private long authorityBits;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = "bits".equals(mode)
+                ? new AuthorityBitsMethodSecurityExpressionHandler()
+                : new DefaultMethodSecurityExpressionHandler();
+        parsedExpression = handler.getExpressionParser().parseExpression(expression);
+        invocation = new SimpleMethodInvocation(this, AuthorizationBenchmark.class.getMethod("securedEndpoint"));
+        authorityBits = AuthorityBits.of(UserRole.USER) | AuthorityBits.of(UserRole.ADMIN)
+                | AuthorityBits.of(AppPermission.ORDER_READ) | AuthorityBits.of(AppPermission.ORDER_WRITE)
+                | AuthorityBits.of(AppPermission.PRODUCT_READ);
+    }
+
+    @Benchmark
+    public boolean authorize() {
+        Authentication authentication = "bits".equals(mode) ? bitsAuthentication() : stringsAuthentication();
+        EvaluationContext context = handler.createEvaluationContext(() -> authentication, invocation);
+        return ExpressionUtils.evaluateAsBoolean(parsedExpression, context);
+    }
+
+    /**
+     * Stand-in for the secured controller method.
+     */
+    public void securedEndpoint() {
+    }
+
+    private Authentication stringsAuthentication() {
+        Set<GrantedAuthority> authorities = AUTHORITY_NAMES.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+        return new UsernamePasswordAuthenticationToken("bench@example.com", null, authorities);
+    }
+
+    private Authentication bitsAuthentication() {
+        UserPrincipal principal = new UserPrincipal(42L, "bench@example.com", null, null, null,
+                authorityBits, true, true, true, true);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthorizationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
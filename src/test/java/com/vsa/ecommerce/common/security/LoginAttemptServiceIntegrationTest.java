@@ -0,0 +1,167 @@
+package com.vsa.ecommerce.common.security;
+
+import com.vsa.ecommerce.common.otp.OtpService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the Lua-scripted login attempt and OTP operations.
+ * <p>
+ * Tests:
+ * - Concurrent failures are all counted and lock the account
+ * - Concurrent OTP verification accepts a code once and caps attempts
+ * - Each operation is a single EVALSHA round trip
+ * <p>
+ * Requirements:
+ * - Redis instance running on localhost:6379
+ */
+@SpringBootTest
+class LoginAttemptServiceIntegrationTest {
+
+    private static final String EMAIL = "lockout-test@example.com";
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        loginAttemptService.loginSucceeded(EMAIL);
+        otpService.invalidateOtp(EMAIL);
+        redisTemplate.delete("otp:attempts:" + EMAIL);
+    }
+
+    @Test
+    void testConcurrentFailures_AllCountedAndLocked() throws Exception {
+        // When - 50 concurrent failed logins
+        runConcurrently(50, () -> {
+            loginAttemptService.loginFailed(EMAIL);
+            return null;
+        });
+
+        // Then - no lost increments, counter has a TTL, account locked
+        assertThat(redisTemplate.opsForValue().get("login_attempts:" + EMAIL)).isEqualTo("50");
+        assertThat(redisTemplate.getExpire("login_attempts:" + EMAIL, TimeUnit.SECONDS)).isPositive();
+        assertThat(loginAttemptService.isBlocked(EMAIL)).isTrue();
+
+        loginAttemptService.loginSucceeded(EMAIL);
+        assertThat(loginAttemptService.isBlocked(EMAIL)).isFalse();
+    }
+
+    @Test
+    void testConcurrentFailures_BelowLimitNotLocked() throws Exception {
+        runConcurrently(4, () -> {
+            loginAttemptService.loginFailed(EMAIL);
+            return null;
+        });
+
+        assertThat(redisTemplate.opsForValue().get("login_attempts:" + EMAIL)).isEqualTo("4");
+        assertThat(loginAttemptService.isBlocked(EMAIL)).isFalse();
+    }
+
+    @Test
+    void testConcurrentOtpVerification_AcceptedOnce() throws Exception {
+        String otp = otpService.generateOtp(EMAIL);
+        AtomicInteger accepted = new AtomicInteger();
+
+        runConcurrently(20, () -> {
+            if (otpService.validateOtp(EMAIL, otp)) {
+                accepted.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertThat(accepted.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentOtpGuessing_AttemptsCapped() throws Exception {
+        String otp = otpService.generateOtp(EMAIL);
+        String wrong = otp.equals("000000") ? "111111" : "000000";
+
+        runConcurrently(30, () -> otpService.validateOtp(EMAIL, wrong));
+
+        // Attempts stop counting at the limit and the right code is now refused
+        assertThat(redisTemplate.opsForValue().get("otp:attempts:" + EMAIL)).isEqualTo("5");
+        assertThat(otpService.validateOtp(EMAIL, otp)).isFalse();
+    }
+
+    @Test
+    void testOperations_SingleRoundTrip() {
+        int calls = 20;
+        long evalShaBefore = commandCalls("evalsha");
+        long incrBefore = commandCalls("incr");
+        long getBefore = commandCalls("get");
+
+        for (int i = 0; i < calls; i++) {
+            loginAttemptService.loginFailed(EMAIL);
+        }
+        String otp = otpService.generateOtp(EMAIL);
+        otpService.validateOtp(EMAIL, otp);
+
+        // One EVALSHA per operation, none of the former INCR/EXPIRE/GET calls
+        assertThat(commandCalls("evalsha") - evalShaBefore).isEqualTo(calls + 2);
+        assertThat(commandCalls("incr") - incrBefore).isZero();
+        assertThat(commandCalls("get") - getBefore).isZero();
+    }
+
+    private void runConcurrently(int threads, Callable<?> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Calls of a command since server start, from INFO commandstats.
+     */
+    private long commandCalls(String command) {
+        Properties stats = redisTemplate.execute(
+                (RedisCallback<Properties>) connection -> connection.serverCommands().info("commandstats"));
+        String entry = stats != null ? stats.getProperty("cmdstat_" + command) : null;
+        if (entry == null) {
+            return 0;
+        }
+        for (String field : entry.split(",")) {
+            if (field.startsWith("calls=")) {
+                return Long.parseLong(field.substring("calls=".length()));
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.vsa.ecommerce.common.security.jwt;
+
+import com.vsa.ecommerce.common.security.AuthorityBits;
+import com.vsa.ecommerce.common.security.CustomUserDetailsService;
+import com.vsa.ecommerce.common.security.UserPrincipal;
+import com.vsa.ecommerce.common.security.UserSecurityVersionService;
+import com.vsa.ecommerce.common.security.revocation.TokenRevocationService;
+import com.vsa.ecommerce.domain.enums.UserRole;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the JWT filter path per authenticated request.
+ * <p>
+ * Modes:
+ * - legacy: previous behaviour, validateToken + getEmailFromToken, each
+ * decoding the secret, building a parser and verifying the HMAC
+ * - singleParse: one parse with the prebuilt key and parser (verified-token
+ * cache disabled)
+ * - cached: repeat request with the same token, served from the verified-token
+ * cache
+ * - stateless: cached, with the principal built from the claims instead of
+ * loaded
+ * <p>
+ * User loading is stubbed, and security versions and revocations are local
+ * (no Redis or database), so only token handling is measured.
+ * <p>
+ * Run: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.vsa.ecommerce.common.security.jwt.JwtAuthenticationFilterBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "94dVTstqm+0ZlG5DHL9WJBIs4LFxTmuoDi/3YQQPgJx4IVW1HFHhrvAi1pm7m1wHp1R7VQL+HuRiopkoezz5yNg==";
+
+    @Param({ "legacy", "singleParse", "cached", "stateless" })
+    private String mode;
+
+    private JwtAuthenticationFilter filter;
+    private CustomUserDetailsService userDetailsService;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecretKey(SECRET);
+        properties.setVerifiedCacheSize("singleParse".equals(mode) ? 0 : 10_000);
+        properties.setStatelessAuthentication("stateless".equals(mode));
+        JwtTokenProvider provider = new JwtTokenProvider(properties);
+
+        long authorities = AuthorityBits.of(UserRole.USER) | AuthorityBits.of(UserRole.ADMIN);
+        UserPrincipal principal = new UserPrincipal(42L, "bench@example.com", "x", "Bench", "User",
+                authorities, true, true, true, true);
+        userDetailsService = new CustomUserDetailsService(null, null, null, null) {
+            @Override
+            public UserPrincipal loadPrincipalByEmail(String email) {
+                return principal;
+            }
+        };
+        UserSecurityVersionService securityVersions = new UserSecurityVersionService(null, null, properties);
+        TokenRevocationService revocations = new TokenRevocationService(null, null,
+                new RedisMessageListenerContainer());
+        ReflectionTestUtils.setField(revocations, "channel", "token-revocation");
+        ReflectionTestUtils.setField(revocations, "expectedRevocations", 100_000L);
+        ReflectionTestUtils.setField(revocations, "falsePositiveRate", 0.01);
+        revocations.start();
+        filter = new JwtAuthenticationFilter(provider, userDetailsService, securityVersions, revocations,
+                properties);
+
+        token = provider.generateAccessToken(42L, "bench@example.com", authorities, 0L, "bench-session");
+        request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        if ("legacy".equals(mode)) {
+            legacyAuthenticate(token);
+        } else {
+            filter.doFilter(request, response, new MockFilterChain());
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    /**
+     * The filter body before single-parse verification: two full parses, each
+     * rebuilding the key and the parser.
+     */
+    private void legacyAuthenticate(String jwt) {
+        Jwts.parser().verifyWith(legacySigningKey()).build().parseSignedClaims(jwt);
+        String email = Jwts.parser().verifyWith(legacySigningKey()).build()
+                .parseSignedClaims(jwt).getPayload().get("email", String.class);
+
+        UserPrincipal principal = userDetailsService.loadPrincipalByEmail(email);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,92 @@
+package com.vsa.ecommerce.common.security.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the per-device refresh session registry.
+ * <p>
+ * Tests:
+ * - Sessions of several devices coexist
+ * - Rotation accepts the current token id once; replaying a rotated id ends
+ * the session
+ * - Revoke-all ends every session
+ * <p>
+ * Requirements:
+ * - Redis instance running on localhost:6379
+ */
+@SpringBootTest
+class RefreshSessionServiceIntegrationTest {
+
+    private static final Long USER_ID = 990_001L;
+    private static final SessionPrincipal PRINCIPAL = new SessionPrincipal("session-test@example.com", 0b11L);
+
+    @Autowired
+    private RefreshSessionService refreshSessionService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        refreshSessionService.revokeAll(USER_ID);
+    }
+
+    @Test
+    void testDevices_HaveIndependentSessions() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        refreshSessionService.create(USER_ID, "phone", "t1", expiresAt, PRINCIPAL);
+        refreshSessionService.create(USER_ID, "laptop", "t2", expiresAt, PRINCIPAL);
+
+        RefreshSessionService.Rotation phone = refreshSessionService.rotate(USER_ID, "phone", "t1", 0L, "t3",
+                expiresAt);
+        RefreshSessionService.Rotation laptop = refreshSessionService.rotate(USER_ID, "laptop", "t2", 0L, "t4",
+                expiresAt);
+
+        assertThat(phone.rotated()).isTrue();
+        assertThat(laptop.rotated()).isTrue();
+        assertThat(phone.principal()).isEqualTo(PRINCIPAL);
+    }
+
+    @Test
+    void testRotation_ReuseOfRotatedTokenEndsSession() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        refreshSessionService.create(USER_ID, "phone", "t1", expiresAt, PRINCIPAL);
+
+        assertThat(refreshSessionService.rotate(USER_ID, "phone", "t1", 0L, "t2", expiresAt).rotated()).isTrue();
+
+        // Replaying the old token is refused and also kills the current one
+        assertThat(refreshSessionService.rotate(USER_ID, "phone", "t1", 0L, "t3", expiresAt).rotated()).isFalse();
+        assertThat(refreshSessionService.rotate(USER_ID, "phone", "t2", 0L, "t4", expiresAt).rotated()).isFalse();
+    }
+
+    @Test
+    void testRevokeAll_EndsEverySession() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        refreshSessionService.create(USER_ID, "phone", "t1", expiresAt, PRINCIPAL);
+        refreshSessionService.create(USER_ID, "laptop", "t2", expiresAt, PRINCIPAL);
+
+        refreshSessionService.revokeAll(USER_ID);
+
+        assertThat(redisTemplate.hasKey("refresh_sessions:" + USER_ID)).isFalse();
+        assertThat(refreshSessionService.rotate(USER_ID, "phone", "t1", 0L, "t3", expiresAt).rotated()).isFalse();
+    }
+
+    @Test
+    void testPrincipalEviction_ReturnsNoPrincipalUntilStored() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        refreshSessionService.create(USER_ID, "phone", "t1", expiresAt, PRINCIPAL);
+
+        refreshSessionService.evictPrincipalAfterCommit(USER_ID);
+        RefreshSessionService.Rotation rotation = refreshSessionService.rotate(USER_ID, "phone", "t1", 0L, "t2",
+                expiresAt);
+
+        assertThat(rotation.rotated()).isTrue();
+        assertThat(rotation.principal()).isNull();
+    }
+}
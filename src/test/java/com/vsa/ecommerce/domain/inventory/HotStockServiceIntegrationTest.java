@@ -0,0 +1,179 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.common.lock.DistributedLockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration test for reconciliation and the write-behind writer of hot stock
+ * mode.
+ * <p>
+ * Tests:
+ * - A pending reservation whose order was never committed is released, one
+ * whose order exists is kept
+ * - A journal entry the database refuses does not hold up the entries behind
+ * it and is moved to the dead-letter stream after max-attempts runs
+ * - A refused entry in a full batch is tried once per run, not max-attempts
+ * times within one run
+ * - A transient database failure leaves the journal as is
+ * <p>
+ * The service under test runs against the Redis store with a mocked
+ * repository, so the inventory tables are not touched.
+ * <p>
+ * Requirements:
+ * - Redis instance running on localhost:6379
+ */
+@SpringBootTest(properties = {
+        "inventory.hot-stock.flush-interval-ms=3600000",
+        "inventory.hot-stock.reconcile-interval-ms=0" })
+class HotStockServiceIntegrationTest {
+
+    private static final Long PRODUCT_A = 990_000_000_011L;
+    private static final Long POISON_PRODUCT = 990_000_000_012L;
+    private static final Long ORPHAN_ORDER = 990_000_000_111L;
+    private static final Long COMMITTED_ORDER = 990_000_000_112L;
+    private static final int MAX_ATTEMPTS = 2;
+
+    @Autowired
+    private HotStockStore hotStockStore;
+
+    @Autowired
+    private DistributedLockService lockService;
+
+    private HotStockRepository repository;
+    private HotStockService hotStockService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(HotStockRepository.class);
+        hotStockService = new HotStockService(hotStockStore, repository, lockService);
+        ReflectionTestUtils.setField(hotStockService, "batchSize", 500);
+        ReflectionTestUtils.setField(hotStockService, "switchLockWaitMs", 5000L);
+        ReflectionTestUtils.setField(hotStockService, "orphanGraceMs", 0L);
+        ReflectionTestUtils.setField(hotStockService, "maxAttempts", MAX_ATTEMPTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotStockStore.retire(PRODUCT_A);
+        hotStockStore.confirm(ORPHAN_ORDER);
+        hotStockStore.confirm(COMMITTED_ORDER);
+        hotStockStore.deleteJournal(journal());
+    }
+
+    @Test
+    void testReleaseOrphans_ReleasesUncommittedOrdersOnly() {
+        hotStockStore.seed(PRODUCT_A, 10);
+        hotStockStore.reserve(line(PRODUCT_A, 3), ORPHAN_ORDER);
+        hotStockStore.reserve(line(PRODUCT_A, 2), COMMITTED_ORDER);
+        when(repository.findExistingOrderIds(any())).thenAnswer(invocation -> {
+            Collection<Long> orderIds = invocation.getArgument(0);
+            return orderIds.contains(COMMITTED_ORDER) ? Set.of(COMMITTED_ORDER) : Set.of();
+        });
+
+        assertThat(hotStockService.releaseOrphans()).isPositive();
+
+        assertThat(hotStockStore.available(PRODUCT_A)).isEqualTo(8);
+        assertThat(hotStockStore.pendingOrderIds(0)).doesNotContain(ORPHAN_ORDER, COMMITTED_ORDER);
+        assertThat(hotStockStore.releasePending(COMMITTED_ORDER)).isZero();
+    }
+
+    @Test
+    void testFlush_DeadLettersPoisonEntryAfterMaxAttempts() {
+        hotStockStore.release(line(PRODUCT_A, 1), ORPHAN_ORDER);
+        hotStockStore.release(line(POISON_PRODUCT, 1), ORPHAN_ORDER);
+        hotStockStore.release(line(PRODUCT_A, 2), ORPHAN_ORDER);
+        String poisonEntryId = journal().get(1).id();
+        refuse(POISON_PRODUCT);
+
+        hotStockService.flush();
+
+        assertThat(journal()).extracting(HotStockEntry::id).containsExactly(poisonEntryId);
+        assertThat(deadLetteredEntryIds()).doesNotContain(poisonEntryId);
+
+        hotStockService.flush();
+
+        assertThat(journal()).isEmpty();
+        assertThat(deadLetteredEntryIds()).contains(poisonEntryId);
+    }
+
+    @Test
+    void testFlush_FullBatchCountsOneAttemptPerRun() {
+        hotStockStore.release(line(PRODUCT_A, 1), ORPHAN_ORDER);
+        hotStockStore.release(line(POISON_PRODUCT, 1), ORPHAN_ORDER);
+        hotStockStore.release(line(PRODUCT_A, 2), ORPHAN_ORDER);
+        String poisonEntryId = journal().get(1).id();
+        ReflectionTestUtils.setField(hotStockService, "batchSize", hotStockStore.readJournal(10_000).size());
+        refuse(POISON_PRODUCT);
+
+        hotStockService.flush();
+
+        assertThat(journal()).extracting(HotStockEntry::id).containsExactly(poisonEntryId);
+        assertThat(deadLetteredEntryIds()).doesNotContain(poisonEntryId);
+    }
+
+    @Test
+    void testFlush_TransientFailureKeepsJournal() {
+        hotStockStore.release(line(PRODUCT_A, 1), ORPHAN_ORDER);
+        String entryId = journal().get(0).id();
+        when(repository.apply(anyList())).thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertThatThrownBy(hotStockService::flush).isInstanceOf(CannotAcquireLockException.class);
+        }
+
+        assertThat(journal()).extracting(HotStockEntry::id).containsExactly(entryId);
+        assertThat(deadLetteredEntryIds()).doesNotContain(entryId);
+    }
+
+    /**
+     * Let the repository refuse every write containing the product.
+     */
+    private void refuse(Long productId) {
+        when(repository.apply(anyList())).thenAnswer(invocation -> {
+            List<HotStockEntry> entries = invocation.getArgument(0);
+            if (entries.stream().anyMatch(entry -> productId.equals(entry.productId()))) {
+                throw new DataIntegrityViolationException("inventory row missing");
+            }
+            return entries.size();
+        });
+    }
+
+    private static SortedMap<Long, Integer> line(Long productId, int quantity) {
+        SortedMap<Long, Integer> line = new TreeMap<>();
+        line.put(productId, quantity);
+        return line;
+    }
+
+    private List<HotStockEntry> journal() {
+        return hotStockStore.readJournal(10_000).stream()
+                .filter(entry -> Set.of(PRODUCT_A, POISON_PRODUCT).contains(entry.productId()))
+                .toList();
+    }
+
+    private Set<String> deadLetteredEntryIds() {
+        return hotStockStore.readDeadLetters(10_000).stream()
+                .map(deadLetter -> deadLetter.get("entry"))
+                .collect(Collectors.toSet());
+    }
+}
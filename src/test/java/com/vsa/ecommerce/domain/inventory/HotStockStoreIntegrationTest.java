@@ -0,0 +1,196 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.domain.enums.InventoryTransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Integration test for the Redis side of hot stock mode.
+ * <p>
+ * Tests:
+ * - A reservation takes all lines or none and reports every shortfall
+ * - Every reserved line is journalled
+ * - Concurrent reservations never oversell
+ * - A release after the product left hot stock mode is still journalled
+ * - A reservation stays pending for its order until confirmed or released,
+ * and a pending reservation is released once
+ * - A journal record that cannot be parsed is moved to the dead-letter stream
+ * <p>
+ * The write-behind writer is slowed down so it does not consume the journal
+ * entries under test.
+ * <p>
+ * Requirements:
+ * - Redis instance running on localhost:6379
+ */
+@SpringBootTest(properties = {
+        "inventory.hot-stock.flush-interval-ms=3600000",
+        "inventory.hot-stock.reconcile-interval-ms=0" })
+class HotStockStoreIntegrationTest {
+
+    private static final Long PRODUCT_A = 990_000_000_001L;
+    private static final Long PRODUCT_B = 990_000_000_002L;
+    private static final Long ORDER = 990_000_000_101L;
+
+    @Autowired
+    private HotStockStore hotStockStore;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        hotStockStore.retire(PRODUCT_A);
+        hotStockStore.retire(PRODUCT_B);
+        hotStockStore.confirm(ORDER);
+        hotStockStore.deleteJournal(journal());
+    }
+
+    @Test
+    void testReserve_AllLinesOrNone() {
+        hotStockStore.seed(PRODUCT_A, 10);
+        hotStockStore.seed(PRODUCT_B, 1);
+
+        List<StockShortfall> shortfalls = hotStockStore.reserve(lines(3, 2), ORDER);
+
+        assertThat(shortfalls).containsExactly(new StockShortfall(PRODUCT_B, 2, 1));
+        assertThat(hotStockStore.available(PRODUCT_A)).isEqualTo(10);
+        assertThat(journal()).isEmpty();
+        assertThat(hotStockStore.pendingOrderIds(0)).doesNotContain(ORDER);
+    }
+
+    @Test
+    void testReserve_DecrementsAndJournalsEveryLine() {
+        hotStockStore.seed(PRODUCT_A, 10);
+        hotStockStore.seed(PRODUCT_B, 5);
+
+        assertThat(hotStockStore.reserve(lines(3, 5), ORDER)).isEmpty();
+
+        assertThat(hotStockStore.available(PRODUCT_A)).isEqualTo(7);
+        assertThat(hotStockStore.available(PRODUCT_B)).isZero();
+        assertThat(journal()).extracting(HotStockEntry::type, HotStockEntry::productId, HotStockEntry::quantity,
+                HotStockEntry::orderId)
+                .containsExactly(
+                        tuple(InventoryTransactionType.RESERVE, PRODUCT_A, 3, ORDER),
+                        tuple(InventoryTransactionType.RESERVE, PRODUCT_B, 5, ORDER));
+    }
+
+    @Test
+    void testConfirm_KeepsReservation() {
+        hotStockStore.seed(PRODUCT_A, 10);
+        hotStockStore.reserve(lines(4, 0).headMap(PRODUCT_B), ORDER);
+        assertThat(hotStockStore.pendingOrderIds(0)).contains(ORDER);
+
+        hotStockStore.confirm(ORDER);
+
+        assertThat(hotStockStore.pendingOrderIds(0)).doesNotContain(ORDER);
+        assertThat(hotStockStore.releasePending(ORDER)).isZero();
+        assertThat(hotStockStore.available(PRODUCT_A)).isEqualTo(6);
+    }
+
+    @Test
+    void testReleasePending_ReleasesOnce() {
+        hotStockStore.seed(PRODUCT_A, 10);
+        hotStockStore.seed(PRODUCT_B, 5);
+        hotStockStore.reserve(lines(3, 5), ORDER);
+
+        assertThat(hotStockStore.releasePending(ORDER)).isEqualTo(2);
+        assertThat(hotStockStore.releasePending(ORDER)).isZero();
+
+        assertThat(hotStockStore.available(PRODUCT_A)).isEqualTo(10);
+        assertThat(hotStockStore.available(PRODUCT_B)).isEqualTo(5);
+        assertThat(hotStockStore.pendingOrderIds(0)).doesNotContain(ORDER);
+        assertThat(journal()).extracting(HotStockEntry::type, HotStockEntry::productId, HotStockEntry::quantity)
+                .containsExactly(
+                        tuple(InventoryTransactionType.RESERVE, PRODUCT_A, 3),
+                        tuple(InventoryTransactionType.RESERVE, PRODUCT_B, 5),
+                        tuple(InventoryTransactionType.RELEASE, PRODUCT_A, 3),
+                        tuple(InventoryTransactionType.RELEASE, PRODUCT_B, 5));
+    }
+
+    @Test
+    void testConcurrentReservations_NeverOversell() throws InterruptedException {
+        hotStockStore.seed(PRODUCT_A, 100);
+        AtomicInteger reserved = new AtomicInteger();
+        int threadCount = 16;
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                SortedMap<Long, Integer> line = new TreeMap<>();
+                line.put(PRODUCT_A, 1);
+                for (int j = 0; j < 10; j++) {
+                    if (hotStockStore.reserve(line, ORDER).isEmpty()) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+
+        latch.await();
+        executor.shutdown();
+
+        assertThat(reserved.get()).isEqualTo(100);
+        assertThat(hotStockStore.available(PRODUCT_A)).isZero();
+        assertThat(journal()).hasSize(100);
+    }
+
+    @Test
+    void testReleaseAfterRetire_JournalledWithoutCounter() {
+        hotStockStore.seed(PRODUCT_A, 4);
+        assertThat(hotStockStore.retire(PRODUCT_A)).isEqualTo(4);
+
+        SortedMap<Long, Integer> line = new TreeMap<>();
+        line.put(PRODUCT_A, 2);
+        hotStockStore.release(line, ORDER);
+
+        assertThat(hotStockStore.available(PRODUCT_A)).isNull();
+        assertThat(hotStockStore.hotProductIds()).doesNotContain(PRODUCT_A);
+        assertThat(journal()).extracting(HotStockEntry::type).containsExactly(InventoryTransactionType.RELEASE);
+    }
+
+    @Test
+    void testReadJournal_DeadLettersMalformedRecord() {
+        String entryId = redisTemplate.opsForStream().add("hot_stock:{stock}:journal",
+                Map.of("type", "RESERVE", "product", "not-a-number", "quantity", "1")).getValue();
+
+        assertThat(hotStockStore.readJournal(10_000)).extracting(HotStockEntry::id).doesNotContain(entryId);
+        assertThat(hotStockStore.readDeadLetters(10_000))
+                .filteredOn(deadLetter -> entryId.equals(deadLetter.get("entry")))
+                .singleElement()
+                .satisfies(deadLetter -> {
+                    assertThat(deadLetter).containsEntry("product", "not-a-number");
+                    assertThat(deadLetter.get("error")).startsWith("Malformed journal entry");
+                });
+    }
+
+    private SortedMap<Long, Integer> lines(int quantityA, int quantityB) {
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        lines.put(PRODUCT_A, quantityA);
+        lines.put(PRODUCT_B, quantityB);
+        return lines;
+    }
+
+    private List<HotStockEntry> journal() {
+        return hotStockStore.readJournal(10_000).stream()
+                .filter(entry -> Set.of(PRODUCT_A, PRODUCT_B).contains(entry.productId()))
+                .toList();
+    }
+}
@@ -0,0 +1,243 @@
+package com.vsa.ecommerce.domain.inventory;
+
+import com.vsa.ecommerce.common.exception.BusinessException;
+import com.vsa.ecommerce.common.exception.BusinessStatus;
+import com.vsa.ecommerce.domain.entity.Inventory;
+import com.vsa.ecommerce.domain.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration test for {@link InventoryReservationService} against the
+ * inventory table.
+ * <p>
+ * Tests:
+ * - Two concurrent reservations of the last units: exactly one succeeds and
+ * the stock never goes below zero
+ * - A reservation whose stock is taken between the check and the conditional
+ * UPDATE reports the shortfall and undoes the lines it already applied
+ * - Every line that cannot be served is listed in the STOCK_SHORTFALL error
+ * and nothing is reserved
+ * - Release returns reserved stock to available stock
+ * <p>
+ * Requirements:
+ * - PostgreSQL instance running on localhost:5000 (spring.datasource)
+ * - Redis instance running on localhost:6379
+ */
+@SpringBootTest(properties = {
+        "inventory.hot-stock.flush-interval-ms=3600000",
+        "inventory.hot-stock.reconcile-interval-ms=0" })
+class InventoryReservationServiceIntegrationTest {
+
+    private static final Long ORDER = 990_000_000_211L;
+    private static final Long OTHER_ORDER = 990_000_000_212L;
+
+    @Autowired
+    private InventoryReservationService reservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long productA;
+    private Long productB;
+
+    @BeforeEach
+    void setUp() {
+        productA = createProduct(5);
+        productB = createProduct(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> productIds = List.of(productA, productB);
+            entityManager.createQuery("DELETE FROM Inventory i WHERE i.product.id IN :productIds")
+                    .setParameter("productIds", productIds)
+                    .executeUpdate();
+            entityManager.createQuery("DELETE FROM Product p WHERE p.id IN :productIds")
+                    .setParameter("productIds", productIds)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    void testConcurrentReservations_LastUnitsReservedOnce() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            setStock(productB, 2, 0);
+
+            List<List<StockShortfall>> results = runConcurrently(2,
+                    () -> reserve(Map.of(productB, 2), ORDER));
+
+            assertThat(results).filteredOn(List::isEmpty).hasSize(1);
+            assertThat(results).filteredOn(shortfalls -> !shortfalls.isEmpty()).singleElement()
+                    .satisfies(shortfalls -> assertThat(shortfalls)
+                            .extracting(StockShortfall::productId).containsExactly(productB));
+            assertThat(available(productB)).isZero();
+            assertThat(reserved(productB)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testStockTakenAfterCheck_UndoesAppliedLines() throws Exception {
+        CountDownLatch competitorReserved = new CountDownLatch(1);
+        CountDownLatch commitCompetitor = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The competitor takes product B and holds the row lock until told to commit
+            Future<List<StockShortfall>> competitor = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<StockShortfall> shortfalls = reservationService.tryReserve(Map.of(productB, 2), OTHER_ORDER);
+                competitorReserved.countDown();
+                await(commitCompetitor);
+                return shortfalls;
+            }));
+            assertThat(competitorReserved.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Still sees B in stock, applies A, then blocks on B until the competitor commits
+            Future<List<StockShortfall>> reservation = executor.submit(
+                    () -> reserve(Map.of(productA, 1, productB, 2), ORDER));
+            Thread.sleep(500);
+            commitCompetitor.countDown();
+
+            assertThat(competitor.get(10, TimeUnit.SECONDS)).isEmpty();
+            assertThat(reservation.get(10, TimeUnit.SECONDS))
+                    .containsExactly(new StockShortfall(productB, 2, 2));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(available(productA)).isEqualTo(5);
+        assertThat(reserved(productA)).isZero();
+        assertThat(available(productB)).isZero();
+        assertThat(reserved(productB)).isEqualTo(2);
+    }
+
+    @Test
+    void testReserve_ListsEveryShortfall() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                status -> reservationService.reserve(Map.of(productA, 6, productB, 3), ORDER)))
+                .isInstanceOfSatisfying(BusinessException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(BusinessStatus.STOCK_SHORTFALL);
+                    assertThat(e.getMessage())
+                            .contains(new StockShortfall(productA, 6, 5).toString())
+                            .contains(new StockShortfall(productB, 3, 2).toString());
+                });
+
+        assertThat(available(productA)).isEqualTo(5);
+        assertThat(available(productB)).isEqualTo(2);
+    }
+
+    @Test
+    void testRelease_ReturnsReservedStock() {
+        assertThat(reserve(Map.of(productA, 3, productB, 1), ORDER)).isEmpty();
+        assertThat(available(productA)).isEqualTo(2);
+        assertThat(reserved(productA)).isEqualTo(3);
+
+        transactionTemplate.executeWithoutResult(
+                status -> reservationService.release(Map.of(productA, 3, productB, 1), ORDER));
+
+        assertThat(available(productA)).isEqualTo(5);
+        assertThat(reserved(productA)).isZero();
+        assertThat(available(productB)).isEqualTo(2);
+        assertThat(reserved(productB)).isZero();
+    }
+
+    private List<StockShortfall> reserve(Map<Long, Integer> quantities, Long orderId) {
+        return transactionTemplate.execute(status -> reservationService.tryReserve(quantities, orderId));
+    }
+
+    private Long createProduct(int available) {
+        return transactionTemplate.execute(status -> {
+            Product product = new Product();
+            product.setName("Reservation test product");
+            product.setPrice(new BigDecimal("9.99"));
+            product.setSku("TEST-" + UUID.randomUUID());
+            entityManager.persist(product);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setAvailableQuantity(available);
+            inventory.setReservedQuantity(0);
+            entityManager.persist(inventory);
+            return product.getId();
+        });
+    }
+
+    private void setStock(Long productId, int available, int reserved) {
+        transactionTemplate.executeWithoutResult(status -> entityManager.createQuery(
+                "UPDATE Inventory i SET i.availableQuantity = :available, i.reservedQuantity = :reserved"
+                        + " WHERE i.product.id = :productId")
+                .setParameter("available", available)
+                .setParameter("reserved", reserved)
+                .setParameter("productId", productId)
+                .executeUpdate());
+    }
+
+    private int available(Long productId) {
+        return stock(productId, "availableQuantity");
+    }
+
+    private int reserved(Long productId) {
+        return stock(productId, "reservedQuantity");
+    }
+
+    private int stock(Long productId, String column) {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                "SELECT i." + column + " FROM Inventory i WHERE i.product.id = :productId", Integer.class)
+                .setParameter("productId", productId)
+                .getSingleResult());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}